@@ -0,0 +1,53 @@
+package de.krieger.management;
+
+import de.krieger.management.messaging.LocalMessagingConfig;
+import de.krieger.management.service.DatasetSeeder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+/**
+ * The application with the local profile on a random port and an H2 seeded by the {@link DatasetSeeder}:
+ * one author per ten documents, two authors and on average three references per document,
+ * bodies of about 2 KB.
+ */
+public class SeededApplication implements AutoCloseable {
+
+    private final ConfigurableApplicationContext context;
+
+    private SeededApplication(int documents) {
+        context = new SpringApplicationBuilder(DocumentManagementApplication.class)
+                .profiles(LocalMessagingConfig.PROFILE)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "seed.documents=" + documents, "seed.references-per-document=3", "search.index.path=")
+                .run();
+    }
+
+    /**
+     * Starts the application and seeds the database.
+     *
+     * @param documents the number of documents
+     * @return the running application
+     */
+    public static SeededApplication start(int documents) {
+        return new SeededApplication(documents);
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public List<Integer> authorIds() {
+        return bean(DatasetSeeder.class).getAuthorIds();
+    }
+
+    public List<Integer> documentIds() {
+        return bean(DatasetSeeder.class).getDocumentIds();
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
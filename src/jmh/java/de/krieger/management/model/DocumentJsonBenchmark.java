@@ -0,0 +1,66 @@
+package de.krieger.management.model;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.krieger.management.SeededApplication;
+import de.krieger.management.service.DocumentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the JSON serialization of documents with the application's ObjectMapper.
+ * The bodies are decompressed during the serialization.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentJsonBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int documents;
+
+    private SeededApplication application;
+    private ObjectMapper objectMapper;
+    private Document document;
+    private List<Document> fullList;
+    private List<Document> summaryList;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = SeededApplication.start(documents);
+        objectMapper = application.bean(ObjectMapper.class);
+        DocumentService documentService = application.bean(DocumentService.class);
+        int lastId = application.documentIds().get(documents - 1);
+        document = new TransactionTemplate(application.bean(PlatformTransactionManager.class))
+                .execute(status -> documentService.findById(lastId));
+        fullList = documentService.getAll(DocumentView.FULL);
+        summaryList = documentService.getAll(DocumentView.SUMMARY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public byte[] serializeDocument() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(document);
+    }
+
+    @Benchmark
+    public byte[] serializeFullList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(fullList);
+    }
+
+    @Benchmark
+    public byte[] serializeSummaryList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(summaryList);
+    }
+}
@@ -0,0 +1,53 @@
+package de.krieger.management.service;
+
+import de.krieger.management.SeededApplication;
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.model.Author;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of AuthorServiceImpl.findAll, from the cache and from the database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthorServiceBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int documents;
+
+    private SeededApplication application;
+    private AuthorService authorService;
+    private Cache authorListCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = SeededApplication.start(documents);
+        authorService = application.bean(AuthorService.class);
+        authorListCache = application.bean(CacheManager.class).getCache(CacheNames.AUTHORS_ALL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public List<Author> findAllCached() {
+        return authorService.findAll();
+    }
+
+    @Benchmark
+    public List<Author> findAllUncached() {
+        authorListCache.clear();
+        return authorService.findAll();
+    }
+}
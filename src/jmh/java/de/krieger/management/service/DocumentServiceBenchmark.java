@@ -0,0 +1,140 @@
+package de.krieger.management.service;
+
+import de.krieger.management.SeededApplication;
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.entity.DocumentEntity;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.repository.DocumentRepository;
+import org.hibernate.Hibernate;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the DocumentServiceImpl read paths and mappings. The uncached variants evict the
+ * entry first and run in a read-only transaction, like the open session of a web request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentServiceBenchmark {
+
+    /**
+     * Number of documents mapped per invocation of the mapping benchmarks.
+     */
+    private static final int SAMPLE_SIZE = 100;
+
+    @Param({"100", "1000", "10000"})
+    public int documents;
+
+    private SeededApplication application;
+    private DocumentService documentService;
+    private DocumentServiceImpl documentServiceImpl;
+    private TransactionTemplate readOnly;
+    private Cache documentCache;
+    private Cache documentListCache;
+    private List<DocumentEntity> sampleEntities;
+    private List<Document> sampleDocuments;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = SeededApplication.start(documents);
+        documentService = application.bean(DocumentService.class);
+        documentServiceImpl = AopTestUtils.getUltimateTargetObject(documentService);
+        readOnly = new TransactionTemplate(application.bean(PlatformTransactionManager.class));
+        readOnly.setReadOnly(true);
+        CacheManager cacheManager = application.bean(CacheManager.class);
+        documentCache = cacheManager.getCache(CacheNames.DOCUMENTS);
+        documentListCache = cacheManager.getCache(CacheNames.DOCUMENTS_ALL);
+
+        List<Integer> sampleIds = application.documentIds().subList(documents - SAMPLE_SIZE, documents);
+        DocumentRepository documentRepository = application.bean(DocumentRepository.class);
+        // detached entities with everything loaded, so the mapping does not query
+        sampleEntities = readOnly.execute(status -> {
+            List<DocumentEntity> entities = documentRepository.findAllById(sampleIds);
+            entities.forEach(entity -> {
+                Hibernate.initialize(entity.getAuthors());
+                Hibernate.initialize(entity.getReferences());
+                entity.getBody();
+            });
+            return entities;
+        });
+        sampleDocuments = sampleEntities.stream().map(documentServiceImpl::getDocument).toList();
+        application.documentIds().forEach(this::findInTransaction);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public void mapEntitiesToDocuments(Blackhole blackhole) {
+        for (DocumentEntity entity : sampleEntities) {
+            blackhole.consume(documentServiceImpl.getDocument(entity));
+        }
+    }
+
+    /**
+     * Includes the queries resolving the authors and references of every document.
+     */
+    @Benchmark
+    public void mapDocumentsToEntities(Blackhole blackhole) {
+        readOnly.executeWithoutResult(status -> {
+            for (Document document : sampleDocuments) {
+                blackhole.consume(documentServiceImpl.getDocumentEntity(document));
+            }
+        });
+    }
+
+    @Benchmark
+    public Document findByIdCached() {
+        return documentService.findById(nextId());
+    }
+
+    @Benchmark
+    public Document findByIdUncached() {
+        int id = nextId();
+        documentCache.evict(id);
+        return findInTransaction(id);
+    }
+
+    @Benchmark
+    public List<Document> getAllSummaryCached() {
+        return documentService.getAll(DocumentView.SUMMARY);
+    }
+
+    @Benchmark
+    public List<Document> getAllSummaryUncached() {
+        documentListCache.evict(DocumentView.SUMMARY);
+        return documentService.getAll(DocumentView.SUMMARY);
+    }
+
+    @Benchmark
+    public List<Document> getAllFullUncached() {
+        documentListCache.evict(DocumentView.FULL);
+        return documentService.getAll(DocumentView.FULL);
+    }
+
+    private Document findInTransaction(int id) {
+        return readOnly.execute(status -> documentService.findById(id));
+    }
+
+    private int nextId() {
+        List<Integer> ids = application.documentIds();
+        next = (next + 1) % ids.size();
+        return ids.get(next);
+    }
+}
@@ -0,0 +1,71 @@
+package de.krieger.management.loadtest;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The endpoints driven by the load test. Reads are sent as the AUTHOR user, writes as the ADMIN user.
+ */
+enum Endpoint {
+    GET_DOCUMENTS("GET", "/api/documents", false),
+    GET_DOCUMENT("GET", "/api/document/{id}", false),
+    GET_AUTHORS("GET", "/api/authors", false),
+    GET_AUTHOR("GET", "/api/author/{id}", false),
+    CREATE_DOCUMENT("POST", "/api/document", true),
+    UPDATE_DOCUMENT("PUT", "/api/document/{id}", true),
+    CREATE_AUTHOR("POST", "/api/author", true),
+    UPDATE_AUTHOR("PUT", "/api/author/{id}", true);
+
+    private final String method;
+    private final String path;
+    private final boolean write;
+
+    Endpoint(String method, String path, boolean write) {
+        this.method = method;
+        this.path = path;
+        this.write = write;
+    }
+
+    String method() {
+        return method;
+    }
+
+    boolean isWrite() {
+        return write;
+    }
+
+    /**
+     * @return the path with a random seeded author or document ID
+     */
+    String path(List<Integer> authorIds, List<Integer> documentIds) {
+        if (!path.contains("{id}")) {
+            return path;
+        }
+        List<Integer> ids = name().endsWith("AUTHOR") ? authorIds : documentIds;
+        return path.replace("{id}", Integer.toString(ids.get(ThreadLocalRandom.current().nextInt(ids.size()))));
+    }
+
+    /**
+     * @return the JSON request body of a write, null for reads
+     */
+    String body(List<Integer> authorIds, List<Integer> documentIds) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int number = random.nextInt(1_000_000);
+        return switch (this) {
+            case CREATE_AUTHOR, UPDATE_AUTHOR -> "{\"firstName\":\"Load\",\"lastName\":\"Test" + number + "\"}";
+            case CREATE_DOCUMENT, UPDATE_DOCUMENT -> "{\"title\":\"Load test " + number + "\","
+                    + "\"body\":\"" + "Load test body of a document. ".repeat(20) + number + "\","
+                    + "\"authors\":[{\"id\":" + authorIds.get(random.nextInt(authorIds.size())) + "}],"
+                    + "\"references\":[{\"id\":" + documentIds.get(random.nextInt(documentIds.size())) + "}]}";
+            default -> null;
+        };
+    }
+
+    /**
+     * @return the endpoint in the form used in the reports, e.g. "GET /api/document/{id}"
+     */
+    @Override
+    public String toString() {
+        return method + " " + path;
+    }
+}
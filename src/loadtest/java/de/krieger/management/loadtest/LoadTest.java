@@ -0,0 +1,197 @@
+package de.krieger.management.loadtest;
+
+import de.krieger.management.DocumentManagementApplication;
+import de.krieger.management.messaging.LocalMessagingConfig;
+import de.krieger.management.service.DatasetSeeder;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP load test. Starts the application with the local profile and a seeded database, drives a
+ * weighted mix of reads and writes through the basic authentication chain with a fixed number of
+ * threads (closed loop), and records the latency per endpoint in HdrHistograms.
+ * <p>
+ * All settings are Spring properties, passed as arguments, e.g.
+ * mvn verify -Ploadtest -DskipTests -Dloadtest.args="--seed.documents=10000 --loadtest.threads=32 --loadtest.label=main"
+ * <ul>
+ *     <li>seed.*: the dataset, see {@link DatasetSeeder}, default 10000 documents</li>
+ *     <li>loadtest.threads: concurrent clients, default 16</li>
+ *     <li>loadtest.warmup, loadtest.duration: default 10s and 30s</li>
+ *     <li>loadtest.mix: endpoint weights, e.g. GET_DOCUMENT:60,UPDATE_DOCUMENT:5</li>
+ *     <li>loadtest.label: name of the results directory under target/loadtest, e.g. the commit</li>
+ * </ul>
+ * The results directory contains a summary.csv and the percentile distribution (.hgrm) per endpoint,
+ * so runs of different commits can be compared.
+ */
+public class LoadTest {
+
+    private static final String DEFAULT_MIX = "GET_DOCUMENTS:2,GET_DOCUMENT:50,GET_AUTHORS:3,GET_AUTHOR:25,"
+            + "CREATE_DOCUMENT:5,UPDATE_DOCUMENT:5,CREATE_AUTHOR:5,UPDATE_AUTHOR:5";
+    // the users of data.sql
+    private static final String READER = basicAuth("anna", "test123");
+    private static final String WRITER = basicAuth("daniel", "test123");
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, AtomicLong> errors = new EnumMap<>(Endpoint.class);
+    private final String baseUrl;
+    private final List<Integer> authorIds;
+    private final List<Integer> documentIds;
+    private final Endpoint[] weightedEndpoints;
+
+    private volatile boolean running = true;
+
+    LoadTest(String baseUrl, List<Integer> authorIds, List<Integer> documentIds, String mix) {
+        this.baseUrl = baseUrl;
+        this.authorIds = authorIds;
+        this.documentIds = documentIds;
+        this.weightedEndpoints = parseMix(mix);
+        for (Endpoint endpoint : Endpoint.values()) {
+            recorders.put(endpoint, new Recorder(3));
+            errors.put(endpoint, new AtomicLong());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DocumentManagementApplication.class)
+                .profiles(LocalMessagingConfig.PROFILE)
+                .properties("server.port=0", "logging.level.root=WARN", "seed.documents=10000", "search.index.path=")
+                .run(args)) {
+            Environment environment = context.getEnvironment();
+            DatasetSeeder seeder = context.getBean(DatasetSeeder.class);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            LoadTest loadTest = new LoadTest("http://localhost:" + port, seeder.getAuthorIds(), seeder.getDocumentIds(),
+                    environment.getProperty("loadtest.mix", DEFAULT_MIX));
+            Map<Endpoint, Histogram> histograms = loadTest.run(
+                    environment.getProperty("loadtest.threads", Integer.class, 16),
+                    environment.getProperty("loadtest.warmup", Duration.class, Duration.ofSeconds(10)),
+                    environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(30)));
+            loadTest.report(histograms, environment.getProperty("loadtest.duration", Duration.class, Duration.ofSeconds(30)),
+                    Path.of("target", "loadtest", environment.getProperty("loadtest.label", "current")));
+        }
+    }
+
+    /**
+     * Runs the clients for the warmup, discards the warmup latencies and runs them for the duration.
+     *
+     * @return the latencies in microseconds per endpoint, measured after the warmup
+     */
+    Map<Endpoint, Histogram> run(int threads, Duration warmup, Duration duration) throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(threads);
+        for (int index = 0; index < threads; index++) {
+            clients.execute(this::runClient);
+        }
+        Thread.sleep(warmup.toMillis());
+        recorders.values().forEach(Recorder::reset);
+        errors.values().forEach(count -> count.set(0));
+        Thread.sleep(duration.toMillis());
+        Map<Endpoint, Histogram> histograms = new EnumMap<>(Endpoint.class);
+        recorders.forEach((endpoint, recorder) -> histograms.put(endpoint, recorder.getIntervalHistogram()));
+        running = false;
+        clients.shutdown();
+        clients.awaitTermination(1, TimeUnit.MINUTES);
+        return histograms;
+    }
+
+    private void runClient() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Endpoint endpoint = weightedEndpoints[random.nextInt(weightedEndpoints.length)];
+            String body = endpoint.body(authorIds, documentIds);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path(authorIds, documentIds)))
+                    .header("Authorization", endpoint.isWrite() ? WRITER : READER)
+                    .header("Content-Type", "application/json")
+                    .method(endpoint.method(), body == null
+                            ? HttpRequest.BodyPublishers.noBody()
+                            : HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                if (response.statusCode() / 100 == 2) {
+                    recorders.get(endpoint).recordValue(micros);
+                } else {
+                    errors.get(endpoint).incrementAndGet();
+                }
+            } catch (IOException e) {
+                errors.get(endpoint).incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Prints the summary and writes summary.csv and one .hgrm file per endpoint, in milliseconds.
+     */
+    void report(Map<Endpoint, Histogram> histograms, Duration duration, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        List<String> lines = new ArrayList<>();
+        lines.add("endpoint,requests,errors,requests_per_second,p50_ms,p90_ms,p99_ms,p99_9_ms,max_ms");
+        for (Map.Entry<Endpoint, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0 && errors.get(entry.getKey()).get() == 0) {
+                continue;
+            }
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f,%.2f,%.2f", entry.getKey(),
+                    histogram.getTotalCount(), errors.get(entry.getKey()).get(),
+                    histogram.getTotalCount() / (double) duration.toSeconds(),
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0));
+            Path file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        Files.write(directory.resolve("summary.csv"), lines, StandardCharsets.UTF_8);
+        lines.forEach(System.out::println);
+        System.out.println("Results written to " + directory.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * Expands "ENDPOINT:weight,..." to an array with every endpoint repeated by its weight.
+     */
+    private static Endpoint[] parseMix(String mix) {
+        List<Endpoint> endpoints = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            Endpoint endpoint = Endpoint.valueOf(parts[0].trim());
+            endpoints.addAll(Collections.nCopies(Integer.parseInt(parts[1].trim()), endpoint));
+        }
+        if (endpoints.isEmpty()) {
+            throw new IllegalArgumentException("Empty load test mix: " + mix);
+        }
+        return endpoints.toArray(Endpoint[]::new);
+    }
+
+    private static String basicAuth(String user, String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((user + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,69 @@
+package de.krieger.management.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.CompressedText;
+import de.krieger.management.model.Document;
+
+import java.util.Collection;
+
+/**
+ * Estimates the heap footprint of cached values, so a cache can be bounded by weight
+ * instead of by entry count. The estimate is rough on purpose: it counts the characters
+ * of the string fields and a fixed overhead per object.
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int BYTES_PER_CHAR = 2;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long weight = estimate(value);
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(1, weight));
+    }
+
+    /**
+     * Estimates the size of a cached value in bytes.
+     *
+     * @param value the cached value
+     * @return the estimated size in bytes
+     */
+    static long estimate(Object value) {
+        if (value instanceof Author author) {
+            return estimate(author);
+        }
+        if (value instanceof Document document) {
+            return estimate(document);
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = OBJECT_OVERHEAD;
+            for (Object element : collection) {
+                weight += estimate(element);
+            }
+            return weight;
+        }
+        return OBJECT_OVERHEAD;
+    }
+
+    private static long estimate(Author author) {
+        return OBJECT_OVERHEAD + sizeOf(author.getFirstName()) + sizeOf(author.getLastName());
+    }
+
+    private static long estimate(Document document) {
+        // the body is cached compressed, weigh the stored bytes without decompressing it
+        CompressedText body = document.getCompressedBody();
+        long weight = OBJECT_OVERHEAD + sizeOf(document.getTitle()) + (body == null ? 0 : OBJECT_OVERHEAD + body.size());
+        if (document.getAuthors() != null) {
+            weight += estimate(document.getAuthors());
+        }
+        if (document.getReferences() != null) {
+            weight += estimate(document.getReferences());
+        }
+        return weight;
+    }
+
+    private static long sizeOf(String value) {
+        return value == null ? 0 : OBJECT_OVERHEAD + (long) value.length() * BYTES_PER_CHAR;
+    }
+}
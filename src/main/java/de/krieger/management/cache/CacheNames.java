@@ -0,0 +1,23 @@
+package de.krieger.management.cache;
+
+/**
+ * Names of the caches used by the services.
+ * Single entities and collection results are kept in separate caches,
+ * so each can have its own size and expiry policy.
+ */
+public final class CacheNames {
+
+    /** Authors by ID. */
+    public static final String AUTHORS = "authors";
+    /** The list of all authors. */
+    public static final String AUTHORS_ALL = "authors:all";
+    /** Documents by ID. */
+    public static final String DOCUMENTS = "documents";
+    /** The list of all documents. */
+    public static final String DOCUMENTS_ALL = "documents:all";
+    /** Status of the asynchronous write commands by command ID. */
+    public static final String COMMANDS = "commands";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,280 @@
+package de.krieger.management.cache;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keeps the caches in line with the database after a write.
+ * Instead of clearing whole caches, only the written entry is refreshed, the documents
+ * depending on it are evicted and the cached lists are patched.
+ * When a transaction is active, the caches are updated after the commit.
+ */
+@Component
+public class CacheSynchronizer {
+
+    /**
+     * Key of the cached findAll result in its list cache. The getAll results are cached by their DocumentView.
+     */
+    static final Object ALL_KEY = SimpleKey.EMPTY;
+
+    private final CacheManager cacheManager;
+    private final DocumentDependencyIndex dependencyIndex;
+
+    public CacheSynchronizer(CacheManager cacheManager, DocumentDependencyIndex dependencyIndex) {
+        this.cacheManager = cacheManager;
+        this.dependencyIndex = dependencyIndex;
+    }
+
+    /**
+     * Registers a document which is about to be cached by its ID.
+     *
+     * @param document the loaded document
+     */
+    public void documentLoaded(Document document) {
+        if (document != null) {
+            dependencyIndex.register(document);
+        }
+    }
+
+    /**
+     * Refreshes the caches after an author has been created or updated.
+     *
+     * @param author the saved author
+     */
+    public void authorSaved(Author author) {
+        authorsSaved(List.of(author));
+    }
+
+    /**
+     * Refreshes the caches once after a batch of authors has been created or updated.
+     *
+     * @param savedAuthors the saved authors
+     */
+    public void authorsSaved(Collection<Author> savedAuthors) {
+        afterCommit(() -> {
+            Cache authors = cache(CacheNames.AUTHORS);
+            savedAuthors.forEach(author -> authors.put(author.getId(), author));
+            patchList(CacheNames.AUTHORS_ALL, ALL_KEY, Author.class, authorList -> {
+                savedAuthors.forEach(author -> replaceOrAdd(authorList, author, Author::getId));
+                return authorList;
+            });
+            savedAuthors.forEach(author -> evictDocuments(dependencyIndex.documentsWithAuthor(author.getId())));
+            patchDocumentLists((documents, view) -> {
+                savedAuthors.forEach(author -> updateAuthors(documents, author.getId(),
+                        authorSet -> replaceOrAdd(authorSet, author, Author::getId)));
+                return documents;
+            });
+        });
+    }
+
+    /**
+     * Refreshes the caches after an author has been deleted.
+     *
+     * @param id the ID of the deleted author
+     */
+    public void authorDeleted(int id) {
+        authorsDeleted(List.of(id));
+    }
+
+    /**
+     * Refreshes the caches once after a batch of authors has been deleted.
+     *
+     * @param ids the IDs of the deleted authors
+     */
+    public void authorsDeleted(Collection<Integer> ids) {
+        afterCommit(() -> {
+            Cache authors = cache(CacheNames.AUTHORS);
+            ids.forEach(authors::evict);
+            patchList(CacheNames.AUTHORS_ALL, ALL_KEY, Author.class, authorList -> remove(authorList, author -> ids.contains(author.getId())));
+            ids.forEach(id -> evictDocuments(dependencyIndex.documentsWithAuthor(id)));
+            patchDocumentLists((documents, view) -> {
+                ids.forEach(id -> updateAuthors(documents, id, authorSet -> remove(authorSet, author -> author.getId() == id)));
+                return documents;
+            });
+        });
+    }
+
+    /**
+     * Refreshes the caches after a document has been created or updated.
+     *
+     * @param document the saved document
+     */
+    public void documentSaved(Document document) {
+        documentsSaved(List.of(document));
+    }
+
+    /**
+     * Refreshes the caches once after a batch of documents has been created or updated.
+     *
+     * @param savedDocuments the saved documents
+     */
+    public void documentsSaved(Collection<Document> savedDocuments) {
+        afterCommit(() -> {
+            Cache documents = cache(CacheNames.DOCUMENTS);
+            for (Document document : savedDocuments) {
+                documents.put(document.getId(), document);
+                dependencyIndex.register(document);
+            }
+            savedDocuments.forEach(document -> evictDocuments(dependencyIndex.documentsReferencing(document.getId())));
+            patchDocumentLists((documentList, view) -> {
+                for (Document document : savedDocuments) {
+                    Document reference = toReference(document);
+                    updateReferences(replaceOrAdd(documentList, view.of(document), Document::getId), document.getId(),
+                            references -> replaceOrAdd(references, reference, Document::getId));
+                }
+                return documentList;
+            });
+        });
+    }
+
+    /**
+     * Refreshes the caches after a document has been deleted.
+     *
+     * @param id the ID of the deleted document
+     */
+    public void documentDeleted(int id) {
+        documentsDeleted(List.of(id));
+    }
+
+    /**
+     * Refreshes the caches once after a batch of documents has been deleted.
+     *
+     * @param ids the IDs of the deleted documents
+     */
+    public void documentsDeleted(Collection<Integer> ids) {
+        afterCommit(() -> {
+            evictDocuments(new HashSet<>(ids));
+            ids.forEach(id -> evictDocuments(dependencyIndex.documentsReferencing(id)));
+            patchDocumentLists((documentList, view) -> {
+                remove(documentList, document -> ids.contains(document.getId()));
+                ids.forEach(id -> updateReferences(documentList, id,
+                        references -> remove(references, reference -> reference.getId() == id)));
+                return documentList;
+            });
+        });
+    }
+
+    private void evictDocuments(Set<Integer> ids) {
+        Cache documents = cache(CacheNames.DOCUMENTS);
+        for (Integer id : ids) {
+            documents.evict(id);
+            dependencyIndex.unregister(id);
+        }
+    }
+
+    /**
+     * Patches the cached document list of every view.
+     */
+    private void patchDocumentLists(BiFunction<List<Document>, DocumentView, List<Document>> patch) {
+        for (DocumentView view : DocumentView.values()) {
+            patchList(CacheNames.DOCUMENTS_ALL, view, Document.class, documents -> patch.apply(documents, view));
+        }
+    }
+
+    /**
+     * Replaces a cached list with a patched copy. Cached lists are never modified in place,
+     * because readers may still iterate over them.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized <T> void patchList(String cacheName, Object key, Class<T> type, UnaryOperator<List<T>> patch) {
+        Cache cache = cache(cacheName);
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null && cached.get() instanceof List<?> list) {
+            cache.put(key, patch.apply(new ArrayList<>((List<T>) list)));
+        }
+    }
+
+    private List<Document> updateAuthors(List<Document> documents, int authorId, UnaryOperator<Collection<Author>> patch) {
+        documents.replaceAll(document -> containsId(document.getAuthors(), authorId, Author::getId)
+                ? withAuthors(document, new HashSet<>(patch.apply(new ArrayList<>(document.getAuthors()))))
+                : document);
+        return documents;
+    }
+
+    private List<Document> updateReferences(List<Document> documents, int referenceId, UnaryOperator<Collection<Document>> patch) {
+        documents.replaceAll(document -> containsId(document.getReferences(), referenceId, Document::getId)
+                ? withReferences(document, new HashSet<>(patch.apply(new ArrayList<>(document.getReferences()))))
+                : document);
+        return documents;
+    }
+
+    /**
+     * Replaces the element with the same ID, keeping its position in a list, or adds the element.
+     */
+    private static <T, C extends Collection<T>> C replaceOrAdd(C elements, T element, ToIntFunction<T> id) {
+        if (elements instanceof List<T> list) {
+            for (int index = 0; index < list.size(); index++) {
+                T existing = list.get(index);
+                if (existing != null && id.applyAsInt(existing) == id.applyAsInt(element)) {
+                    list.set(index, element);
+                    return elements;
+                }
+            }
+        } else {
+            remove(elements, existing -> id.applyAsInt(existing) == id.applyAsInt(element));
+        }
+        elements.add(element);
+        return elements;
+    }
+
+    private static <T, C extends Collection<T>> C remove(C elements, Predicate<T> filter) {
+        elements.removeIf(element -> element != null && filter.test(element));
+        return elements;
+    }
+
+    private static <T> boolean containsId(Collection<T> elements, int id, ToIntFunction<T> idOf) {
+        return elements != null && elements.stream().anyMatch(element -> element != null && idOf.applyAsInt(element) == id);
+    }
+
+    private static Document withAuthors(Document document, Set<Author> authors) {
+        Document copy = new Document(document.getId(), document.getTitle(), null, authors, document.getReferences())
+                .withVersionOf(document);
+        copy.setCompressedBody(document.getCompressedBody());
+        return copy;
+    }
+
+    private static Document withReferences(Document document, Set<Document> references) {
+        Document copy = new Document(document.getId(), document.getTitle(), null, document.getAuthors(), references)
+                .withVersionOf(document);
+        copy.setCompressedBody(document.getCompressedBody());
+        return copy;
+    }
+
+    /**
+     * Creates the copy of a document which is embedded as a reference in other documents, without body.
+     */
+    private static Document toReference(Document document) {
+        return new Document(document.getId(), document.getTitle(), null, new HashSet<>(), new HashSet<>())
+                .withVersionOf(document);
+    }
+
+    private Cache cache(String name) {
+        return Objects.requireNonNull(cacheManager.getCache(name), "Cache not configured: " + name);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package de.krieger.management.cache;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.ToIntFunction;
+
+/**
+ * Reverse-dependency index for cached documents.
+ * A cached document embeds its authors and a copy of its referenced documents.
+ * The index remembers, for every cached document, which authors and references it embeds,
+ * so a write to an author or a document only evicts the documents that depend on it.
+ */
+@Component
+public class DocumentDependencyIndex {
+
+    private final Map<Integer, Set<Integer>> documentsByAuthor = new HashMap<>();
+    private final Map<Integer, Set<Integer>> documentsByReference = new HashMap<>();
+    private final Map<Integer, Dependencies> dependenciesByDocument = new HashMap<>();
+
+    /**
+     * Registers the dependencies of a cached document. Existing dependencies of the
+     * document are replaced.
+     *
+     * @param document the cached document
+     */
+    public synchronized void register(Document document) {
+        unregister(document.getId());
+        Dependencies dependencies = new Dependencies(
+                idsOf(document.getAuthors(), Author::getId),
+                idsOf(document.getReferences(), Document::getId));
+        dependencies.authorIds().forEach(authorId ->
+                documentsByAuthor.computeIfAbsent(authorId, key -> new HashSet<>()).add(document.getId()));
+        dependencies.referenceIds().forEach(referenceId ->
+                documentsByReference.computeIfAbsent(referenceId, key -> new HashSet<>()).add(document.getId()));
+        dependenciesByDocument.put(document.getId(), dependencies);
+    }
+
+    /**
+     * Removes a document and its dependencies from the index.
+     *
+     * @param documentId the ID of the document
+     */
+    public synchronized void unregister(int documentId) {
+        Dependencies dependencies = dependenciesByDocument.remove(documentId);
+        if (dependencies != null) {
+            dependencies.authorIds().forEach(authorId -> removeFrom(documentsByAuthor, authorId, documentId));
+            dependencies.referenceIds().forEach(referenceId -> removeFrom(documentsByReference, referenceId, documentId));
+        }
+    }
+
+    /**
+     * Returns the IDs of the cached documents which embed the given author.
+     *
+     * @param authorId the ID of the author
+     * @return the IDs of the dependent documents
+     */
+    public synchronized Set<Integer> documentsWithAuthor(int authorId) {
+        return new HashSet<>(documentsByAuthor.getOrDefault(authorId, Collections.emptySet()));
+    }
+
+    /**
+     * Returns the IDs of the cached documents which reference the given document.
+     *
+     * @param documentId the ID of the referenced document
+     * @return the IDs of the dependent documents
+     */
+    public synchronized Set<Integer> documentsReferencing(int documentId) {
+        return new HashSet<>(documentsByReference.getOrDefault(documentId, Collections.emptySet()));
+    }
+
+    private static <T> Set<Integer> idsOf(Collection<T> elements, ToIntFunction<T> id) {
+        Set<Integer> ids = new HashSet<>();
+        if (elements != null) {
+            elements.forEach(element -> ids.add(id.applyAsInt(element)));
+        }
+        return ids;
+    }
+
+    private static void removeFrom(Map<Integer, Set<Integer>> index, int key, int documentId) {
+        Set<Integer> documentIds = index.get(key);
+        if (documentIds != null) {
+            documentIds.remove(documentId);
+            if (documentIds.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private record Dependencies(Set<Integer> authorIds, Set<Integer> referenceIds) {
+    }
+}
@@ -1,25 +1,81 @@
 package de.krieger.management.config;
 
+import com.github.benmanes.caffeine.cache.Caffeine;
+import de.krieger.management.cache.CacheEntryWeigher;
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.cache.DocumentDependencyIndex;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.stereotype.Component;
 
-import static java.util.Arrays.asList;
 /**
  * Configures caching for the application.
+ * Every cache is a bounded Caffeine cache (W-TinyLFU eviction) with its own
+ * size and expiry policy, taken from the cache.*.spec properties.
  */
 @Component
 @EnableCaching
 public class CacheConfig
-        implements CacheManagerCustomizer<ConcurrentMapCacheManager> {
+        implements CacheManagerCustomizer<CaffeineCacheManager> {
+
+    private static final String MAXIMUM_WEIGHT = "maximumWeight";
+
+    private final DocumentDependencyIndex dependencyIndex;
+
+    @Value("${cache.authors.spec}")
+    private String authorsSpec;
+
+    @Value("${cache.authors-all.spec}")
+    private String authorsAllSpec;
+
+    @Value("${cache.documents.spec}")
+    private String documentsSpec;
+
+    @Value("${cache.documents-all.spec}")
+    private String documentsAllSpec;
+
+    @Value("${cache.commands.spec}")
+    private String commandsSpec;
+
+    public CacheConfig(DocumentDependencyIndex dependencyIndex) {
+        this.dependencyIndex = dependencyIndex;
+    }
+
     /**
-     * Customize the cache manager with specific cache names.
+     * Customize the cache manager with a bounded cache per cache name.
+     * Documents evicted by size or expiry are removed from the dependency index as well.
      *
      * @param cacheManager the cache manager to customize
      */
     @Override
-    public void customize(ConcurrentMapCacheManager cacheManager) {
-        cacheManager.setCacheNames(asList("authors", "documents"));
+    public void customize(CaffeineCacheManager cacheManager) {
+        cacheManager.registerCustomCache(CacheNames.AUTHORS, buildCache(authorsSpec).build());
+        cacheManager.registerCustomCache(CacheNames.AUTHORS_ALL, buildCache(authorsAllSpec).build());
+        cacheManager.registerCustomCache(CacheNames.DOCUMENTS_ALL, buildCache(documentsAllSpec).build());
+        cacheManager.registerCustomCache(CacheNames.COMMANDS, buildCache(commandsSpec).build());
+        cacheManager.registerCustomCache(CacheNames.DOCUMENTS, buildCache(documentsSpec)
+                .evictionListener((key, value, cause) -> {
+                    if (key instanceof Integer id) {
+                        dependencyIndex.unregister(id);
+                    }
+                })
+                .build());
+    }
+
+    /**
+     * Builds a cache from a Caffeine spec. A spec bounded by maximumWeight gets
+     * a weigher that estimates the size of the cached models.
+     *
+     * @param spec the Caffeine spec, e.g. "maximumSize=1000,expireAfterWrite=10m,recordStats"
+     * @return the cache builder
+     */
+    private Caffeine<Object, Object> buildCache(String spec) {
+        Caffeine<Object, Object> builder = Caffeine.from(spec);
+        if (spec.contains(MAXIMUM_WEIGHT)) {
+            builder.weigher(new CacheEntryWeigher());
+        }
+        return builder;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,50 @@
+package de.krieger.management.config;
+
+import de.krieger.management.model.CompressedText;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compression of the document bodies, read from the {@link CompressedText#statistics()}.
+ * <ul>
+ *     <li>document.body.compression.time: time spent compressing and decompressing, tagged with the operation</li>
+ *     <li>document.body.compression.ratio: original size divided by stored size of the compressed bodies</li>
+ *     <li>document.body.stored: stored size of all bodies</li>
+ * </ul>
+ */
+@Component
+public class CompressedTextMetrics implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CompressedText.Statistics statistics = CompressedText.statistics();
+        FunctionTimer.builder("document.body.compression.time", statistics,
+                        CompressedText.Statistics::compressions, CompressedText.Statistics::compressNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent compressing document bodies")
+                .tag("operation", "compress")
+                .register(registry);
+        FunctionTimer.builder("document.body.compression.time", statistics,
+                        CompressedText.Statistics::decompressions, CompressedText.Statistics::decompressNanos, TimeUnit.NANOSECONDS)
+                .description("Time spent decompressing document bodies")
+                .tag("operation", "decompress")
+                .register(registry);
+        Gauge.builder("document.body.compression.ratio", statistics, CompressedTextMetrics::ratio)
+                .description("Original size divided by stored size of compressed document bodies")
+                .register(registry);
+        FunctionCounter.builder("document.body.stored", statistics, CompressedText.Statistics::storedBytes)
+                .description("Stored size of document bodies")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private static double ratio(CompressedText.Statistics statistics) {
+        long storedBytes = statistics.compressedStoredBytes();
+        return storedBytes == 0 ? Double.NaN : (double) statistics.compressedOriginalBytes() / storedBytes;
+    }
+}
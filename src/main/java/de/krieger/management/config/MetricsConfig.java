@@ -0,0 +1,26 @@
+package de.krieger.management.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configures the Micrometer instrumentation which Spring Boot does not set up itself.
+ * The HTTP endpoints (http.server.requests), caches (cache.*), Hibernate (hibernate.*) and the
+ * RabbitMQ connections (rabbitmq.*) are instrumented by Spring Boot.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Records the methods of beans annotated with {@link io.micrometer.core.annotation.Timed}, e.g. the services.
+     *
+     * @param registry the meter registry
+     * @return the aspect
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+}
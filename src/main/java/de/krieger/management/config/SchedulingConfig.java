@@ -0,0 +1,15 @@
+package de.krieger.management.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduling, so Spring Boot sets up the application's task scheduler.
+ * It runs the scheduled tasks, e.g. the commits of the search index, on platform threads
+ * (spring.task.scheduling.pool.size) or, with spring.threads.virtual.enabled, on virtual threads.
+ * The RabbitMQSender flushes on its own thread.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,19 +1,28 @@
 package de.krieger.management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import de.krieger.management.messaging.RabbitMQSender;
 import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
 import de.krieger.management.service.AuthorService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -24,12 +33,17 @@ import java.util.List;
 public class AuthorRestController {
     private static final Logger log = LoggerFactory.getLogger(AuthorRestController.class);
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     AuthorService authorService;
     private final RabbitMQSender rabbitMQSender;
+    private final ObjectMapper objectMapper;
     @Autowired
-    AuthorRestController(AuthorService authorService, RabbitMQSender rabbitMQSender) {
+    AuthorRestController(AuthorService authorService, RabbitMQSender rabbitMQSender, ObjectMapper objectMapper) {
         this.authorService = authorService;
         this.rabbitMQSender = rabbitMQSender;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Insert a new author", description = "Insert a new author")
@@ -45,19 +59,24 @@ public class AuthorRestController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
-    @Operation(summary = "Update an existing author", description = "Update an existing author by ID")
+    @Operation(summary = "Update an existing author", description = "Update an existing author by ID. " +
+            "With an If-Match header (the ETag of a GET), the author is only updated if it has not been updated since. " +
+            "The response has the new ETag.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Author updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request format or missing required fields"),
             @ApiResponse(responseCode = "401", description = "Not authorized"),
-            @ApiResponse(responseCode = "404", description = "Author id not found")
+            @ApiResponse(responseCode = "404", description = "Author id not found"),
+            @ApiResponse(responseCode = "412", description = "Author was updated since the If-Match ETag")
     })
     @PutMapping(path = "/author/{id}")
-    public ResponseEntity<Void> updateAuthor(@PathVariable(name = "id") int id, @RequestBody @Valid Author author) {
-        log.debug("update author: {}", author);
+    public ResponseEntity<Void> updateAuthor(@PathVariable(name = "id") int id,
+                                             @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                             @RequestBody @Valid Author author) {
+        log.debug("update author: {} if match: {}", author, ifMatch);
         author.setId(id);
-        authorService.update(author);
-        return ResponseEntity.ok().build();
+        Author updatedAuthor = authorService.update(author, ETags.versions(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedAuthor)).build();
     }
 
     @Operation(summary = "delete an existing author", description = "delete an existing author by ID")
@@ -73,9 +92,48 @@ public class AuthorRestController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    @Operation(summary = "Insert a batch of authors", description = "Insert up to " + MAX_BATCH_SIZE + " authors in one transaction. " +
+            "Returns one result per author in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every author"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format, missing required fields or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PostMapping(path = "/authors/batch")
+    public ResponseEntity<List<BatchItemResult>> insertAuthors(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid Author> authors) {
+        log.debug("create authors: {}", authors.size());
+        return ResponseEntity.ok(authorService.createAll(authors));
+    }
+
+    @Operation(summary = "Update a batch of authors", description = "Update up to " + MAX_BATCH_SIZE + " existing authors in one transaction. " +
+            "Returns one result per author in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every author"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format, missing required fields or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PutMapping(path = "/authors/batch")
+    public ResponseEntity<List<BatchItemResult>> updateAuthors(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid Author> authors) {
+        log.debug("update authors: {}", authors.size());
+        return ResponseEntity.ok(authorService.updateAll(authors));
+    }
+
+    @Operation(summary = "Delete a batch of authors", description = "Delete up to " + MAX_BATCH_SIZE + " authors by ID in one transaction. " +
+            "Returns one result per ID in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every ID"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @DeleteMapping(path = "/authors/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteAuthors(@RequestBody @Size(max = MAX_BATCH_SIZE) List<Integer> ids) {
+        log.debug("delete authors: {}", ids);
+        return ResponseEntity.ok(authorService.deleteAll(ids));
+    }
+
     @Operation(summary = "Sends a message via RabbitMQ to the queue for delete a specific author.", description = "Sends a message via RabbitMQ to the queue for delete a specific author.")
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "204", description = "Message send successfully"),
+            @ApiResponse(responseCode = "204", description = "Command queued successfully, it is sent asynchronously"),
             @ApiResponse(responseCode = "400", description = "Invalid request format or missing required parameter"),
             @ApiResponse(responseCode = "401", description = "Not authorized")
     })
@@ -86,9 +144,11 @@ public class AuthorRestController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
-    @Operation(summary = "get an existing author", description = "get an existing author by ID")
+    @Operation(summary = "get an existing author", description = "get an existing author by ID. " +
+            "With the ETag of a previous response as If-None-Match header, an unchanged author is answered with 304.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Get Author successfully"),
+            @ApiResponse(responseCode = "304", description = "Author not modified since the If-None-Match ETag"),
             @ApiResponse(responseCode = "400", description = "Invalid request format or missing required parameter"),
             @ApiResponse(responseCode = "401", description = "Not authorized"),
             @ApiResponse(responseCode = "404", description = "Author id not found")
@@ -96,12 +156,18 @@ public class AuthorRestController {
     @GetMapping(path = "/author/{id}")
     public ResponseEntity<Author> getAuthor(@PathVariable(name = "id") int id) {
         log.debug("get author :{}" , id );
-        return ResponseEntity.ok(authorService.findById(id));
+        Author author = authorService.findById(id);
+        return ResponseEntity.ok()
+                .eTag(ETags.of(author))
+                .cacheControl(ETags.REVALIDATE)
+                .body(author);
     }
 
-    @Operation(summary = "get all authors as list", description = "get all authors as list")
+    @Operation(summary = "get all authors as list", description = "get all authors as list. " +
+            "The list has an ETag, with it as If-None-Match header an unchanged list is answered with 304.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Get Author list successfully"),
+            @ApiResponse(responseCode = "304", description = "Author list not modified since the If-None-Match ETag"),
             @ApiResponse(responseCode = "401", description = "Not authorized"),
             @ApiResponse(responseCode = "404", description = "No Authors found.")
     })
@@ -113,6 +179,37 @@ public class AuthorRestController {
 
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(authorList);
+        return ResponseEntity.ok()
+                .eTag(ETags.ofAuthors(authorList))
+                .cacheControl(ETags.REVALIDATE)
+                .body(authorList);
+    }
+
+    @Operation(summary = "get a page of authors", description = "get a page of authors ordered by id (keyset pagination). " +
+            "Pass the nextCursor of a page as after parameter to get the next page.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get Author page successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid page size"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/authors/page")
+    public ResponseEntity<CursorPage<Author>> getAuthorPage(
+            @RequestParam(name = "after", defaultValue = "0") int after,
+            @RequestParam(name = "limit", defaultValue = "50") @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        log.debug("get Author page after: {} limit: {}", after, limit);
+        return ResponseEntity.ok(authorService.findPage(after, limit));
+    }
+
+    @Operation(summary = "stream all authors", description = "stream all authors ordered by id as newline delimited JSON")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream Authors successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/authors/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAuthors() {
+        log.debug("stream Authors");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonStreams.of(objectMapper, authorService::streamAll));
     }
 }
@@ -0,0 +1,137 @@
+package de.krieger.management.controller;
+
+import de.krieger.management.messaging.CommandStatusStore;
+import de.krieger.management.messaging.WriteCommandSender;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.CommandStatus;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.WriteCommand;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Asynchronous variants of the author and document writes. The commands are queued and the
+ * requests return 202 Accepted with the command status; its state can be polled at /api/commands/{id}.
+ */
+@RestController
+@RequestMapping("/api")
+@SuppressWarnings("unused")
+public class CommandRestController {
+
+    private static final Logger log = LoggerFactory.getLogger(CommandRestController.class);
+
+    private final WriteCommandSender writeCommandSender;
+    private final CommandStatusStore statusStore;
+
+    @Autowired
+    CommandRestController(WriteCommandSender writeCommandSender, CommandStatusStore statusStore) {
+        this.writeCommandSender = writeCommandSender;
+        this.statusStore = statusStore;
+    }
+
+    @Operation(summary = "Queue the insert of a new author", description = "Queue the insert of a new author, the ID is part of the command status once it succeeded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Command accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required fields"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PostMapping("/commands/author")
+    public ResponseEntity<CommandStatus> insertAuthor(@RequestBody @Valid Author author) {
+        log.debug("queue create author: {}", author);
+        return accepted(WriteCommand.author(WriteCommand.Operation.CREATE, 0, author));
+    }
+
+    @Operation(summary = "Queue the update of an existing author", description = "Queue the update of an existing author by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Command accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required fields"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PutMapping("/commands/author/{id}")
+    public ResponseEntity<CommandStatus> updateAuthor(@PathVariable(name = "id") int id, @RequestBody @Valid Author author) {
+        log.debug("queue update author: {}", author);
+        author.setId(id);
+        return accepted(WriteCommand.author(WriteCommand.Operation.UPDATE, id, author));
+    }
+
+    @Operation(summary = "Queue the delete of an existing author", description = "Queue the delete of an existing author by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Command accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required parameter"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @DeleteMapping("/commands/author/{id}")
+    public ResponseEntity<CommandStatus> deleteAuthor(@PathVariable(name = "id") int id) {
+        log.debug("queue delete author id: {}", id);
+        return accepted(WriteCommand.author(WriteCommand.Operation.DELETE, id, null));
+    }
+
+    @Operation(summary = "Queue the insert of a new document", description = "Queue the insert of a new document, the ID is part of the command status once it succeeded")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Command accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required fields"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PostMapping("/commands/document")
+    public ResponseEntity<CommandStatus> insertDocument(@RequestBody @Valid Document document) {
+        log.debug("queue create document: {}", document);
+        return accepted(WriteCommand.document(WriteCommand.Operation.CREATE, 0, document));
+    }
+
+    @Operation(summary = "Queue the update of an existing document", description = "Queue the update of an existing document by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Command accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required fields"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PutMapping("/commands/document/{id}")
+    public ResponseEntity<CommandStatus> updateDocument(@PathVariable(name = "id") int id, @RequestBody @Valid Document document) {
+        log.debug("queue update document: {}", document);
+        document.setId(id);
+        return accepted(WriteCommand.document(WriteCommand.Operation.UPDATE, id, document));
+    }
+
+    @Operation(summary = "Queue the delete of an existing document", description = "Queue the delete of an existing document by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Command accepted"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required parameter"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @DeleteMapping("/commands/document/{id}")
+    public ResponseEntity<CommandStatus> deleteDocument(@PathVariable(name = "id") int id) {
+        log.debug("queue delete document id: {}", id);
+        return accepted(WriteCommand.document(WriteCommand.Operation.DELETE, id, null));
+    }
+
+    @Operation(summary = "Get the status of a command", description = "Get the status of a queued command by its ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get command status successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized"),
+            @ApiResponse(responseCode = "404", description = "Command unknown or its status expired")
+    })
+    @GetMapping("/commands/{id}")
+    public ResponseEntity<CommandStatus> getCommandStatus(@PathVariable(name = "id") String id) {
+        log.debug("get command status id: {}", id);
+        CommandStatus status = statusStore.find(id);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    private ResponseEntity<CommandStatus> accepted(WriteCommand command) {
+        CommandStatus status = writeCommandSender.submit(command);
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                        .path("/api/commands/{id}").buildAndExpand(status.getId()).toUri())
+                .body(status);
+    }
+}
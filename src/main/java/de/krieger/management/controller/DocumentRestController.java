@@ -1,18 +1,38 @@
 package de.krieger.management.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
 import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentExpansion;
+import de.krieger.management.model.DocumentFilter;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
+import de.krieger.management.model.SearchPage;
+import de.krieger.management.graph.ReferenceGraphIndex;
+import de.krieger.management.search.DocumentSearchIndex;
 import de.krieger.management.service.DocumentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+import org.springdoc.core.annotations.ParameterObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -24,11 +44,16 @@ public class DocumentRestController {
 
     private static final Logger log = LoggerFactory.getLogger(DocumentRestController.class);
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_BATCH_SIZE = 1000;
+
     DocumentService documentService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    DocumentRestController(DocumentService documentService) {
+    DocumentRestController(DocumentService documentService, ObjectMapper objectMapper) {
         this.documentService = documentService;
+        this.objectMapper = objectMapper;
     }
 
     @Operation(summary = "Insert a new document", description = "Insert a new document")
@@ -44,19 +69,24 @@ public class DocumentRestController {
         return ResponseEntity.status(HttpStatus.CREATED).build();
     }
 
-    @Operation(summary = "Update an existing document", description = "Update an existing document by ID")
+    @Operation(summary = "Update an existing document", description = "Update an existing document by ID. " +
+            "With an If-Match header (the ETag of a GET), the document is only updated if it has not been updated since. " +
+            "The response has the new ETag.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Document updated successfully"),
             @ApiResponse(responseCode = "400", description = "Invalid request format or missing required fields"),
             @ApiResponse(responseCode = "401", description = "Not authorized"),
-            @ApiResponse(responseCode = "404", description = "Document id not found")
+            @ApiResponse(responseCode = "404", description = "Document id not found"),
+            @ApiResponse(responseCode = "412", description = "Document was updated since the If-Match ETag")
     })
     @PutMapping("/document/{id}")
-    public ResponseEntity<Void> updateDocument(@PathVariable(name = "id") int id, @RequestBody @Valid Document document) {
-        log.debug("update document: {}", document);
+    public ResponseEntity<Void> updateDocument(@PathVariable(name = "id") int id,
+                                               @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestBody @Valid Document document) {
+        log.debug("update document: {} if match: {}", document, ifMatch);
         document.setId(id);
-        documentService.update(document);
-        return ResponseEntity.ok().build();
+        Document updatedDocument = documentService.update(document, ETags.versions(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(updatedDocument)).build();
     }
 
     @Operation(summary = "Delete an existing document", description = "Delete an existing document by ID")
@@ -72,33 +102,195 @@ public class DocumentRestController {
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
-    @Operation(summary = "Get an existing document", description = "Get an existing document by ID")
+    @Operation(summary = "Insert a batch of documents", description = "Insert up to " + MAX_BATCH_SIZE + " documents in one transaction. " +
+            "Returns one result per document in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every document"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format, missing required fields or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PostMapping(path = "/documents/batch")
+    public ResponseEntity<List<BatchItemResult>> insertDocuments(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid Document> documents) {
+        log.debug("create documents: {}", documents.size());
+        return ResponseEntity.ok(documentService.createAll(documents));
+    }
+
+    @Operation(summary = "Update a batch of documents", description = "Update up to " + MAX_BATCH_SIZE + " existing documents in one transaction. " +
+            "Returns one result per document in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every document"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format, missing required fields or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @PutMapping(path = "/documents/batch")
+    public ResponseEntity<List<BatchItemResult>> updateDocuments(@RequestBody @Size(max = MAX_BATCH_SIZE) List<@Valid Document> documents) {
+        log.debug("update documents: {}", documents.size());
+        return ResponseEntity.ok(documentService.updateAll(documents));
+    }
+
+    @Operation(summary = "Delete a batch of documents", description = "Delete up to " + MAX_BATCH_SIZE + " documents by ID in one transaction. " +
+            "Returns one result per ID in request order.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Batch processed, see the result of every ID"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format or batch too large"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @DeleteMapping(path = "/documents/batch")
+    public ResponseEntity<List<BatchItemResult>> deleteDocuments(@RequestBody @Size(max = MAX_BATCH_SIZE) List<Integer> ids) {
+        log.debug("delete documents: {}", ids);
+        return ResponseEntity.ok(documentService.deleteAll(ids));
+    }
+
+    @Operation(summary = "Get an existing document", description = "Get an existing document by ID. " +
+            "The referenced documents are embedded with id and title, expand=references(depth=N) embeds their references as well, " +
+            "down to depth " + DocumentExpansion.MAX_DEPTH + ", and expand=references(depth=N),authors their authors (expand=authors alone to the referenced documents). " +
+            "Every document is embedded once, further occurrences (e.g. cycles) only have their id. " +
+            "With the ETag of a previous response as If-None-Match header, an unchanged document is answered with 304, " +
+            "without a database query unless references are expanded.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Get Document successfully"),
-            @ApiResponse(responseCode = "400", description = "Invalid request format or missing required parameter"),
+            @ApiResponse(responseCode = "304", description = "Document not modified since the If-None-Match ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid request format, missing required parameter or invalid expand"),
             @ApiResponse(responseCode = "401", description = "Not authorized"),
             @ApiResponse(responseCode = "404", description = "Document id not found")
     })
     @GetMapping("/document/{id}")
-    public ResponseEntity<Document> getDocument(@PathVariable(name = "id") int id) {
-        log.debug("get document id: {}", id);
-        Document document = documentService.findById(id);
-        return ResponseEntity.ok(document);
+    public ResponseEntity<Document> getDocument(@PathVariable(name = "id") int id,
+                                                @RequestParam(name = "expand", required = false) String expand) {
+        log.debug("get document id: {} expand: {}", id, expand);
+        DocumentExpansion expansion = DocumentExpansion.parse(expand);
+        Document document = documentService.expand(documentService.findById(id), expansion);
+        // the If-None-Match header is checked by Spring MVC, a 304 response has no body
+        return ResponseEntity.ok()
+                .eTag(ETags.of(document))
+                .cacheControl(ETags.REVALIDATE)
+                .body(document);
+    }
+
+    @Operation(summary = "Get the reference graph of a document", description = "Get the documents reachable from a document " +
+            "over its references (direction=REFERENCES), over the documents referencing it (REFERENCED_BY) or both, breadth-first " +
+            "up to the given depth. At most fanOut documents are reached from one document and at most limit documents are returned, " +
+            "truncated tells whether references were skipped. Every document has its depth and the document it was reached from.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get reference graph successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid direction or limits"),
+            @ApiResponse(responseCode = "401", description = "Not authorized"),
+            @ApiResponse(responseCode = "404", description = "Document id not found")
+    })
+    @GetMapping("/document/{id}/graph")
+    public ResponseEntity<ReferenceGraph> getReferenceGraph(
+            @PathVariable(name = "id") int id,
+            @RequestParam(name = "direction", defaultValue = "REFERENCES") ReferenceDirection direction,
+            @RequestParam(name = "depth", defaultValue = "2") @Min(0) @Max(ReferenceGraphIndex.MAX_DEPTH) int depth,
+            @RequestParam(name = "fanOut", defaultValue = "100") @Min(1) int fanOut,
+            @RequestParam(name = "limit", defaultValue = "1000") @Min(1) @Max(ReferenceGraphIndex.MAX_NODES) int limit) {
+        log.debug("get reference graph id: {} direction: {} depth: {} fanOut: {} limit: {}", id, direction, depth, fanOut, limit);
+        return ResponseEntity.ok(documentService.getReferenceGraph(id, direction, depth, fanOut, limit));
+    }
+
+    @Operation(summary = "Get a shortest reference path", description = "Get a shortest path of references from one document " +
+            "to another, following the references (direction=REFERENCES), the documents referencing them (REFERENCED_BY) or both. " +
+            "The documents on the path are returned in order, from the start to the end document.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get reference path successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid direction or maximum length"),
+            @ApiResponse(responseCode = "401", description = "Not authorized"),
+            @ApiResponse(responseCode = "404", description = "Document id not found or no path within the maximum length")
+    })
+    @GetMapping("/document/{id}/path/{targetId}")
+    public ResponseEntity<List<ReferenceGraphNode>> getReferencePath(
+            @PathVariable(name = "id") int id,
+            @PathVariable(name = "targetId") int targetId,
+            @RequestParam(name = "direction", defaultValue = "REFERENCES") ReferenceDirection direction,
+            @RequestParam(name = "maxLength", defaultValue = "6") @Min(0) @Max(ReferenceGraphIndex.MAX_DEPTH) int maxLength) {
+        log.debug("get reference path from: {} to: {} direction: {} maxLength: {}", id, targetId, direction, maxLength);
+        List<ReferenceGraphNode> path = documentService.findReferencePath(id, targetId, direction, maxLength);
+        if (path.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(path);
     }
 
-    @Operation(summary = "Get all documents as list", description = "Get all documents as list")
+    @Operation(summary = "Get all documents as list", description = "Get all documents as list. " +
+            "The documents are returned without body, unless view=FULL is requested. " +
+            "The list can be filtered by author, title prefix (case-sensitive), referenced document (references) " +
+            "and referencing document (referencedBy), all given filters have to match. " +
+            "It is sorted by id, unless sort=title or sort=title,desc is requested. " +
+            "The list has an ETag, with it as If-None-Match header an unchanged list is answered with 304.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Get Document list successfully"),
+            @ApiResponse(responseCode = "304", description = "Document list not modified since the If-None-Match ETag"),
+            @ApiResponse(responseCode = "400", description = "Invalid filter or sort property"),
             @ApiResponse(responseCode = "401", description = "Not authorized"),
             @ApiResponse(responseCode = "404", description = "No Documents found.")
     })
     @GetMapping(path = "/documents")
-    public ResponseEntity<List<Document>> getAllDocuments() {
-        log.debug("get Documents");
-        List<Document> documentList = documentService.getAll();
+    public ResponseEntity<List<Document>> getAllDocuments(
+            @RequestParam(name = "view", defaultValue = "SUMMARY") DocumentView view,
+            @RequestParam(name = "authorId", required = false) Integer authorId,
+            @RequestParam(name = "titlePrefix", required = false) String titlePrefix,
+            @RequestParam(name = "references", required = false) Integer references,
+            @RequestParam(name = "referencedBy", required = false) Integer referencedBy,
+            @ParameterObject Sort sort) {
+        DocumentFilter filter = new DocumentFilter(authorId, titlePrefix, references, referencedBy, sort);
+        log.debug("get Documents view: {} filter: {}", view, filter);
+        // the complete list is cached
+        List<Document> documentList = filter.isUnfiltered() ? documentService.getAll(view) : documentService.find(filter, view);
         if (documentList == null || documentList.isEmpty()) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(documentList);
+        return ResponseEntity.ok()
+                .eTag(ETags.ofDocuments(documentList))
+                .cacheControl(ETags.REVALIDATE)
+                .body(documentList);
+    }
+
+    @Operation(summary = "Get a page of documents", description = "Get a page of documents ordered by id (keyset pagination). " +
+            "Pass the nextCursor of a page as after parameter to get the next page. " +
+            "The documents are returned without body, unless view=FULL is requested.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get Document page successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid page size"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/documents/page")
+    public ResponseEntity<CursorPage<Document>> getDocumentPage(
+            @RequestParam(name = "after", defaultValue = "0") int after,
+            @RequestParam(name = "limit", defaultValue = "50") @Min(1) @Max(MAX_PAGE_SIZE) int limit,
+            @RequestParam(name = "view", defaultValue = "SUMMARY") DocumentView view) {
+        log.debug("get Document page after: {} limit: {} view: {}", after, limit, view);
+        return ResponseEntity.ok(documentService.getPage(after, limit, view));
+    }
+
+    @Operation(summary = "Search documents", description = "Full-text search over the titles and bodies, ranked by relevance (BM25). " +
+            "All words have to match, the query supports \"phrases\", prefix* and the Lucene query syntax, e.g. title:report OR body:draft. " +
+            "Only id and title of the documents are returned.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Search Documents successfully"),
+            @ApiResponse(responseCode = "400", description = "Invalid query or page"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/documents/search")
+    public ResponseEntity<SearchPage> searchDocuments(
+            @RequestParam(name = "q") String query,
+            @RequestParam(name = "offset", defaultValue = "0") @Min(0) @Max(DocumentSearchIndex.MAX_WINDOW - 1) int offset,
+            @RequestParam(name = "limit", defaultValue = "20") @Min(1) @Max(MAX_PAGE_SIZE) int limit) {
+        log.debug("search Documents query: {} offset: {} limit: {}", query, offset, limit);
+        return ResponseEntity.ok(documentService.search(query, offset, limit));
+    }
+
+    @Operation(summary = "Stream all documents", description = "Stream all documents ordered by id as newline delimited JSON. " +
+            "The documents are returned without body, unless view=FULL is requested.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream Documents successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/documents/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDocuments(
+            @RequestParam(name = "view", defaultValue = "SUMMARY") DocumentView view) {
+        log.debug("stream Documents view: {}", view);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(NdjsonStreams.<Document>of(objectMapper, consumer -> documentService.streamAll(view, consumer)));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package de.krieger.management.controller;
+
+import de.krieger.management.model.DocumentView;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Converts the view request parameter, ignoring case (view=summary, view=FULL).
+ */
+@Component
+class DocumentViewConverter implements Converter<String, DocumentView> {
+
+    @Override
+    public DocumentView convert(String source) {
+        return DocumentView.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,131 @@
+package de.krieger.management.controller;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Strong ETags computed from the entity versions. The ETag of a document also covers the versions of its
+ * embedded authors and references, because their names and titles change without the version of the document.
+ * The ETag of a list covers all documents or authors in it.
+ * <p>
+ * The ETag of a single author or document starts with its version, so an If-Match header can be checked
+ * against the version in the database, see {@link #versions(String)}.
+ */
+final class ETags {
+
+    /**
+     * Responses with an ETag may be kept by the client, but have to be revalidated (If-None-Match) before every use.
+     * Replaces the no-store default of Spring Security.
+     */
+    static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+    private static final Pattern VERSIONED = Pattern.compile("\"(\\d{1,18})(?:-[0-9a-f]{1,16})?\"");
+
+    private ETags() {
+    }
+
+    static String of(Author author) {
+        return "\"" + author.getVersion() + "\"";
+    }
+
+    static String of(Document document) {
+        return "\"" + document.getVersion() + "-" + Long.toHexString(hash(document)) + "\"";
+    }
+
+    static String ofDocuments(List<Document> documents) {
+        long hash = documents.size();
+        for (Document document : documents) {
+            hash = 31 * hash + hash(document);
+        }
+        return "\"" + Long.toHexString(mix(hash)) + "\"";
+    }
+
+    static String ofAuthors(List<Author> authors) {
+        long hash = authors.size();
+        for (Author author : authors) {
+            hash = 31 * hash + hash(author);
+        }
+        return "\"" + Long.toHexString(mix(hash)) + "\"";
+    }
+
+    /**
+     * Reads the versions from an If-Match header, a single ETag or a comma-separated list of ETags.
+     * Weak ETags never match, so they are skipped like ETags which are not from an author or document.
+     *
+     * @param ifMatch the header, may be null
+     * @return the versions of the strong ETags, null if the header is missing or * (any version)
+     * @throws OptimisticLockingFailureException if the header does not contain a strong ETag of an author or document
+     */
+    static Set<Long> versions(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Set<Long> versions = new HashSet<>();
+        for (String eTag : ifMatch.split(",")) {
+            Matcher matcher = VERSIONED.matcher(eTag.trim());
+            if (matcher.matches()) {
+                versions.add(Long.parseLong(matcher.group(1)));
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new OptimisticLockingFailureException("If-Match does not match the current version: " + ifMatch);
+        }
+        return versions;
+    }
+
+    private static long hash(Document document) {
+        long hash = 31L * document.getId() + document.getVersion();
+        // documents embedded by id only have no title
+        hash = 31 * hash + (document.getTitle() == null ? 0 : 1);
+        hash = 31 * hash + hashOfAuthors(document.getAuthors());
+        hash = 31 * hash + hashOfReferences(document.getReferences());
+        return mix(hash);
+    }
+
+    private static long hash(Author author) {
+        return mix(31L * author.getId() + author.getVersion());
+    }
+
+    // the hashes of set elements are added up, so they do not depend on the iteration order
+    private static long hashOfAuthors(Set<Author> authors) {
+        if (authors == null) {
+            return -1;
+        }
+        long hash = authors.size();
+        for (Author author : authors) {
+            hash += hash(author);
+        }
+        return hash;
+    }
+
+    private static long hashOfReferences(Set<Document> references) {
+        if (references == null) {
+            return -1;
+        }
+        long hash = references.size();
+        for (Document reference : references) {
+            hash += hash(reference);
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizer of MurmurHash3, spreads the bits so that the sums of the hashes do not cancel out.
+     */
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
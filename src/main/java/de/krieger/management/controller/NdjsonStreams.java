@@ -0,0 +1,45 @@
+package de.krieger.management.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes elements as newline delimited JSON (one JSON document per line) straight to the response,
+ * so the response is never held in memory as a whole.
+ */
+final class NdjsonStreams {
+
+    private static final byte NEW_LINE = '\n';
+
+    private NdjsonStreams() {
+    }
+
+    /**
+     * Creates a response body which writes every element the source produces as one line.
+     *
+     * @param objectMapper the mapper to serialize the elements with
+     * @param source       passes the elements to the given consumer, e.g. DocumentService::streamAll
+     * @param <T>          the element type
+     * @return the streaming response body
+     */
+    static <T> StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<T>> source) {
+        return outputStream -> {
+            try {
+                source.accept(element -> {
+                    try {
+                        outputStream.write(objectMapper.writeValueAsBytes(element));
+                        outputStream.write(NEW_LINE);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+}
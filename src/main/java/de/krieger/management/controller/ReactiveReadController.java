@@ -0,0 +1,83 @@
+package de.krieger.management.controller;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.service.ReactiveReadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only API returning Flux and Mono, next to the blocking read endpoints.
+ * The request thread is released while a result is loaded. The lists are written as newline
+ * delimited JSON one element at a time, as fast as the client reads them (or as JSON array for Accept: application/json).
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@SuppressWarnings("unused")
+public class ReactiveReadController {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadController.class);
+
+    private final ReactiveReadService readService;
+
+    @Autowired
+    ReactiveReadController(ReactiveReadService readService) {
+        this.readService = readService;
+    }
+
+    @Operation(summary = "Get an existing document (reactive)", description = "Get an existing document by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get Document successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized"),
+            @ApiResponse(responseCode = "404", description = "Document id not found")
+    })
+    @GetMapping("/document/{id}")
+    public Mono<Document> getDocument(@PathVariable(name = "id") int id) {
+        log.debug("get document id: {}", id);
+        return readService.findDocument(id);
+    }
+
+    @Operation(summary = "Stream all documents (reactive)", description = "Stream all documents ordered by id. " +
+            "The documents are returned without body, unless view=FULL is requested.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream Documents successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/documents", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Document> getAllDocuments(@RequestParam(name = "view", defaultValue = "SUMMARY") DocumentView view) {
+        log.debug("get Documents view: {}", view);
+        return readService.findAllDocuments(view);
+    }
+
+    @Operation(summary = "get an existing author (reactive)", description = "get an existing author by ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Get Author successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized"),
+            @ApiResponse(responseCode = "404", description = "Author id not found")
+    })
+    @GetMapping("/author/{id}")
+    public Mono<Author> getAuthor(@PathVariable(name = "id") int id) {
+        log.debug("get author :{}", id);
+        return readService.findAuthor(id);
+    }
+
+    @Operation(summary = "stream all authors (reactive)", description = "stream all authors")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Stream Authors successfully"),
+            @ApiResponse(responseCode = "401", description = "Not authorized")
+    })
+    @GetMapping(path = "/authors", produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Flux<Author> getAllAuthors() {
+        log.debug("getAll Authors");
+        return readService.findAllAuthors();
+    }
+}
@@ -0,0 +1,19 @@
+package de.krieger.management.controller;
+
+import de.krieger.management.model.ReferenceDirection;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Converts the direction request parameter, ignoring case (direction=referenced_by, direction=BOTH).
+ */
+@Component
+class ReferenceDirectionConverter implements Converter<String, ReferenceDirection> {
+
+    @Override
+    public ReferenceDirection convert(String source) {
+        return ReferenceDirection.valueOf(source.trim().toUpperCase(Locale.ROOT));
+    }
+}
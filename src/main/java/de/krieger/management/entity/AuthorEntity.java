@@ -2,21 +2,40 @@ package de.krieger.management.entity;
 
 
 import jakarta.persistence.*;
-import lombok.Data;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
+/**
+ * Author entity. It does not override equals/hashCode (identity within a persistence context),
+ * so Hibernate can put uninitialized author proxies into sets without loading them.
+ */
 @Entity
 @Table(name = "Author")
-@Data
+@Getter
+@Setter
+@ToString
 @NoArgsConstructor
 
 public class AuthorEntity {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "author_seq")
+    @GenericGenerator(name = "author_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "author_seq"))
     @Column(name = "Id")
     int id;
     @Column(name = "first_name", columnDefinition = "VARCHAR(128)")
     String firstName;
     @Column(name = "last_name", columnDefinition = "VARCHAR(128)")
     String lastName;
+    /**
+     * Incremented by Hibernate on every update, used for the ETags and the optimistic locking of the author.
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    long version;
 }
@@ -0,0 +1,22 @@
+package de.krieger.management.entity;
+
+import de.krieger.management.model.CompressedText;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores a {@link CompressedText} in its stored form. Neither direction compresses or decompresses.
+ */
+@Converter
+public class CompressedTextConverter implements AttributeConverter<CompressedText, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(CompressedText text) {
+        return text == null ? null : text.toBytes();
+    }
+
+    @Override
+    public CompressedText convertToEntityAttribute(byte[] bytes) {
+        return CompressedText.fromBytes(bytes);
+    }
+}
@@ -1,32 +1,67 @@
 package de.krieger.management.entity;
 
+import de.krieger.management.model.CompressedText;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import java.util.Set;
 
 @Entity
-@Table(name = "Document")
+// the indexes serve the filters of the document list, the join tables are indexed by document_id through their primary key
+@Table(name = "Document", indexes = @Index(name = "idx_document_title", columnList = "title"))
 @Data
 @NoArgsConstructor
 public class DocumentEntity {
+    /**
+     * Name of the foreign key from document_author to the author, violated when an attached author has been deleted.
+     */
+    public static final String AUTHOR_FOREIGN_KEY = "fk_document_author_author_id";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "document_seq")
+    @GenericGenerator(name = "document_seq", type = PooledSequenceGenerator.class,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "document_seq"))
     int id;
     @Column(name = "title")
     String title;
+    /**
+     * Incremented by Hibernate on every update, also when only the authors or references change
+     * (the document owns both join tables). Used for the ETags and the optimistic locking of the document.
+     */
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    @EqualsAndHashCode.Exclude
+    long version;
+    /**
+     * The body is unbounded, so it is stored as LOB and only loaded when it is accessed
+     * (requires the bytecode enhancement of the build). Summary views never touch it.
+     * It is stored compressed, see {@link CompressedText}.
+     */
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Convert(converter = CompressedTextConverter.class)
     @Column(name = "body")
-    String body;
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    CompressedText body;
 
     @ManyToMany(fetch = FetchType.LAZY,
             cascade = {CascadeType.MERGE, CascadeType.DETACH,
                     CascadeType.PERSIST, CascadeType.REFRESH})
     @JoinTable(name = "document_author",
             joinColumns = @JoinColumn(name = "document_id"),
-            inverseJoinColumns = @JoinColumn(name = "author_id")
+            inverseJoinColumns = @JoinColumn(name = "author_id", foreignKey = @ForeignKey(name = AUTHOR_FOREIGN_KEY)),
+            indexes = @Index(name = "idx_document_author_author_id", columnList = "author_id")
     )
     @BatchSize(size = 20)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     Set<AuthorEntity> authors;
 
     @ManyToMany(fetch = FetchType.LAZY,
@@ -34,8 +69,11 @@ public class DocumentEntity {
                     CascadeType.PERSIST, CascadeType.REFRESH})
     @JoinTable(name = "document_reference",
             joinColumns = @JoinColumn(name = "document_id"),
-            inverseJoinColumns = @JoinColumn(name = "reference_id")
+            inverseJoinColumns = @JoinColumn(name = "reference_id"),
+            indexes = @Index(name = "idx_document_reference_reference_id", columnList = "reference_id")
     )
     @BatchSize(size = 20)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     Set<DocumentEntity> references;
 }
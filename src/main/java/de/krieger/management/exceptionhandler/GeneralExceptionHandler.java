@@ -2,6 +2,7 @@ package de.krieger.management.exceptionhandler;
 import de.krieger.management.model.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -30,6 +31,18 @@ public class GeneralExceptionHandler {
         logger.error("Exception cause by: " , ex);
         return new ResponseEntity<>(error, HttpStatus.BAD_REQUEST);
     }
+    /**
+     * Handles OptimisticLockingFailureException, i.e. an If-Match header which does not match the current version
+     * or a concurrent update, and returns an error response with HTTP status 412 (Precondition Failed).
+     *
+     * @param ex The OptimisticLockingFailureException to handle.
+     * @return ResponseEntity containing the error response and HTTP status 412.
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public final ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex) {
+        ErrorResponse error = new ErrorResponse(HttpStatus.PRECONDITION_FAILED.value(), ex.getMessage());
+        return new ResponseEntity<>(error, HttpStatus.PRECONDITION_FAILED);
+    }
     /**
      * Handles MethodArgumentNotValidException and returns an error response with HTTP status 400 (Bad Request).
      *
@@ -0,0 +1,365 @@
+package de.krieger.management.graph;
+
+import de.krieger.management.model.ReferenceDirection;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the references between the documents in compressed sparse row (CSR) form.
+ * A document is numbered by the position of its ID in the ascending ids array. The documents referenced
+ * by node n are {@code references.targets[references.offsets[n] .. references.offsets[n + 1])}, in ascending
+ * order, the referencing documents are stored the same way in referencedBy. V documents and E references
+ * take 3V + 2E ints, a traversal only reads arrays.
+ */
+final class CsrGraph {
+
+    static final CsrGraph EMPTY = build(new int[0], new int[0], new int[0], 0);
+
+    private final int[] ids;
+    private final Adjacency references;
+    private final Adjacency referencedBy;
+
+    private CsrGraph(int[] ids, Adjacency references, Adjacency referencedBy) {
+        this.ids = ids;
+        this.references = references;
+        this.referencedBy = referencedBy;
+    }
+
+    /**
+     * Builds the graph of the given documents. References from or to other documents are dropped.
+     *
+     * @param documentIds the IDs of the documents
+     * @param sourceIds   the IDs of the referencing documents, one per reference
+     * @param targetIds   the IDs of the referenced documents, one per reference
+     * @return the graph
+     */
+    static CsrGraph of(int[] documentIds, int[] sourceIds, int[] targetIds) {
+        int[] ids = Arrays.stream(documentIds).sorted().distinct().toArray();
+        int[] sources = new int[sourceIds.length];
+        int[] targets = new int[sourceIds.length];
+        int count = 0;
+        for (int index = 0; index < sourceIds.length; index++) {
+            int source = Arrays.binarySearch(ids, sourceIds[index]);
+            int target = Arrays.binarySearch(ids, targetIds[index]);
+            if (source >= 0 && target >= 0) {
+                sources[count] = source;
+                targets[count] = target;
+                count++;
+            }
+        }
+        return build(ids, sources, targets, count);
+    }
+
+    /**
+     * Returns a copy in which the references of the saved documents are replaced and the deleted documents
+     * are removed, together with the references to them. Saved documents which are not in the graph are added.
+     * Costs O(V + E), the unchanged references are copied without lookups.
+     *
+     * @param savedReferences the IDs of the referenced documents by the ID of the saved document
+     * @param deletedIds      the IDs of the deleted documents
+     * @return the updated graph
+     */
+    CsrGraph with(Map<Integer, ? extends Collection<Integer>> savedReferences, Collection<Integer> deletedIds) {
+        BitSet removed = new BitSet(ids.length);
+        deletedIds.forEach(id -> setIfPresent(removed, id));
+        BitSet replaced = new BitSet(ids.length);
+        savedReferences.keySet().forEach(id -> setIfPresent(replaced, id));
+
+        int[] addedIds = savedReferences.keySet().stream()
+                .mapToInt(Integer::intValue)
+                .filter(id -> node(id) < 0 && !deletedIds.contains(id))
+                .toArray();
+        int[] keptIds = new int[ids.length - removed.cardinality() + addedIds.length];
+        int position = 0;
+        for (int node = 0; node < ids.length; node++) {
+            if (!removed.get(node)) {
+                keptIds[position++] = ids[node];
+            }
+        }
+        System.arraycopy(addedIds, 0, keptIds, position, addedIds.length);
+        if (addedIds.length > 0) {
+            Arrays.sort(keptIds);
+        }
+
+        // old node -> new node, -1 for deleted documents
+        int[] remap = new int[ids.length];
+        position = 0;
+        for (int node = 0; node < ids.length; node++) {
+            if (removed.get(node)) {
+                remap[node] = -1;
+            } else {
+                while (keptIds[position] < ids[node]) {
+                    position++;
+                }
+                remap[node] = position;
+            }
+        }
+
+        int capacity = references.targets.length + savedReferences.values().stream().mapToInt(Collection::size).sum();
+        int[] sources = new int[capacity];
+        int[] targets = new int[capacity];
+        int count = 0;
+        for (int node = 0; node < ids.length; node++) {
+            if (remap[node] < 0 || replaced.get(node)) {
+                continue;
+            }
+            for (int edge = references.offsets[node]; edge < references.offsets[node + 1]; edge++) {
+                int target = remap[references.targets[edge]];
+                if (target >= 0) {
+                    sources[count] = remap[node];
+                    targets[count] = target;
+                    count++;
+                }
+            }
+        }
+        for (Map.Entry<Integer, ? extends Collection<Integer>> saved : savedReferences.entrySet()) {
+            int source = Arrays.binarySearch(keptIds, saved.getKey());
+            if (source < 0) {
+                continue;
+            }
+            for (Integer referenceId : saved.getValue()) {
+                int target = Arrays.binarySearch(keptIds, referenceId);
+                if (target >= 0) {
+                    sources[count] = source;
+                    targets[count] = target;
+                    count++;
+                }
+            }
+        }
+        return build(keptIds, sources, targets, count);
+    }
+
+    /**
+     * @return the number of documents
+     */
+    int size() {
+        return ids.length;
+    }
+
+    /**
+     * @return the number of references
+     */
+    int referenceCount() {
+        return references.targets.length;
+    }
+
+    boolean contains(int id) {
+        return node(id) >= 0;
+    }
+
+    /**
+     * Breadth-first traversal from a document. Each document is reached once, on its shortest distance
+     * from the start document, and at most fanOut new documents are reached from one document.
+     * Neighbours are visited in ascending ID order, so the result is deterministic.
+     *
+     * @param rootId    the ID of the start document
+     * @param direction the direction in which the references are followed
+     * @param maxDepth  the maximum distance from the start document
+     * @param fanOut    the maximum number of documents reached from one document
+     * @param maxNodes  the maximum number of documents in the result, including the start document
+     * @return the traversal, or null if the start document is not in the graph
+     */
+    Traversal traverse(int rootId, ReferenceDirection direction, int maxDepth, int fanOut, int maxNodes) {
+        int root = node(rootId);
+        if (root < 0) {
+            return null;
+        }
+        Adjacency[] adjacencies = adjacencies(direction);
+        int capacity = Math.min(maxNodes, ids.length);
+        int[] nodes = new int[capacity];
+        int[] depths = new int[capacity];
+        int[] parents = new int[capacity];
+        BitSet visited = new BitSet(ids.length);
+        nodes[0] = root;
+        parents[0] = -1;
+        visited.set(root);
+        int count = 1;
+        boolean truncated = false;
+        traversal:
+        for (int head = 0; head < count; head++) {
+            int node = nodes[head];
+            if (depths[head] == maxDepth) {
+                continue;
+            }
+            int followed = 0;
+            for (Adjacency adjacency : adjacencies) {
+                for (int edge = adjacency.offsets[node]; edge < adjacency.offsets[node + 1]; edge++) {
+                    int neighbour = adjacency.targets[edge];
+                    if (visited.get(neighbour)) {
+                        continue;
+                    }
+                    if (count == capacity) {
+                        truncated = true;
+                        break traversal;
+                    }
+                    if (followed == fanOut) {
+                        truncated = true;
+                        break;
+                    }
+                    visited.set(neighbour);
+                    nodes[count] = neighbour;
+                    depths[count] = depths[head] + 1;
+                    parents[count] = node;
+                    count++;
+                    followed++;
+                }
+            }
+        }
+        int[] nodeIds = new int[count];
+        int[] parentIds = new int[count];
+        for (int index = 0; index < count; index++) {
+            nodeIds[index] = ids[nodes[index]];
+            parentIds[index] = parents[index] < 0 ? -1 : ids[parents[index]];
+        }
+        return new Traversal(nodeIds, Arrays.copyOf(depths, count), parentIds, truncated);
+    }
+
+    /**
+     * Finds a shortest path with a bidirectional breadth-first search: alternately the smaller frontier
+     * of the searches from the start and from the end is expanded by one level, until the searches meet.
+     *
+     * @param fromId    the ID of the start document
+     * @param toId      the ID of the end document
+     * @param direction the direction in which the references are followed from the start
+     * @param maxLength the maximum number of references on the path
+     * @return the IDs of the documents on the path, from start to end, or null if there is no such path
+     */
+    int[] shortestPath(int fromId, int toId, ReferenceDirection direction, int maxLength) {
+        int from = node(fromId);
+        int to = node(toId);
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        if (from == to) {
+            return new int[]{fromId};
+        }
+        PathSearch forward = new PathSearch(from, adjacencies(direction));
+        PathSearch backward = new PathSearch(to, adjacencies(direction.opposite()));
+        for (int length = 1; length <= maxLength; length++) {
+            if (forward.frontierSize == 0 || backward.frontierSize == 0) {
+                return null;
+            }
+            // levels are expanded completely, so the first meeting is on a shortest path
+            int meeting = forward.frontierSize <= backward.frontierSize ? forward.expand(backward) : backward.expand(forward);
+            if (meeting >= 0) {
+                List<Integer> path = new ArrayList<>();
+                for (int node = meeting; node >= 0; node = forward.parents.get(node)) {
+                    path.add(node);
+                }
+                Collections.reverse(path);
+                for (int node = backward.parents.get(meeting); node >= 0; node = backward.parents.get(node)) {
+                    path.add(node);
+                }
+                return path.stream().mapToInt(node -> ids[node]).toArray();
+            }
+        }
+        return null;
+    }
+
+    private int node(int id) {
+        int node = Arrays.binarySearch(ids, id);
+        return node >= 0 ? node : -1;
+    }
+
+    private void setIfPresent(BitSet nodes, int id) {
+        int node = node(id);
+        if (node >= 0) {
+            nodes.set(node);
+        }
+    }
+
+    private Adjacency[] adjacencies(ReferenceDirection direction) {
+        return switch (direction) {
+            case REFERENCES -> new Adjacency[]{references};
+            case REFERENCED_BY -> new Adjacency[]{referencedBy};
+            case BOTH -> new Adjacency[]{references, referencedBy};
+        };
+    }
+
+    private static CsrGraph build(int[] ids, int[] sources, int[] targets, int count) {
+        return new CsrGraph(ids, Adjacency.of(ids.length, sources, targets, count), Adjacency.of(ids.length, targets, sources, count));
+    }
+
+    /**
+     * Result of a traversal, in breadth-first order. The parent of the start document is -1.
+     */
+    record Traversal(int[] ids, int[] depths, int[] parentIds, boolean truncated) {
+    }
+
+    /**
+     * One direction of the references in CSR form.
+     */
+    private record Adjacency(int[] offsets, int[] targets) {
+
+        /**
+         * Groups the edges by source with a counting sort, each group ordered by target.
+         */
+        static Adjacency of(int nodes, int[] sources, int[] targets, int count) {
+            int[] offsets = new int[nodes + 1];
+            for (int edge = 0; edge < count; edge++) {
+                offsets[sources[edge] + 1]++;
+            }
+            for (int node = 0; node < nodes; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            int[] next = Arrays.copyOf(offsets, nodes);
+            int[] adjacent = new int[count];
+            for (int edge = 0; edge < count; edge++) {
+                adjacent[next[sources[edge]]++] = targets[edge];
+            }
+            for (int node = 0; node < nodes; node++) {
+                Arrays.sort(adjacent, offsets[node], offsets[node + 1]);
+            }
+            return new Adjacency(offsets, adjacent);
+        }
+    }
+
+    /**
+     * One side of the bidirectional search. Remembers the parent of every reached node, -1 for the start.
+     */
+    private static final class PathSearch {
+
+        private final Adjacency[] adjacencies;
+        private final Map<Integer, Integer> parents = new HashMap<>();
+        private int[] frontier;
+        private int frontierSize;
+
+        PathSearch(int start, Adjacency[] adjacencies) {
+            this.adjacencies = adjacencies;
+            parents.put(start, -1);
+            frontier = new int[]{start};
+            frontierSize = 1;
+        }
+
+        /**
+         * Expands the frontier by one level.
+         *
+         * @return the first node reached by the other search as well, or -1
+         */
+        int expand(PathSearch other) {
+            int[] next = new int[Math.max(16, frontierSize)];
+            int nextSize = 0;
+            for (int index = 0; index < frontierSize; index++) {
+                int node = frontier[index];
+                for (Adjacency adjacency : adjacencies) {
+                    for (int edge = adjacency.offsets[node]; edge < adjacency.offsets[node + 1]; edge++) {
+                        int neighbour = adjacency.targets[edge];
+                        if (parents.putIfAbsent(neighbour, node) != null) {
+                            continue;
+                        }
+                        if (other.parents.containsKey(neighbour)) {
+                            return neighbour;
+                        }
+                        if (nextSize == next.length) {
+                            next = Arrays.copyOf(next, nextSize * 2);
+                        }
+                        next[nextSize++] = neighbour;
+                    }
+                }
+            }
+            frontier = next;
+            frontierSize = nextSize;
+            return -1;
+        }
+    }
+}
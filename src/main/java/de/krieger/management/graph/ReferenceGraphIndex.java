@@ -0,0 +1,179 @@
+package de.krieger.management.graph;
+
+import de.krieger.management.model.Document;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory index of the references between the documents, for transitive queries without a query per hop.
+ * The references are kept as int arrays in CSR form, forward and reverse ({@link CsrGraph}).
+ * <p>
+ * Readers work on an immutable snapshot without locking. Like the caches, the index is updated after the
+ * commit of a write: a new snapshot is built from the previous one and the written documents, which costs
+ * O(documents + references) per write or batch. The index is loaded from the database on startup.
+ */
+@Component
+public class ReferenceGraphIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceGraphIndex.class);
+
+    /**
+     * Maximum depth of a traversal and maximum length of a path.
+     */
+    public static final int MAX_DEPTH = 10;
+
+    /**
+     * Maximum number of documents in a traversal.
+     */
+    public static final int MAX_NODES = 10_000;
+
+    private volatile CsrGraph graph = CsrGraph.EMPTY;
+
+    /**
+     * Traverses the references breadth-first. The nodes of the result have no titles.
+     *
+     * @param id        the ID of the start document
+     * @param direction the direction in which the references are followed
+     * @param depth     the maximum number of references between the start document and a reached document
+     * @param fanOut    the maximum number of documents reached from one document
+     * @param limit     the maximum number of documents in the result
+     * @return the reached documents in breadth-first order, or null if the start document is not indexed
+     * @throws IllegalArgumentException if a limit is out of range
+     */
+    public ReferenceGraph traverse(int id, ReferenceDirection direction, int depth, int fanOut, int limit) {
+        checkDepth(depth);
+        if (fanOut < 1 || limit < 1 || limit > MAX_NODES) {
+            throw new IllegalArgumentException("The fan-out has to be positive and the limit between 1 and " + MAX_NODES);
+        }
+        CsrGraph.Traversal traversal = graph.traverse(id, direction, depth, fanOut, limit);
+        if (traversal == null) {
+            return null;
+        }
+        List<ReferenceGraphNode> nodes = new ArrayList<>(traversal.ids().length);
+        for (int index = 0; index < traversal.ids().length; index++) {
+            int parentId = traversal.parentIds()[index];
+            nodes.add(new ReferenceGraphNode(traversal.ids()[index], null, traversal.depths()[index], parentId < 0 ? null : parentId));
+        }
+        return new ReferenceGraph(id, direction, depth, nodes, traversal.truncated());
+    }
+
+    /**
+     * Finds a shortest path of references between two documents. The nodes of the result have no titles.
+     *
+     * @param fromId    the ID of the start document
+     * @param toId      the ID of the end document
+     * @param direction the direction in which the references are followed from the start
+     * @param maxLength the maximum number of references on the path
+     * @return the documents on the path from start to end, empty if there is no such path
+     * @throws IllegalArgumentException if the maximum length is out of range
+     */
+    public List<ReferenceGraphNode> shortestPath(int fromId, int toId, ReferenceDirection direction, int maxLength) {
+        checkDepth(maxLength);
+        int[] path = graph.shortestPath(fromId, toId, direction, maxLength);
+        List<ReferenceGraphNode> nodes = new ArrayList<>();
+        if (path != null) {
+            for (int index = 0; index < path.length; index++) {
+                nodes.add(new ReferenceGraphNode(path[index], null, index, index == 0 ? null : path[index - 1]));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * @param id the ID of a document
+     * @return whether the document is indexed
+     */
+    public boolean contains(int id) {
+        return graph.contains(id);
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        return graph.size();
+    }
+
+    /**
+     * @return the number of indexed references
+     */
+    public int referenceCount() {
+        return graph.referenceCount();
+    }
+
+    /**
+     * Replaces the references of documents after they have been created or updated,
+     * after the commit when a transaction is active.
+     *
+     * @param documents the saved documents with their references
+     */
+    public void documentsSaved(Collection<Document> documents) {
+        Map<Integer, Set<Integer>> savedReferences = new HashMap<>();
+        for (Document document : documents) {
+            Set<Integer> referenceIds = new HashSet<>();
+            if (document.getReferences() != null) {
+                document.getReferences().forEach(reference -> referenceIds.add(reference.getId()));
+            }
+            savedReferences.put(document.getId(), referenceIds);
+        }
+        afterCommit(() -> update(current -> current.with(savedReferences, Set.of())));
+    }
+
+    /**
+     * Removes documents and the references to them after they have been deleted,
+     * after the commit when a transaction is active.
+     *
+     * @param ids the IDs of the deleted documents
+     */
+    public void documentsDeleted(Collection<Integer> ids) {
+        Set<Integer> deletedIds = new HashSet<>(ids);
+        afterCommit(() -> update(current -> current.with(Map.of(), deletedIds)));
+    }
+
+    /**
+     * Replaces the whole index. Writes committed while the graph is loaded are applied afterwards.
+     *
+     * @param loader reads the graph from the database
+     */
+    synchronized void load(Supplier<CsrGraph> loader) {
+        graph = loader.get();
+        log.info("Loaded reference graph with {} documents and {} references", graph.size(), graph.referenceCount());
+    }
+
+    private synchronized void update(UnaryOperator<CsrGraph> change) {
+        try {
+            graph = change.apply(graph);
+        } catch (RuntimeException e) {
+            log.error("Updating the reference graph failed", e);
+        }
+    }
+
+    private static void checkDepth(int depth) {
+        if (depth < 0 || depth > MAX_DEPTH) {
+            throw new IllegalArgumentException("The depth has to be between 0 and " + MAX_DEPTH);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package de.krieger.management.graph;
+
+import de.krieger.management.repository.DocumentRepository;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads the reference graph from the database on startup, with one query for the document IDs and one for
+ * the join table. Runs before the other runners, e.g. the DatasetSeeder, whose documents are added incrementally.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReferenceGraphInitializer implements ApplicationRunner {
+
+    private final ReferenceGraphIndex graphIndex;
+    private final DocumentRepository documentRepository;
+
+    public ReferenceGraphInitializer(ReferenceGraphIndex graphIndex, DocumentRepository documentRepository) {
+        this.graphIndex = graphIndex;
+        this.documentRepository = documentRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        graphIndex.load(() -> {
+            int[] documentIds = documentRepository.findAllIds().stream().mapToInt(Integer::intValue).toArray();
+            List<Object[]> references = documentRepository.findAllReferenceIds();
+            int[] sourceIds = new int[references.size()];
+            int[] targetIds = new int[references.size()];
+            for (int index = 0; index < references.size(); index++) {
+                sourceIds[index] = ((Number) references.get(index)[0]).intValue();
+                targetIds[index] = ((Number) references.get(index)[1]).intValue();
+            }
+            return CsrGraph.of(documentIds, sourceIds, targetIds);
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package de.krieger.management.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Compact binary format for a set of author IDs. The distinct IDs are sorted and each is
+ * written as the unsigned LEB128 varint of its difference to the previous ID, so dense IDs
+ * take one byte each.
+ */
+public final class AuthorIdCodec {
+
+    /**
+     * Content type of messages in this format. Messages without it contain a single ID as text.
+     */
+    public static final String CONTENT_TYPE = "application/x-author-ids-varint";
+
+    private AuthorIdCodec() {
+    }
+
+    /**
+     * Encodes the IDs. Duplicates are removed and the order is not kept.
+     *
+     * @param ids the IDs
+     * @return the encoded IDs
+     */
+    public static byte[] encode(Collection<Integer> ids) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(ids.size() + 4);
+        int previous = 0;
+        for (int id : new TreeSet<>(ids)) {
+            // the difference is written as unsigned int, so the arithmetic may wrap around
+            int delta = id - previous;
+            while ((delta & ~0x7F) != 0) {
+                out.write((delta & 0x7F) | 0x80);
+                delta >>>= 7;
+            }
+            out.write(delta);
+            previous = id;
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes IDs encoded by {@link #encode(Collection)}.
+     *
+     * @param bytes the encoded IDs
+     * @return the IDs in ascending order
+     * @throws IllegalArgumentException if the bytes are not a valid encoding
+     */
+    public static List<Integer> decode(byte[] bytes) {
+        List<Integer> ids = new ArrayList<>();
+        int previous = 0;
+        int index = 0;
+        while (index < bytes.length) {
+            int delta = 0;
+            int shift = 0;
+            byte current;
+            do {
+                if (index == bytes.length || shift > 28) {
+                    throw new IllegalArgumentException("Invalid varint at byte " + index);
+                }
+                current = bytes[index++];
+                delta |= (current & 0x7F) << shift;
+                shift += 7;
+            } while ((current & 0x80) != 0);
+            previous += delta;
+            ids.add(previous);
+        }
+        return ids;
+    }
+}
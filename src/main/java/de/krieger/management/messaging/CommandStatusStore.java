@@ -0,0 +1,85 @@
+package de.krieger.management.messaging;
+
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CommandStatus;
+import de.krieger.management.model.WriteCommand;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Keeps the status of the asynchronous write commands in the commands cache, until it expires.
+ * The stored statuses are never modified, every change stores a new status. The changes are synchronized,
+ * so a status is read and replaced atomically, and a final status (SUCCEEDED or FAILED) is never replaced.
+ */
+@Component
+public class CommandStatusStore {
+
+    private final CacheManager cacheManager;
+
+    public CommandStatusStore(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Stores a command as pending.
+     *
+     * @param command the accepted command
+     * @return the status
+     */
+    public synchronized CommandStatus submitted(WriteCommand command) {
+        CommandStatus status = new CommandStatus(command.getId(), command.getTarget(), command.getOperation(),
+                CommandStatus.State.PENDING, command.getEntityId(), null, Instant.now(), null);
+        Cache.ValueWrapper existing = cache().putIfAbsent(status.getId(), status);
+        return existing != null && existing.get() instanceof CommandStatus existingStatus ? existingStatus : status;
+    }
+
+    /**
+     * Stores the result of a processed command.
+     *
+     * @param commandId the ID of the command
+     * @param result    the result of the command in its batch
+     */
+    public void completed(String commandId, BatchItemResult result) {
+        if (result.getStatus() == BatchItemResult.Status.FAILED) {
+            failed(commandId, result.getMessage());
+        } else {
+            update(commandId, CommandStatus.State.SUCCEEDED, result.getId(), null);
+        }
+    }
+
+    /**
+     * Stores a command as failed.
+     *
+     * @param commandId the ID of the command
+     * @param message   the reason of the failure
+     */
+    public void failed(String commandId, String message) {
+        update(commandId, CommandStatus.State.FAILED, null, message);
+    }
+
+    /**
+     * @param commandId the ID of the command
+     * @return the status, or null if the command is unknown or its status expired
+     */
+    public CommandStatus find(String commandId) {
+        return cache().get(commandId, CommandStatus.class);
+    }
+
+    private synchronized void update(String commandId, CommandStatus.State state, Integer entityId, String message) {
+        CommandStatus pending = find(commandId);
+        if (pending == null || pending.getState() != CommandStatus.State.PENDING) {
+            return;
+        }
+        cache().put(commandId, new CommandStatus(commandId, pending.getTarget(), pending.getOperation(), state,
+                entityId == null ? pending.getEntityId() : entityId, message, pending.getSubmitted(), Instant.now()));
+    }
+
+    private Cache cache() {
+        return Objects.requireNonNull(cacheManager.getCache(CacheNames.COMMANDS), "Cache not configured: " + CacheNames.COMMANDS);
+    }
+}
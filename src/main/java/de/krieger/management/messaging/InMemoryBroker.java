@@ -0,0 +1,120 @@
+package de.krieger.management.messaging;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-JVM stand-in for RabbitMQ, used with the local profile, in tests and benchmarks.
+ * Queues are unbounded and not durable, a message is confirmed as soon as it is queued.
+ * Consumers receive the messages in batches like the batch listeners of RabbitMQConfig.
+ * A message whose listener throws is logged and dropped.
+ */
+public class InMemoryBroker implements MessagePublisher, AutoCloseable {
+    private static final Logger log = LoggerFactory.getLogger(InMemoryBroker.class);
+
+    private final Map<String, BlockingQueue<Message>> queues = new ConcurrentHashMap<>();
+    private final List<Thread> consumers = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "in-memory-broker-delay");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean running = true;
+
+    @Override
+    public CompletableFuture<Boolean> publish(String queueName, Message message) {
+        if (!running) {
+            return CompletableFuture.completedFuture(false);
+        }
+        message.getMessageProperties().setConsumerQueue(queueName);
+        queue(queueName).add(message);
+        return CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * Starts consumers on a queue. A consumer waits for a message, takes the messages which are
+     * already queued, up to the batch size, and passes them to the listener.
+     *
+     * @param queueName the name of the queue
+     * @param consumerCount the number of consumer threads
+     * @param batchSize the maximum number of messages per listener call
+     * @param listener the listener
+     */
+    public synchronized void subscribe(String queueName, int consumerCount, int batchSize, BatchMessageListener listener) {
+        BlockingQueue<Message> queue = queue(queueName);
+        for (int index = 0; index < consumerCount; index++) {
+            Thread consumer = new Thread(() -> consume(queue, batchSize, listener), queueName + "-consumer-" + index);
+            consumer.setDaemon(true);
+            consumer.start();
+            consumers.add(consumer);
+        }
+    }
+
+    /**
+     * Moves the messages of a queue to another queue after a delay, like a RabbitMQ queue with
+     * a message TTL and a dead letter routing key.
+     *
+     * @param queueName the name of the delaying queue
+     * @param delay the delay in milliseconds
+     * @param targetQueueName the queue the messages are moved to
+     */
+    public void delay(String queueName, long delay, String targetQueueName) {
+        subscribe(queueName, 1, 1, messages -> messages.forEach(message ->
+                scheduler.schedule(() -> publish(targetQueueName, message), delay, TimeUnit.MILLISECONDS)));
+    }
+
+    /**
+     * @param queueName the name of the queue
+     * @return the number of messages waiting in the queue
+     */
+    public int size(String queueName) {
+        return queue(queueName).size();
+    }
+
+    /**
+     * Stops the consumers. Queued messages are discarded.
+     */
+    @Override
+    public synchronized void close() {
+        running = false;
+        scheduler.shutdownNow();
+        consumers.forEach(Thread::interrupt);
+        consumers.clear();
+    }
+
+    private BlockingQueue<Message> queue(String queueName) {
+        return queues.computeIfAbsent(queueName, name -> new LinkedBlockingQueue<>());
+    }
+
+    private void consume(BlockingQueue<Message> queue, int batchSize, BatchMessageListener listener) {
+        List<Message> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            try {
+                listener.onMessageBatch(batch);
+            } catch (RuntimeException e) {
+                log.warn("Listener failed, dropping {} messages", batch.size(), e);
+            }
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+}
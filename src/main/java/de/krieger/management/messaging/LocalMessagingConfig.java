@@ -0,0 +1,65 @@
+package de.krieger.management.messaging;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Messaging without RabbitMQ for the local profile. The queues and listeners of RabbitMQConfig
+ * are set up on an {@link InMemoryBroker}, with the same names, batch sizes and consumer counts.
+ */
+@Configuration
+@Profile(LocalMessagingConfig.PROFILE)
+public class LocalMessagingConfig {
+
+    /**
+     * Profile which replaces RabbitMQ by the in-memory broker.
+     */
+    public static final String PROFILE = "local";
+
+    @Value("${rabbitmq.delete.author.queue.name}")
+    private String queueName;
+
+    @Value("${rabbitmq.delete.author.retry.queue.name}")
+    private String retryQueueName;
+
+    @Value("${rabbitmq.delete.author.retry.delay}")
+    private long retryDelay;
+
+    @Value("${rabbitmq.delete.author.batch-size}")
+    private int batchSize;
+
+    @Value("${rabbitmq.delete.author.concurrency}")
+    private String concurrency;
+
+    @Value("${rabbitmq.write.command.queue.name}")
+    private String writeCommandQueueName;
+
+    @Value("${rabbitmq.write.command.partitions}")
+    private int writeCommandPartitions;
+
+    @Bean(destroyMethod = "close")
+    public InMemoryBroker inMemoryBroker() {
+        return new InMemoryBroker();
+    }
+
+    /**
+     * Starts the consumers once all beans are created. The delete author queue gets the maximum
+     * of the configured concurrency, every write command partition a single consumer.
+     */
+    @Bean
+    public SmartInitializingSingleton inMemoryListeners(InMemoryBroker broker, RabbitMQReceiver rabbitMQReceiver,
+                                                        WriteCommandReceiver writeCommandReceiver) {
+        return () -> {
+            int consumers = Integer.parseInt(concurrency.substring(concurrency.indexOf('-') + 1));
+            broker.subscribe(queueName, consumers, batchSize, rabbitMQReceiver::receiveMessages);
+            broker.delay(retryQueueName, retryDelay, queueName);
+            for (int partition = 0; partition < writeCommandPartitions; partition++) {
+                broker.subscribe(RabbitMQConfig.partitionQueueName(writeCommandQueueName, partition), 1,
+                        batchSize, writeCommandReceiver);
+            }
+        };
+    }
+}
@@ -0,0 +1,22 @@
+package de.krieger.management.messaging;
+
+import org.springframework.amqp.core.Message;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes messages to a queue and reports the broker's confirmation.
+ * Decouples the senders from the broker, so they can be tested against a stand-in.
+ */
+public interface MessagePublisher {
+
+    /**
+     * Publishes a message without waiting for the broker.
+     *
+     * @param queueName the name of the queue
+     * @param message   the message
+     * @return completed with true if the broker confirmed the message, false if it rejected it,
+     *         or exceptionally if the message could not be sent
+     */
+    CompletableFuture<Boolean> publish(String queueName, Message message);
+}
@@ -0,0 +1,89 @@
+package de.krieger.management.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.amqp.core.Message;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Publish and consume rates and consumer lag per queue, the same for RabbitMQ and the in-memory broker.
+ * <ul>
+ *     <li>messaging.published: published messages, tagged with result confirmed or failed</li>
+ *     <li>messaging.consumed: messages passed to a listener</li>
+ *     <li>messaging.lag: time from publishing a message until a listener received it, including retries</li>
+ * </ul>
+ */
+@Component
+public class MessagingMetrics {
+
+    private static final String UNKNOWN_QUEUE = "unknown";
+
+    private final MeterRegistry registry;
+
+    public MessagingMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Counts a published message.
+     *
+     * @param queueName the queue
+     * @param confirmed whether the broker confirmed the message
+     */
+    public void published(String queueName, boolean confirmed) {
+        Counter.builder("messaging.published")
+                .description("Published messages")
+                .tag("queue", queueName)
+                .tag("result", confirmed ? "confirmed" : "failed")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Counts received messages and records their lag. Messages published without timestamp have no lag.
+     *
+     * @param messages the messages passed to a listener
+     */
+    public void consumed(List<Message> messages) {
+        long now = System.currentTimeMillis();
+        for (Message message : messages) {
+            String queueName = message.getMessageProperties().getConsumerQueue();
+            String queue = queueName == null ? UNKNOWN_QUEUE : queueName;
+            Counter.builder("messaging.consumed")
+                    .description("Messages passed to a listener")
+                    .tag("queue", queue)
+                    .register(registry)
+                    .increment();
+            Date timestamp = message.getMessageProperties().getTimestamp();
+            if (timestamp != null) {
+                Timer.builder("messaging.lag")
+                        .description("Time from publishing a message until a listener received it")
+                        .tag("queue", queue)
+                        .register(registry)
+                        .record(Duration.ofMillis(Math.max(0, now - timestamp.getTime())));
+            }
+        }
+    }
+
+    /**
+     * Registers a gauge of the messages or IDs a sender holds back.
+     *
+     * @param queueName the queue the sender publishes to
+     * @param pending   supplies the number of pending messages or IDs
+     */
+    public void pending(String queueName, Supplier<Number> pending) {
+        // strong reference, the registry would only hold the supplier weakly
+        Gauge.builder("messaging.pending", pending, supplier -> supplier.get().doubleValue())
+                .description("Messages or IDs held back by a sender")
+                .tag("queue", queueName)
+                .strongReference(true)
+                .register(registry);
+    }
+}
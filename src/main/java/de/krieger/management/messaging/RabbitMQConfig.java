@@ -1,24 +1,144 @@
 package de.krieger.management.messaging;
 
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.stream.IntStream;
 
 @Configuration
-public class RabbitMQConfig {
+@Profile("!" + LocalMessagingConfig.PROFILE)
+public class RabbitMQConfig implements RabbitListenerConfigurer {
+
+    /**
+     * Listener container factory which passes the messages to the listener in batches.
+     */
+    public static final String BATCH_CONTAINER_FACTORY = "batchContainerFactory";
 
     @Value("${rabbitmq.delete.author.queue.name}")
     private String queueName;
+
+    @Value("${rabbitmq.delete.author.retry.queue.name}")
+    private String retryQueueName;
+
+    @Value("${rabbitmq.delete.author.dead-letter.queue.name}")
+    private String deadLetterQueueName;
+
+    @Value("${rabbitmq.delete.author.retry.delay}")
+    private int retryDelay;
+
+    @Value("${rabbitmq.delete.author.batch-size}")
+    private int batchSize;
+
+    @Value("${rabbitmq.delete.author.prefetch}")
+    private int prefetch;
+
+    @Value("${rabbitmq.delete.author.receive-timeout}")
+    private long receiveTimeout;
+
+    @Value("${rabbitmq.write.command.queue.name}")
+    private String writeCommandQueueName;
+
+    @Value("${rabbitmq.write.command.partitions}")
+    private int writeCommandPartitions;
+
+    private final WriteCommandReceiver writeCommandReceiver;
+
+    public RabbitMQConfig(WriteCommandReceiver writeCommandReceiver) {
+        this.writeCommandReceiver = writeCommandReceiver;
+    }
+
+    /**
+     * @return the name of a partition queue of the write commands
+     */
+    public static String partitionQueueName(String queueName, int partition) {
+        return queueName + "." + partition;
+    }
+
     @Bean
     public Queue commandQueue() {
         return new Queue(queueName, true);
     }
 
+    /**
+     * Messages wait here for the retry delay and are then dead-lettered back to the command queue.
+     */
+    @Bean
+    public Queue retryQueue() {
+        return QueueBuilder.durable(retryQueueName)
+                .ttl(retryDelay)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(queueName)
+                .build();
+    }
+
+    /**
+     * Messages which failed on every attempt, kept for inspection.
+     */
+    @Bean
+    public Queue deadLetterQueue() {
+        return QueueBuilder.durable(deadLetterQueueName).build();
+    }
+
+    /**
+     * One queue per partition of the write commands.
+     */
+    @Bean
+    public Declarables writeCommandQueues() {
+        return new Declarables(IntStream.range(0, writeCommandPartitions)
+                .mapToObj(partition -> new Queue(partitionQueueName(writeCommandQueueName, partition), true))
+                .toList());
+    }
+
+    /**
+     * Registers one batch listener with a single consumer per partition queue of the write commands,
+     * so the commands of a partition are applied in order while the partitions are applied in parallel.
+     */
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int partition = 0; partition < writeCommandPartitions; partition++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("write-command-" + partition);
+            endpoint.setQueueNames(partitionQueueName(writeCommandQueueName, partition));
+            endpoint.setConcurrency("1");
+            endpoint.setBatchListener(true);
+            endpoint.setMessageListener(writeCommandReceiver);
+            registrar.registerEndpoint(endpoint);
+        }
+        registrar.setContainerFactoryBeanName(BATCH_CONTAINER_FACTORY);
+    }
+
     @Bean
     public RabbitAdmin rabbitAdmin(ConnectionFactory connectionFactory) {
         return new RabbitAdmin(connectionFactory);
     }
+
+    /**
+     * Container factory for batch listeners. A consumer collects up to batch-size messages,
+     * or less when no message arrives within the receive timeout, and passes them in one call.
+     * The prefetch bounds the unacknowledged messages per consumer, the concurrency is set per listener.
+     */
+    @Bean(BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory batchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setReceiveTimeout(receiveTimeout);
+        return factory;
+    }
 }
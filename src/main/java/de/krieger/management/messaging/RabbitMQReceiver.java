@@ -1,43 +1,120 @@
 package de.krieger.management.messaging;
 
+import de.krieger.management.model.BatchItemResult;
 import de.krieger.management.service.AuthorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 public class RabbitMQReceiver {
 
+    /**
+     * Header counting the delivery attempts of a message.
+     */
+    static final String ATTEMPTS_HEADER = "x-attempts";
+
     private static final Logger log = LoggerFactory.getLogger(RabbitMQReceiver.class);
-    private AuthorService authorService;
+    private final AuthorService authorService;
+    private final MessagePublisher messagePublisher;
+    private final MessagingMetrics metrics;
+
+    @Value("${rabbitmq.delete.author.queue.name}")
+    private String queueName;
+
+    @Value("${rabbitmq.delete.author.retry.queue.name}")
+    private String retryQueueName;
 
-    public RabbitMQReceiver(AuthorService authorService)
+    @Value("${rabbitmq.delete.author.dead-letter.queue.name}")
+    private String deadLetterQueueName;
+
+    @Value("${rabbitmq.delete.author.retry.max-attempts}")
+    private int maxAttempts;
+
+    public RabbitMQReceiver(AuthorService authorService, MessagePublisher messagePublisher, MessagingMetrics metrics)
     {
         this.authorService = authorService;
+        this.messagePublisher = messagePublisher;
+        this.metrics = metrics;
     }
 
-    @Value("${rabbitmq.delete.author.queue.name}")
-    private String queueName;
-
-    @RabbitListener(queues = "${rabbitmq.delete.author.queue.name}")
-    @Retryable(
-            value = { Exception.class },
-            maxAttempts = 3,
-            backoff = @Backoff(delay = 5000))
-    public void receiveMessage(String message) {
-        int authorId = Integer.parseInt(message);
-        log.debug("Received authorID: " + authorId + " from queue: " + queueName);
+    /**
+     * Deletes a batch of authors in one transaction. Authors which do not exist are skipped.
+     * If the batch fails, its messages are sent to the retry queue, which returns them to the command
+     * queue after the retry delay, or to the dead letter queue after the last attempt. The listener
+     * thread never waits for a retry.
+     *
+     * @param messages the messages, each containing author IDs
+     */
+    @RabbitListener(queues = "${rabbitmq.delete.author.queue.name}",
+            containerFactory = RabbitMQConfig.BATCH_CONTAINER_FACTORY,
+            concurrency = "${rabbitmq.delete.author.concurrency}")
+    public void receiveMessages(List<Message> messages) {
+        metrics.consumed(messages);
+        List<Integer> authorIds = new ArrayList<>();
+        for (Message message : messages) {
+            readAuthorIds(message, authorIds);
+        }
+        if (authorIds.isEmpty()) {
+            return;
+        }
+        log.debug("Received {} author IDs from queue: {}", authorIds.size(), queueName);
         try {
-            authorService.delete(authorId);
-        } catch (Exception e) {
-            log.debug("author not found. {}", authorId);
+            authorService.deleteAll(authorIds).stream()
+                    .filter(result -> result.getStatus() == BatchItemResult.Status.FAILED)
+                    .forEach(result -> log.debug("author not found. {}", result.getId()));
+        } catch (RuntimeException e) {
+            log.warn("Deleting {} authors failed", authorIds.size(), e);
+            messages.forEach(this::retryOrDeadLetter);
         }
     }
 
+    /**
+     * Reads the IDs of a message in the {@link AuthorIdCodec} format, or the single ID of a text message.
+     */
+    private void readAuthorIds(Message message, List<Integer> authorIds) {
+        if (AuthorIdCodec.CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            try {
+                authorIds.addAll(AuthorIdCodec.decode(message.getBody()));
+            } catch (IllegalArgumentException e) {
+                log.warn("Invalid author IDs from queue: {}", queueName, e);
+            }
+            return;
+        }
+        String body = new String(message.getBody(), StandardCharsets.UTF_8).trim();
+        try {
+            authorIds.add(Integer.parseInt(body));
+        } catch (NumberFormatException e) {
+            log.warn("Invalid author ID: {} from queue: {}", body, queueName);
+        }
+    }
 
+    private void retryOrDeadLetter(Message message) {
+        Integer attempts = message.getMessageProperties().getHeader(ATTEMPTS_HEADER);
+        int attempt = attempts == null ? 1 : attempts;
+        if (attempt >= maxAttempts) {
+            log.warn("Giving up after {} attempts, sending message to queue: {}", attempt, deadLetterQueueName);
+            send(deadLetterQueueName, message);
+        } else {
+            message.getMessageProperties().setHeader(ATTEMPTS_HEADER, attempt + 1);
+            send(retryQueueName, message);
+        }
+    }
 
+    /**
+     * Sends a message and waits for the confirmation. If it fails, the listener fails and the
+     * batch is delivered again.
+     */
+    private void send(String queueName, Message message) {
+        if (!messagePublisher.publish(queueName, message).join()) {
+            throw new IllegalStateException("Message not confirmed by queue: " + queueName);
+        }
+    }
 }
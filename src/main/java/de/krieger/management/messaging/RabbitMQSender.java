@@ -1,29 +1,187 @@
 package de.krieger.management.messaging;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.time.Instant;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sends delete author commands. The IDs are collected and published asynchronously, many IDs per
+ * message ({@link AuthorIdCodec}), when batch-size IDs are pending or after the flush interval.
+ * IDs of messages which the broker does not confirm are sent again after the retry delay.
+ * The flushes run on a thread of the sender (a virtual thread when spring.threads.virtual.enabled is set on Java 21),
+ * not on the application's task scheduler, so a publish blocked on an unreachable broker does not delay the other
+ * scheduled tasks, e.g. the commits of the search index, and the other way round.
+ */
 @Component
 public class RabbitMQSender {
     private static final Logger log = LoggerFactory.getLogger(RabbitMQSender.class);
+    private static final String THREAD_NAME_PREFIX = "delete-author-publisher-";
 
-    private final RabbitTemplate rabbitTemplate;
+    private final MessagePublisher messagePublisher;
+    private final MessagingMetrics metrics;
+    private final boolean virtualThreads;
+    private TaskScheduler taskScheduler;
+    // created in start() unless a task scheduler is given, shut down in stop()
+    private ThreadPoolTaskScheduler ownTaskScheduler;
+    private final Object lock = new Object();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private Set<Integer> pendingIds = new LinkedHashSet<>();
+    private volatile long pausedUntil;
+    private volatile ScheduledFuture<?> flusher;
+    private volatile boolean stopped;
 
     @Value("${rabbitmq.delete.author.queue.name}")
     private String queueName;
 
+    @Value("${rabbitmq.delete.author.publish.batch-size}")
+    private int batchSize;
+
+    @Value("${rabbitmq.delete.author.publish.flush-interval}")
+    private long flushInterval;
+
+    @Value("${rabbitmq.delete.author.retry.delay}")
+    private long retryDelay;
+
     @Autowired
-    public RabbitMQSender(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public RabbitMQSender(MessagePublisher messagePublisher, MessagingMetrics metrics,
+                          @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.messagePublisher = messagePublisher;
+        this.metrics = metrics;
+        this.virtualThreads = virtualThreads && Runtime.version().feature() >= 21;
     }
 
+    /**
+     * Flushes on the given task scheduler, e.g. of a test. It is not shut down by the sender.
+     */
+    RabbitMQSender(MessagePublisher messagePublisher, MessagingMetrics metrics, TaskScheduler taskScheduler) {
+        this(messagePublisher, metrics, false);
+        this.taskScheduler = taskScheduler;
+    }
+
+    @PostConstruct
+    void start() {
+        metrics.pending(queueName, this::pendingCount);
+        if (taskScheduler == null) {
+            ownTaskScheduler = new ThreadPoolTaskScheduler();
+            ownTaskScheduler.setThreadNamePrefix(THREAD_NAME_PREFIX);
+            if (virtualThreads) {
+                ownTaskScheduler.setThreadFactory(new VirtualThreadTaskExecutor(THREAD_NAME_PREFIX).getVirtualThreadFactory());
+            }
+            ownTaskScheduler.setDaemon(true);
+            ownTaskScheduler.setWaitForTasksToCompleteOnShutdown(true);
+            ownTaskScheduler.setAwaitTerminationMillis(flushInterval);
+            ownTaskScheduler.initialize();
+            taskScheduler = ownTaskScheduler;
+        }
+        Duration interval = Duration.ofMillis(flushInterval);
+        flusher = taskScheduler.scheduleWithFixedDelay(this::flush, Instant.now().plus(interval), interval);
+    }
+
+    /**
+     * Publishes the pending IDs and stops the publisher.
+     */
+    @PreDestroy
+    void stop() {
+        stopped = true;
+        if (flusher != null) {
+            flusher.cancel(false);
+        }
+        if (ownTaskScheduler != null) {
+            ownTaskScheduler.destroy();
+        }
+        publishPending();
+    }
+
+    /**
+     * Queues a delete command for an author. Returns without waiting for the broker.
+     *
+     * @param authorId the ID of the author to delete
+     */
     public void sendCommand(int authorId) {
-        String message = Integer.toString(authorId);
-        rabbitTemplate.convertAndSend(queueName, message);
-        log.debug("Sent command: for author with ID: " + authorId + " to queue: " + queueName);
+        boolean full;
+        synchronized (lock) {
+            pendingIds.add(authorId);
+            full = pendingIds.size() >= batchSize;
+        }
+        // schedule one flush, not one per command while the flush is waiting
+        if (full && !stopped && flushScheduled.compareAndSet(false, true)) {
+            taskScheduler.schedule(this::flush, Instant.now());
+        }
+        log.debug("Queued command: for author with ID: " + authorId + " to queue: " + queueName);
+    }
+
+    /**
+     * Publishes all pending IDs, unless a publish failed within the retry delay.
+     */
+    void flush() {
+        flushScheduled.set(false);
+        if (System.currentTimeMillis() >= pausedUntil) {
+            publishPending();
+        }
+    }
+
+    /**
+     * Publishes all pending IDs, at most batch-size IDs per message.
+     */
+    private void publishPending() {
+        List<Integer> ids;
+        synchronized (lock) {
+            if (pendingIds.isEmpty()) {
+                return;
+            }
+            ids = new ArrayList<>(pendingIds);
+            pendingIds = new LinkedHashSet<>();
+        }
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Integer> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            Message message = MessageBuilder.withBody(AuthorIdCodec.encode(batch))
+                    .setContentType(AuthorIdCodec.CONTENT_TYPE)
+                    .setTimestamp(new Date())
+                    .build();
+            messagePublisher.publish(queueName, message).whenComplete((acked, error) -> {
+                boolean confirmed = error == null && Boolean.TRUE.equals(acked);
+                metrics.published(queueName, confirmed);
+                if (!confirmed) {
+                    log.warn("Sending {} author IDs to queue: {} failed, sending again in {} ms: {}",
+                            batch.size(), queueName, retryDelay, error == null ? "not confirmed" : error.toString());
+                    pausedUntil = System.currentTimeMillis() + retryDelay;
+                    requeue(batch);
+                } else {
+                    log.debug("Sent command: for {} authors to queue: {}", batch.size(), queueName);
+                }
+            });
+        }
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pendingIds.size();
+        }
+    }
+
+    private void requeue(List<Integer> ids) {
+        synchronized (lock) {
+            pendingIds.addAll(ids);
+        }
     }
 }
@@ -0,0 +1,35 @@
+package de.krieger.management.messaging;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Publishes messages with RabbitMQ publisher confirms (spring.rabbitmq.publisher-confirm-type=correlated).
+ */
+@Component
+@Profile("!" + LocalMessagingConfig.PROFILE)
+public class RabbitMessagePublisher implements MessagePublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+
+    public RabbitMessagePublisher(RabbitTemplate rabbitTemplate) {
+        this.rabbitTemplate = rabbitTemplate;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> publish(String queueName, Message message) {
+        CorrelationData correlationData = new CorrelationData(UUID.randomUUID().toString());
+        try {
+            rabbitTemplate.send(queueName, message, correlationData);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return correlationData.getFuture().thenApply(CorrelationData.Confirm::isAck);
+    }
+}
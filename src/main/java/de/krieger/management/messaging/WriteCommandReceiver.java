@@ -0,0 +1,119 @@
+package de.krieger.management.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.WriteCommand;
+import de.krieger.management.service.AuthorService;
+import de.krieger.management.service.DocumentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies the write commands of a partition queue. The commands of a batch are applied in order,
+ * each run of consecutive commands with the same target and operation in one transaction.
+ */
+@Component
+public class WriteCommandReceiver implements BatchMessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteCommandReceiver.class);
+    private final AuthorService authorService;
+    private final DocumentService documentService;
+    private final CommandStatusStore statusStore;
+    private final ObjectMapper objectMapper;
+    private final MessagingMetrics metrics;
+
+    public WriteCommandReceiver(AuthorService authorService, DocumentService documentService,
+                                CommandStatusStore statusStore, ObjectMapper objectMapper, MessagingMetrics metrics) {
+        this.authorService = authorService;
+        this.documentService = documentService;
+        this.statusStore = statusStore;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Applies a batch of commands. A command which fails is marked FAILED and not retried,
+     * because a retry would overtake the later commands for the same entity. A message which cannot
+     * be read is marked FAILED by its message ID, the ID of the command.
+     *
+     * @param messages the messages, each containing a command
+     */
+    @Override
+    public void onMessageBatch(List<Message> messages) {
+        metrics.consumed(messages);
+        List<WriteCommand> commands = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            try {
+                commands.add(objectMapper.readValue(message.getBody(), WriteCommand.class));
+            } catch (IOException e) {
+                String commandId = message.getMessageProperties().getMessageId();
+                log.warn("Invalid command: {} from queue: {}", commandId, message.getMessageProperties().getConsumerQueue(), e);
+                if (commandId != null) {
+                    statusStore.failed(commandId, "Command cannot be read");
+                }
+            }
+        }
+        int start = 0;
+        while (start < commands.size()) {
+            WriteCommand first = commands.get(start);
+            int end = start + 1;
+            while (end < commands.size() && commands.get(end).getTarget() == first.getTarget()
+                    && commands.get(end).getOperation() == first.getOperation()) {
+                end++;
+            }
+            apply(commands.subList(start, end));
+            start = end;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        onMessageBatch(List.of(message));
+    }
+
+    private void apply(List<WriteCommand> run) {
+        WriteCommand first = run.get(0);
+        log.debug("Applying {} {} {} commands", run.size(), first.getOperation(), first.getTarget());
+        try {
+            List<BatchItemResult> results = switch (first.getTarget()) {
+                case AUTHOR -> switch (first.getOperation()) {
+                    case CREATE -> authorService.createAll(authors(run));
+                    case UPDATE -> authorService.updateAll(authors(run));
+                    case DELETE -> authorService.deleteAll(entityIds(run));
+                };
+                case DOCUMENT -> switch (first.getOperation()) {
+                    case CREATE -> documentService.createAll(documents(run));
+                    case UPDATE -> documentService.updateAll(documents(run));
+                    case DELETE -> documentService.deleteAll(entityIds(run));
+                };
+            };
+            for (int index = 0; index < run.size(); index++) {
+                statusStore.completed(run.get(index).getId(), results.get(index));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Applying {} {} {} commands failed", run.size(), first.getOperation(), first.getTarget(), e);
+            run.forEach(command -> statusStore.failed(command.getId(), e.getMessage()));
+        }
+    }
+
+    private static List<Author> authors(List<WriteCommand> run) {
+        return run.stream().map(WriteCommand::getAuthor).toList();
+    }
+
+    private static List<Document> documents(List<WriteCommand> run) {
+        return run.stream().map(WriteCommand::getDocument).toList();
+    }
+
+    private static List<Integer> entityIds(List<WriteCommand> run) {
+        return run.stream().map(WriteCommand::getEntityId).toList();
+    }
+}
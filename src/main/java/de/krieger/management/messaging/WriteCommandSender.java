@@ -0,0 +1,88 @@
+package de.krieger.management.messaging;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.krieger.management.model.CommandStatus;
+import de.krieger.management.model.WriteCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Queues write commands. The commands for the same author or document always go to the same
+ * partition queue, creates are spread by command ID.
+ */
+@Component
+public class WriteCommandSender {
+    private static final Logger log = LoggerFactory.getLogger(WriteCommandSender.class);
+
+    private final MessagePublisher messagePublisher;
+    private final CommandStatusStore statusStore;
+    private final ObjectMapper objectMapper;
+    private final MessagingMetrics metrics;
+
+    @Value("${rabbitmq.write.command.queue.name}")
+    private String queueName;
+
+    @Value("${rabbitmq.write.command.partitions}")
+    private int partitions;
+
+    public WriteCommandSender(MessagePublisher messagePublisher, CommandStatusStore statusStore, ObjectMapper objectMapper,
+                              MessagingMetrics metrics) {
+        this.messagePublisher = messagePublisher;
+        this.statusStore = statusStore;
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Assigns an ID to a command and queues it. Returns without waiting for the broker,
+     * a command which cannot be queued is marked FAILED.
+     *
+     * @param command the command
+     * @return the PENDING status of the command
+     */
+    public CommandStatus submit(WriteCommand command) {
+        command.setId(UUID.randomUUID().toString());
+        Message message;
+        try {
+            message = MessageBuilder.withBody(objectMapper.writeValueAsBytes(command))
+                    .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                    // lets the receiver mark a command FAILED which it cannot read
+                    .setMessageId(command.getId())
+                    .setTimestamp(new Date())
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Command cannot be serialized", e);
+        }
+        CommandStatus status = statusStore.submitted(command);
+        String partitionQueue = RabbitMQConfig.partitionQueueName(queueName, partition(command, partitions));
+        messagePublisher.publish(partitionQueue, message).whenComplete((acked, error) -> {
+            boolean confirmed = error == null && Boolean.TRUE.equals(acked);
+            metrics.published(partitionQueue, confirmed);
+            if (!confirmed) {
+                log.warn("Sending command: {} to queue: {} failed", command.getId(), partitionQueue, error);
+                statusStore.failed(command.getId(), "Command could not be queued");
+            }
+        });
+        log.debug("Sent command: {} {} {} to queue: {}", command.getId(), command.getOperation(), command.getTarget(), partitionQueue);
+        return status;
+    }
+
+    /**
+     * @return the partition of a command, the same for every command on the same entity
+     */
+    static int partition(WriteCommand command, int partitions) {
+        int key = command.getEntityId() == 0
+                ? command.getId().hashCode()
+                : 31 * command.getTarget().ordinal() + command.getEntityId();
+        return Math.floorMod(key, partitions);
+    }
+}
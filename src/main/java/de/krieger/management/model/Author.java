@@ -1,13 +1,16 @@
 package de.krieger.management.model;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
 @NoArgsConstructor
+@AllArgsConstructor
 public class Author {
 
     private static final int MIN_LENGTH = 2;
@@ -23,4 +26,13 @@ public class Author {
     @Size(min = MIN_LENGTH, max = MAX_LENGTH, message = "firstName length should be between "+ MIN_LENGTH +" and "+ MAX_LENGTH +".")
     String lastName;
 
+    /**
+     * Version of the author entity, sent as ETag instead of in the body.
+     */
+    @JsonIgnore
+    long version;
+
+    public Author(int id, String firstName, String lastName) {
+        this(id, firstName, lastName, 0);
+    }
 }
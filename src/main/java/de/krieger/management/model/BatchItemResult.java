@@ -0,0 +1,39 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of one item of a batch request")
+public class BatchItemResult {
+
+    public enum Status {
+        CREATED,
+        UPDATED,
+        DELETED,
+        FAILED
+    }
+
+    @Schema(description = "Position of the item in the request")
+    int index;
+
+    @Schema(description = "Id of the author or document, 0 if it could not be created")
+    int id;
+
+    Status status;
+
+    @Schema(description = "Reason of the failure")
+    String message;
+
+    public static BatchItemResult success(int index, int id, Status status) {
+        return new BatchItemResult(index, id, status, null);
+    }
+
+    public static BatchItemResult failed(int index, int id, String message) {
+        return new BatchItemResult(index, id, Status.FAILED, message);
+    }
+}
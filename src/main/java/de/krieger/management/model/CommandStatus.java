@@ -0,0 +1,42 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Processing state of an asynchronous write command")
+public class CommandStatus {
+
+    public enum State {
+        PENDING,
+        SUCCEEDED,
+        FAILED
+    }
+
+    @Schema(description = "Id of the command")
+    String id;
+
+    WriteCommand.Target target;
+
+    WriteCommand.Operation operation;
+
+    State state;
+
+    @Schema(description = "Id of the author or document, set for a created entity once the command succeeded")
+    int entityId;
+
+    @Schema(description = "Reason of the failure")
+    String message;
+
+    @Schema(description = "Time the command was accepted")
+    Instant submitted;
+
+    @Schema(description = "Time the command was processed, null while pending")
+    Instant completed;
+}
@@ -0,0 +1,229 @@
+package de.krieger.management.model;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Immutable text, stored Deflate compressed when that pays off.
+ * Texts of at least {@value #THRESHOLD} UTF-8 bytes are compressed, shorter texts and texts which
+ * do not get smaller are stored as plain UTF-8. The stored form starts with a format byte and is
+ * the same in the database, in the caches and in memory; the text is only decompressed by {@link #text()}.
+ * <p>
+ * The texts are created outside of any bean, e.g. by Jackson, so the sizes and the time spent compressing
+ * and decompressing are only counted in {@link #statistics()}, the meters are bound by
+ * {@link de.krieger.management.config.CompressedTextMetrics}.
+ */
+public final class CompressedText {
+
+    /**
+     * Minimum size in UTF-8 bytes of a text to be compressed.
+     */
+    public static final int THRESHOLD = 256;
+
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATE = 1;
+    // format byte + original length
+    private static final int DEFLATE_HEADER = 1 + Integer.BYTES;
+
+    private static final Statistics STATISTICS = new Statistics();
+
+    private final byte[] bytes;
+
+    private CompressedText(byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Creates the stored form of a text.
+     *
+     * @param text the text, may be null
+     * @return the compressed text, or null for null
+     */
+    public static CompressedText of(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        byte[] stored = null;
+        if (utf8.length >= THRESHOLD) {
+            long start = System.nanoTime();
+            stored = deflate(utf8);
+            STATISTICS.compressions.increment();
+            STATISTICS.compressNanos.add(System.nanoTime() - start);
+        }
+        if (stored == null || stored.length >= utf8.length + 1) {
+            stored = new byte[utf8.length + 1];
+            stored[0] = PLAIN;
+            System.arraycopy(utf8, 0, stored, 1, utf8.length);
+        } else {
+            STATISTICS.compressedOriginalBytes.add(utf8.length);
+            STATISTICS.compressedStoredBytes.add(stored.length);
+        }
+        STATISTICS.storedBytes.add(stored.length);
+        return new CompressedText(stored);
+    }
+
+    /**
+     * Wraps a stored form, as returned by {@link #toBytes()}.
+     *
+     * @param bytes the stored form, may be null
+     * @return the compressed text, or null for null
+     */
+    public static CompressedText fromBytes(byte[] bytes) {
+        return bytes == null || bytes.length == 0 ? null : new CompressedText(bytes);
+    }
+
+    /**
+     * @return a copy of the stored form
+     */
+    public byte[] toBytes() {
+        return bytes.clone();
+    }
+
+    /**
+     * @return the number of stored bytes
+     */
+    public int size() {
+        return bytes.length;
+    }
+
+    /**
+     * @return whether the text is stored Deflate compressed
+     */
+    public boolean isCompressed() {
+        return bytes[0] == DEFLATE;
+    }
+
+    /**
+     * Decompresses the text.
+     *
+     * @return the text
+     */
+    public String text() {
+        if (!isCompressed()) {
+            return new String(bytes, 1, bytes.length - 1, StandardCharsets.UTF_8);
+        }
+        long start = System.nanoTime();
+        String text = inflate();
+        STATISTICS.decompressions.increment();
+        STATISTICS.decompressNanos.add(System.nanoTime() - start);
+        return text;
+    }
+
+    /**
+     * @return the counters of all compressed texts
+     */
+    public static Statistics statistics() {
+        return STATISTICS;
+    }
+
+    /**
+     * Describes the stored form without decompressing it, e.g. in the toString of the models.
+     */
+    @Override
+    public String toString() {
+        return "CompressedText[" + (isCompressed() ? "deflate" : "plain") + ", " + bytes.length + " bytes]";
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return this == other || other instanceof CompressedText text && Arrays.equals(bytes, text.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bytes);
+    }
+
+    private static byte[] deflate(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            deflater.setInput(utf8);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 2 + DEFLATE_HEADER);
+            out.write(DEFLATE);
+            out.writeBytes(ByteBuffer.allocate(Integer.BYTES).putInt(utf8.length).array());
+            byte[] buffer = new byte[Math.min(utf8.length, 8192)];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private String inflate() {
+        Inflater inflater = new Inflater(true);
+        try {
+            byte[] utf8 = new byte[ByteBuffer.wrap(bytes, 1, Integer.BYTES).getInt()];
+            inflater.setInput(bytes, DEFLATE_HEADER, bytes.length - DEFLATE_HEADER);
+            int length = 0;
+            while (length < utf8.length && !inflater.finished()) {
+                length += inflater.inflate(utf8, length, utf8.length - length);
+            }
+            return new String(utf8, 0, length, StandardCharsets.UTF_8);
+        } catch (DataFormatException exception) {
+            throw new IllegalStateException("Corrupt compressed text", exception);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Cumulative counters of all texts since the start, read by the meters.
+     */
+    public static final class Statistics {
+
+        private final LongAdder compressions = new LongAdder();
+        private final LongAdder compressNanos = new LongAdder();
+        private final LongAdder decompressions = new LongAdder();
+        private final LongAdder decompressNanos = new LongAdder();
+        private final LongAdder compressedOriginalBytes = new LongAdder();
+        private final LongAdder compressedStoredBytes = new LongAdder();
+        private final LongAdder storedBytes = new LongAdder();
+
+        private Statistics() {
+        }
+
+        public long compressions() {
+            return compressions.sum();
+        }
+
+        public long compressNanos() {
+            return compressNanos.sum();
+        }
+
+        public long decompressions() {
+            return decompressions.sum();
+        }
+
+        public long decompressNanos() {
+            return decompressNanos.sum();
+        }
+
+        /**
+         * @return the original UTF-8 size of the texts which are stored compressed
+         */
+        public long compressedOriginalBytes() {
+            return compressedOriginalBytes.sum();
+        }
+
+        /**
+         * @return the stored size of the texts which are stored compressed
+         */
+        public long compressedStoredBytes() {
+            return compressedStoredBytes.sum();
+        }
+
+        public long storedBytes() {
+            return storedBytes.sum();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of a keyset (cursor) pagination ordered by id")
+public class CursorPage<T> {
+
+    @Schema(description = "Elements of the page")
+    List<T> items;
+
+    @Schema(description = "Cursor for the next page (the last id of this page), null if this is the last page")
+    Integer nextCursor;
+}
@@ -1,16 +1,20 @@
 package de.krieger.management.model;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
-import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.util.Set;
 
 @Data
 @NoArgsConstructor
-@AllArgsConstructor
+@EqualsAndHashCode(doNotUseGetters = true)
+@ToString(doNotUseGetters = true)
 @Schema(description = "Document model")
 public class Document {
 
@@ -20,17 +24,71 @@ public class Document {
 
     int id;
 
+    // null only for documents which are embedded by id (expand)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @NotBlank(message = "Title should not be empty!")
     @Size(min = MIN_LENGTH, max = MAX_LENGTH, message = "title length should be between "+MIN_LENGTH +" and "+MAX_LENGTH+".")
     String title;
 
-    @NotBlank(message = "body should not be empty!")
-    @Size(min = MIN_LENGTH, message = "body length should be more than "+MIN_LENGTH)
-    String body;
+    /**
+     * The body is kept compressed, also in the caches. It is only decompressed by {@link #getBody()},
+     * i.e. when the document is serialized.
+     */
+    CompressedText body;
 
-    @Schema(description = "List of authors")
+    @Schema(description = "List of authors, omitted in embedded documents unless authors are expanded")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     Set<Author> authors;
 
-    @Schema(description = "List of referenced documents")
+    @Schema(description = "List of referenced documents. Expanded references embed their own references down to the " +
+            "requested depth, documents already embedded elsewhere in the response only have their id.")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     Set<Document> references;
+
+    /**
+     * Version of the document entity, sent as part of the ETag instead of in the body.
+     */
+    @JsonIgnore
+    long version;
+
+    public Document(int id, String title, String body, Set<Author> authors, Set<Document> references) {
+        this.id = id;
+        this.title = title;
+        this.body = CompressedText.of(body);
+        this.authors = authors;
+        this.references = references;
+    }
+
+    @Schema(description = "Body of the document, omitted in the summary view and in referenced documents")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @NotBlank(message = "body should not be empty!")
+    @Size(min = MIN_LENGTH, message = "body length should be more than "+MIN_LENGTH)
+    public String getBody() {
+        return body == null ? null : body.text();
+    }
+
+    public void setBody(String body) {
+        this.body = CompressedText.of(body);
+    }
+
+    @JsonIgnore
+    public CompressedText getCompressedBody() {
+        return body;
+    }
+
+    @JsonIgnore
+    public void setCompressedBody(CompressedText body) {
+        this.body = body;
+    }
+
+    /**
+     * Copies the version of the given document, e.g. of the document this one is a copy of.
+     *
+     * @param document the document with the version
+     * @return this document
+     */
+    public Document withVersionOf(Document document) {
+        this.version = document.version;
+        return this;
+    }
 }
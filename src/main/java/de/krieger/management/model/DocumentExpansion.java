@@ -0,0 +1,55 @@
+package de.krieger.management.model;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parsed expand parameter of a document request, e.g. {@code references(depth=2),authors}.
+ * references embeds the referenced documents with their own references, down to the given depth (1 by default),
+ * authors adds the authors to the embedded documents, without references to the referenced documents of the document.
+ *
+ * @param referenceDepth the number of reference levels to embed, 0 to keep the references as they are
+ * @param authors        whether the embedded documents contain their authors
+ */
+public record DocumentExpansion(int referenceDepth, boolean authors) {
+
+    /**
+     * Maximum depth to which references can be expanded.
+     */
+    public static final int MAX_DEPTH = 5;
+
+    public static final DocumentExpansion NONE = new DocumentExpansion(0, false);
+
+    private static final Pattern ITEM = Pattern.compile("references(?:\\(depth=(\\d{1,9})\\))?|(authors)");
+
+    /**
+     * Parses the expand parameter.
+     *
+     * @param expand comma separated items: references, references(depth=N) or authors; may be null
+     * @return the expansion, {@link #NONE} for an empty parameter
+     * @throws IllegalArgumentException if an item is unknown or the depth is above {@value #MAX_DEPTH}
+     */
+    public static DocumentExpansion parse(String expand) {
+        if (expand == null || expand.isBlank()) {
+            return NONE;
+        }
+        int referenceDepth = 0;
+        boolean authors = false;
+        for (String item : expand.split(",")) {
+            Matcher matcher = ITEM.matcher(item.trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Documents can not be expanded by " + item.trim()
+                        + ", only by references, references(depth=N) and authors");
+            }
+            if (matcher.group(2) != null) {
+                authors = true;
+            } else {
+                referenceDepth = matcher.group(1) == null ? 1 : Integer.parseInt(matcher.group(1));
+            }
+        }
+        if (referenceDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("References can be expanded to a depth of at most " + MAX_DEPTH);
+        }
+        return new DocumentExpansion(referenceDepth, authors);
+    }
+}
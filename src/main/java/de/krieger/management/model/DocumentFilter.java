@@ -0,0 +1,69 @@
+package de.krieger.management.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Sort;
+
+import java.util.Set;
+
+/**
+ * Conditions and order of a document list. Conditions which are null are not applied,
+ * the given conditions have to match all.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentFilter {
+
+    /**
+     * Properties a document list can be sorted by.
+     */
+    public static final String SORT_ID = "id";
+    public static final String SORT_TITLE = "title";
+    public static final Set<String> SORT_PROPERTIES = Set.of(SORT_ID, SORT_TITLE);
+
+    /** Documents written by this author. */
+    Integer authorId;
+
+    /** Documents whose title starts with this prefix, case-sensitive. */
+    String titlePrefix;
+
+    /** Documents referencing this document. */
+    Integer references;
+
+    /** Documents referenced by this document. */
+    Integer referencedBy;
+
+    /** Order of the documents, by id when unsorted. */
+    Sort sort = Sort.unsorted();
+
+    /**
+     * @return whether no condition is set
+     */
+    public boolean hasNoConditions() {
+        return authorId == null && (titlePrefix == null || titlePrefix.isEmpty()) && references == null && referencedBy == null;
+    }
+
+    /**
+     * Checks that the sort only uses the sort properties.
+     *
+     * @throws IllegalArgumentException if the documents can not be sorted by a property
+     */
+    public void validateSort() {
+        if (sort != null) {
+            for (Sort.Order order : sort) {
+                if (!SORT_PROPERTIES.contains(order.getProperty())) {
+                    throw new IllegalArgumentException("Documents can not be sorted by " + order.getProperty() + ", only by " + SORT_PROPERTIES);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether all documents are requested in the default order (by id), like {@code getAll}
+     */
+    public boolean isUnfiltered() {
+        return hasNoConditions() && (sort == null || sort.isUnsorted() || sort.equals(Sort.by(SORT_ID)));
+    }
+}
@@ -0,0 +1,31 @@
+package de.krieger.management.model;
+
+/**
+ * Output variant of a document in list views.
+ */
+public enum DocumentView {
+
+    /**
+     * All fields of the document.
+     */
+    FULL,
+
+    /**
+     * The document without its body. Used for lists on request and always for referenced documents.
+     */
+    SUMMARY;
+
+    /**
+     * Returns the document in this view. A full document is returned as is, a summary is a copy without body.
+     *
+     * @param document the full document
+     * @return the document in this view
+     */
+    public Document of(Document document) {
+        if (this == FULL || document == null) {
+            return document;
+        }
+        return new Document(document.getId(), document.getTitle(), null, document.getAuthors(), document.getReferences())
+                .withVersionOf(document);
+    }
+}
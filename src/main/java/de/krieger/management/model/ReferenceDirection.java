@@ -0,0 +1,33 @@
+package de.krieger.management.model;
+
+/**
+ * Direction in which the references between documents are followed.
+ */
+public enum ReferenceDirection {
+
+    /**
+     * From a document to the documents it references.
+     */
+    REFERENCES,
+
+    /**
+     * From a document to the documents which reference it.
+     */
+    REFERENCED_BY,
+
+    /**
+     * Both directions, ignoring the direction of a reference.
+     */
+    BOTH;
+
+    /**
+     * @return the direction followed back from the end of a path to its start
+     */
+    public ReferenceDirection opposite() {
+        return switch (this) {
+            case REFERENCES -> REFERENCED_BY;
+            case REFERENCED_BY -> REFERENCES;
+            case BOTH -> BOTH;
+        };
+    }
+}
@@ -0,0 +1,30 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Documents reachable from a document over its references, in breadth-first order")
+public class ReferenceGraph {
+
+    @Schema(description = "ID of the start document")
+    int rootId;
+
+    @Schema(description = "Direction in which the references were followed")
+    ReferenceDirection direction;
+
+    @Schema(description = "Maximum depth of the traversal")
+    int depth;
+
+    @Schema(description = "Reached documents, the start document first, ordered by depth")
+    List<ReferenceGraphNode> nodes;
+
+    @Schema(description = "Whether references were skipped because of the fan-out or node limit")
+    boolean truncated;
+}
@@ -0,0 +1,25 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Document reached in a traversal of the references")
+public class ReferenceGraphNode {
+
+    @Schema(description = "ID of the document")
+    int id;
+
+    @Schema(description = "Title of the document")
+    String title;
+
+    @Schema(description = "Number of references between the start document and this document")
+    int depth;
+
+    @Schema(description = "ID of the document this document was reached from, null for the start document")
+    Integer parentId;
+}
@@ -0,0 +1,22 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Document matching a search query")
+public class SearchHit {
+
+    @Schema(description = "ID of the document")
+    int id;
+
+    @Schema(description = "Title of the document")
+    String title;
+
+    @Schema(description = "BM25 relevance score, higher is more relevant")
+    float score;
+}
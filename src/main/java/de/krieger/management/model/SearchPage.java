@@ -0,0 +1,27 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Page of search hits, ordered by relevance")
+public class SearchPage {
+
+    @Schema(description = "Hits of the page")
+    List<SearchHit> hits;
+
+    @Schema(description = "Number of documents matching the query")
+    long total;
+
+    @Schema(description = "Number of hits skipped before this page")
+    int offset;
+
+    @Schema(description = "Maximum number of hits in the page")
+    int limit;
+}
@@ -0,0 +1,51 @@
+package de.krieger.management.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Create, update or delete of an author or document, queued and applied asynchronously.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Asynchronous write command")
+public class WriteCommand {
+
+    public enum Target {
+        AUTHOR,
+        DOCUMENT
+    }
+
+    public enum Operation {
+        CREATE,
+        UPDATE,
+        DELETE
+    }
+
+    @Schema(description = "Id of the command")
+    String id;
+
+    Target target;
+
+    Operation operation;
+
+    @Schema(description = "Id of the author or document to update or delete, 0 for create")
+    int entityId;
+
+    @Schema(description = "The author to create or update")
+    Author author;
+
+    @Schema(description = "The document to create or update")
+    Document document;
+
+    public static WriteCommand author(Operation operation, int entityId, Author author) {
+        return new WriteCommand(null, Target.AUTHOR, operation, entityId, author, null);
+    }
+
+    public static WriteCommand document(Operation operation, int entityId, Document document) {
+        return new WriteCommand(null, Target.DOCUMENT, operation, entityId, null, document);
+    }
+}
@@ -0,0 +1,62 @@
+package de.krieger.management.querycount;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Number of SQL statements executed while a {@link QueryCounter} scope was open.
+ * A JDBC batch counts as one statement, because it is one round trip to the database.
+ * The first {@value #MAX_RECORDED} statements are kept, for the failure message of a query count assertion.
+ */
+public final class QueryCount {
+
+    static final int MAX_RECORDED = 50;
+
+    private int total;
+    private int selects;
+    private final List<String> statements = new ArrayList<>();
+
+    void executed(String sql) {
+        total++;
+        if (sql != null && sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            selects++;
+        }
+        if (statements.size() < MAX_RECORDED) {
+            statements.add(sql);
+        }
+    }
+
+    /**
+     * @return the number of executed statements
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the number of executed select statements
+     */
+    public int getSelects() {
+        return selects;
+    }
+
+    /**
+     * @return the number of executed insert, update, delete and other statements
+     */
+    public int getWrites() {
+        return total - selects;
+    }
+
+    /**
+     * @return the first executed statements, in order
+     */
+    public List<String> getStatements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    @Override
+    public String toString() {
+        return total + " statements (" + selects + " selects, " + getWrites() + " writes)";
+    }
+}
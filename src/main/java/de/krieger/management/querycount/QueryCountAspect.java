@@ -0,0 +1,37 @@
+package de.krieger.management.querycount;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Counts the SQL statements per service call and records them in the service.queries summary,
+ * tagged with class and method like service.time.
+ */
+@Aspect
+public class QueryCountAspect {
+
+    private final MeterRegistry registry;
+
+    public QueryCountAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object countQueries(ProceedingJoinPoint joinPoint) throws Throwable {
+        QueryCount count = QueryCounter.start();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            QueryCounter.stop(count);
+            DistributionSummary.builder("service.queries")
+                    .description("SQL statements executed per service call, tagged with class and method")
+                    .tag("class", joinPoint.getSignature().getDeclaringTypeName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .register(registry)
+                    .record(count.getTotal());
+        }
+    }
+}
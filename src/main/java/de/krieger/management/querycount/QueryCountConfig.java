@@ -0,0 +1,69 @@
+package de.krieger.management.querycount;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Counts the SQL statements per HTTP request and per service call, to find N+1 query patterns.
+ * Enabled with query-count.enabled=true, e.g. by the dev profile.
+ * <ul>
+ *     <li>the data source is wrapped in a datasource-proxy which reports every statement to {@link QueryCounter}</li>
+ *     <li>{@link QueryCountFilter} adds the X-Query-Count header and records http.server.requests.queries</li>
+ *     <li>{@link QueryCountAspect} records service.queries for the services</li>
+ * </ul>
+ */
+@Configuration
+@ConditionalOnProperty(name = "query-count.enabled", havingValue = "true")
+public class QueryCountConfig {
+
+    /**
+     * Wraps the data sources in a proxy reporting the executed statements.
+     * Static, so the post processor does not initialize this configuration early.
+     *
+     * @return the post processor
+     */
+    @Bean
+    public static BeanPostProcessor queryCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new QueryCounter())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Registers the filter after the Spring Security filter chain, so the user lookup of the authentication is not counted.
+     *
+     * @param registry      the meter registry
+     * @param warnThreshold requests executing more statements are logged as warning
+     * @return the filter registration
+     */
+    @Bean
+    public FilterRegistrationBean<QueryCountFilter> queryCountFilter(MeterRegistry registry,
+                                                                     @Value("${query-count.warn-threshold:20}") int warnThreshold) {
+        FilterRegistrationBean<QueryCountFilter> registration = new FilterRegistrationBean<>(new QueryCountFilter(registry, warnThreshold));
+        registration.setOrder(0);
+        return registration;
+    }
+
+    @Bean
+    public QueryCountAspect queryCountAspect(MeterRegistry registry) {
+        return new QueryCountAspect(registry);
+    }
+}
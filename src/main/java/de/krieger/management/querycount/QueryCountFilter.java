@@ -0,0 +1,118 @@
+package de.krieger.management.querycount;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts the SQL statements executed while handling a request. The count is sent in the
+ * {@value #HEADER} header and recorded in the http.server.requests.queries summary, tagged with method and uri.
+ * <p>
+ * The header is set when the response body is started, statements executed while the body is written,
+ * e.g. by lazy loading, are only part of the recorded count.
+ */
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Query-Count";
+
+    private static final Logger log = LoggerFactory.getLogger(QueryCountFilter.class);
+
+    private final MeterRegistry registry;
+    private final int warnThreshold;
+
+    public QueryCountFilter(MeterRegistry registry, int warnThreshold) {
+        this.registry = registry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCount count = QueryCounter.start();
+        CountingResponse countingResponse = new CountingResponse(response, count);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        } finally {
+            QueryCounter.stop(count);
+            countingResponse.setCountHeader();
+            record(request, count);
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCount count) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        DistributionSummary.builder("http.server.requests.queries")
+                .description("SQL statements executed per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(count.getTotal());
+        if (count.getTotal() > warnThreshold) {
+            log.warn("{} {} executed {}, first statements: {}", request.getMethod(), request.getRequestURI(), count, count.getStatements());
+        }
+    }
+
+    /**
+     * Sets the header before the response is committed.
+     */
+    private static class CountingResponse extends HttpServletResponseWrapper {
+
+        private final QueryCount count;
+        private boolean headerSet;
+
+        CountingResponse(HttpServletResponse response, QueryCount count) {
+            super(response);
+            this.count = count;
+        }
+
+        void setCountHeader() {
+            if (!headerSet && !isCommitted()) {
+                setIntHeader(HEADER, count.getTotal());
+            }
+            headerSet = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            setCountHeader();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            setCountHeader();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            setCountHeader();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            setCountHeader();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            setCountHeader();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package de.krieger.management.querycount;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Counts the SQL statements executed by the current thread. Scopes nest, a statement is counted
+ * by every open scope of the thread, e.g. by the HTTP request and by the service call it is executed in.
+ * Statements of other threads, e.g. of a streaming response, are not counted.
+ * <p>
+ * The statements are reported by the datasource proxy set up in {@link QueryCountConfig}, without it
+ * every count stays 0.
+ */
+public final class QueryCounter implements QueryExecutionListener {
+
+    private static final ThreadLocal<Deque<QueryCount>> SCOPES = ThreadLocal.withInitial(ArrayDeque::new);
+
+    /**
+     * Opens a scope on the current thread. It has to be closed with {@link #stop(QueryCount)} in a finally block.
+     *
+     * @return the count of the scope
+     */
+    public static QueryCount start() {
+        QueryCount count = new QueryCount();
+        SCOPES.get().push(count);
+        return count;
+    }
+
+    /**
+     * Closes a scope of the current thread.
+     *
+     * @param count the count returned by {@link #start()}
+     */
+    public static void stop(QueryCount count) {
+        Deque<QueryCount> scopes = SCOPES.get();
+        scopes.removeFirstOccurrence(count);
+        if (scopes.isEmpty()) {
+            SCOPES.remove();
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Deque<QueryCount> scopes = SCOPES.get();
+        if (scopes.isEmpty()) {
+            return;
+        }
+        String sql = queryInfoList.isEmpty() ? null : queryInfoList.get(0).getQuery();
+        scopes.forEach(count -> count.executed(sql));
+    }
+}
@@ -1,13 +1,23 @@
 package de.krieger.management.repository;
 
 import de.krieger.management.entity.AuthorEntity;
+import jakarta.persistence.QueryHint;
 import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
 @Repository
 public interface AuthorRepository extends JpaRepository<AuthorEntity, Integer> {
 
@@ -15,4 +25,35 @@ public interface AuthorRepository extends JpaRepository<AuthorEntity, Integer> {
     @Modifying
     @Query(value = "DELETE FROM document_author WHERE author_id = :authorId", nativeQuery = true)
     void deleteAuthorIdFromDocument(@Param("authorId") int authorId);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM document_author WHERE author_id IN (:authorIds)", nativeQuery = true)
+    void deleteAuthorIdsFromDocuments(@Param("authorIds") Collection<Integer> authorIds);
+
+    /**
+     * Returns the given IDs which belong to existing authors.
+     */
+    @Query("SELECT a.id FROM AuthorEntity a WHERE a.id IN :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * The current version of an author, empty if the author does not exist.
+     */
+    @Query("SELECT a.version FROM AuthorEntity a WHERE a.id = :id")
+    Optional<Long> findVersionById(@Param("id") int id);
+
+    /**
+     * Keyset pagination: the authors with an id greater than the given cursor, ordered by id.
+     */
+    List<AuthorEntity> findByIdGreaterThanOrderByIdAsc(int afterId, Limit limit);
+
+    /**
+     * Streams all authors ordered by id. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT a FROM AuthorEntity a ORDER BY a.id")
+    Stream<AuthorEntity> streamAll();
 }
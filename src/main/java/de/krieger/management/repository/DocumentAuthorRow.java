@@ -0,0 +1,7 @@
+package de.krieger.management.repository;
+
+/**
+ * Read-only projection of a document_author row joined with the author.
+ */
+public record DocumentAuthorRow(int documentId, int authorId, String firstName, String lastName, long version) {
+}
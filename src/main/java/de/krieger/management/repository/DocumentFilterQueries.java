@@ -0,0 +1,23 @@
+package de.krieger.management.repository;
+
+import de.krieger.management.model.DocumentFilter;
+
+import java.util.List;
+
+/**
+ * Filtered reads on the projection based read path, with only the conditions of the filter in the query.
+ * Implemented by {@link DocumentFilterQueriesImpl}, part of {@link DocumentRepository}.
+ */
+public interface DocumentFilterQueries {
+
+    /**
+     * Returns the document columns of the documents matching a filter, in the order of the filter.
+     * The conditions use the indexes on document(title), document_author(author_id),
+     * document_reference(reference_id) and the primary keys of the join tables.
+     *
+     * @param filter   the conditions and the order
+     * @param withBody whether to read the bodies (FULL view)
+     * @return the document rows
+     */
+    List<DocumentRow> findRows(DocumentFilter filter, boolean withBody);
+}
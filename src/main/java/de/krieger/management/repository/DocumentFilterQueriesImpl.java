@@ -0,0 +1,79 @@
+package de.krieger.management.repository;
+
+import de.krieger.management.entity.AuthorEntity;
+import de.krieger.management.entity.DocumentEntity;
+import de.krieger.management.model.DocumentFilter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class DocumentFilterQueriesImpl implements DocumentFilterQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<DocumentRow> findRows(DocumentFilter filter, boolean withBody) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<DocumentRow> query = cb.createQuery(DocumentRow.class);
+        Root<DocumentEntity> document = query.from(DocumentEntity.class);
+        query.select(withBody
+                ? cb.construct(DocumentRow.class, document.get("id"), document.get("title"), document.get("body"), document.get("version"))
+                : cb.construct(DocumentRow.class, document.get("id"), document.get("title"), document.get("version")));
+
+        List<Predicate> conditions = new ArrayList<>();
+        if (filter.getAuthorId() != null) {
+            // a document has an author once, so the join does not duplicate documents
+            Join<DocumentEntity, AuthorEntity> author = document.join("authors");
+            conditions.add(cb.equal(author.get("id"), filter.getAuthorId()));
+        }
+        if (filter.getTitlePrefix() != null && !filter.getTitlePrefix().isEmpty()) {
+            conditions.add(cb.like(document.get("title"), escapeLike(filter.getTitlePrefix()) + "%", '\\'));
+        }
+        if (filter.getReferences() != null) {
+            Join<DocumentEntity, DocumentEntity> reference = document.join("references");
+            conditions.add(cb.equal(reference.get("id"), filter.getReferences()));
+        }
+        if (filter.getReferencedBy() != null) {
+            Subquery<Integer> referencedIds = query.subquery(Integer.class);
+            Root<DocumentEntity> referencing = referencedIds.from(DocumentEntity.class);
+            referencedIds.select(referencing.join("references").get("id"))
+                    .where(cb.equal(referencing.get("id"), filter.getReferencedBy()));
+            conditions.add(document.get("id").in(referencedIds));
+        }
+        query.where(conditions.toArray(Predicate[]::new));
+        query.orderBy(orders(cb, document, filter.getSort()));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * The orders of the sort, followed by the id to make the order stable.
+     * The sort properties are checked by {@link DocumentFilter#validateSort()}.
+     */
+    private static List<Order> orders(CriteriaBuilder cb, Root<DocumentEntity> document, Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        boolean byId = false;
+        for (Sort.Order order : sort == null ? Sort.unsorted() : sort) {
+            orders.add(order.isAscending() ? cb.asc(document.get(order.getProperty())) : cb.desc(document.get(order.getProperty())));
+            byId |= order.getProperty().equals(DocumentFilter.SORT_ID);
+        }
+        if (!byId) {
+            orders.add(cb.asc(document.get("id")));
+        }
+        return orders;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
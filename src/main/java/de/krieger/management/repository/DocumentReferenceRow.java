@@ -0,0 +1,7 @@
+package de.krieger.management.repository;
+
+/**
+ * Read-only projection of a document_reference row joined with the title and the version of the referenced document.
+ */
+public record DocumentReferenceRow(int documentId, int referenceId, String title, long version) {
+}
@@ -3,14 +3,18 @@ package de.krieger.management.repository;
 
 import de.krieger.management.entity.DocumentEntity;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
-public interface DocumentRepository extends JpaRepository<DocumentEntity,Integer> {
+public interface DocumentRepository extends JpaRepository<DocumentEntity,Integer>, DocumentFilterQueries {
 
     @Transactional
     @Modifying
@@ -18,8 +22,92 @@ public interface DocumentRepository extends JpaRepository<DocumentEntity,Integer
     void deleteByReferenceId(@Param("referenceId") int referenceId);
 
     @Transactional
-    @Query("SELECT DISTINCT d FROM DocumentEntity d " +
-            "LEFT JOIN FETCH d.references r " +
-            "LEFT JOIN FETCH r.authors ra ")
-    Set<DocumentEntity> findAllDocumentWithAuthorsAndReferences();
+    @Modifying
+    @Query(value = "DELETE FROM document_reference WHERE reference_id IN (:documentIds) OR document_id IN (:documentIds)", nativeQuery = true)
+    void deleteReferencesOfDocuments(@Param("documentIds") Collection<Integer> documentIds);
+
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM document_author WHERE document_id IN (:documentIds)", nativeQuery = true)
+    void deleteAuthorsOfDocuments(@Param("documentIds") Collection<Integer> documentIds);
+
+    /**
+     * Returns the given IDs which belong to existing documents.
+     */
+    @Query("SELECT d.id FROM DocumentEntity d WHERE d.id IN :ids")
+    Set<Integer> findExistingIds(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Projection based read path: the document columns, ordered by id. Together with
+     * {@link #findAllAuthorRows()} and {@link #findAllReferenceRows()} all documents are
+     * read with three queries and without managed entities.
+     */
+    @Query("SELECT new de.krieger.management.repository.DocumentRow(d.id, d.title, d.body, d.version) " +
+            "FROM DocumentEntity d ORDER BY d.id")
+    List<DocumentRow> findAllRows();
+
+    /**
+     * Like {@link #findAllRows()}, but without the body (summary view).
+     */
+    @Query("SELECT new de.krieger.management.repository.DocumentRow(d.id, d.title, d.version) " +
+            "FROM DocumentEntity d ORDER BY d.id")
+    List<DocumentRow> findAllSummaryRows();
+
+    /**
+     * Keyset pagination on the projection based read path.
+     */
+    @Query("SELECT new de.krieger.management.repository.DocumentRow(d.id, d.title, d.body, d.version) " +
+            "FROM DocumentEntity d WHERE d.id > :afterId ORDER BY d.id")
+    List<DocumentRow> findRowsAfter(@Param("afterId") int afterId, Limit limit);
+
+    /**
+     * Like {@link #findRowsAfter(int, Limit)}, but without the body (summary view).
+     */
+    @Query("SELECT new de.krieger.management.repository.DocumentRow(d.id, d.title, d.version) " +
+            "FROM DocumentEntity d WHERE d.id > :afterId ORDER BY d.id")
+    List<DocumentRow> findSummaryRowsAfter(@Param("afterId") int afterId, Limit limit);
+
+    /**
+     * The IDs and titles of the given documents, e.g. to label the documents of a reference graph.
+     */
+    @Query("SELECT new de.krieger.management.repository.DocumentRow(d.id, d.title) " +
+            "FROM DocumentEntity d WHERE d.id IN :ids")
+    List<DocumentRow> findSummaryRows(@Param("ids") Collection<Integer> ids);
+
+    @Query("SELECT d.id FROM DocumentEntity d")
+    List<Integer> findAllIds();
+
+    /**
+     * All documents as pairs of ID and version, e.g. to check whether the search index is up to date.
+     */
+    @Query("SELECT d.id, d.version FROM DocumentEntity d")
+    List<Object[]> findAllVersions();
+
+    /**
+     * The current version of a document, empty if the document does not exist.
+     */
+    @Query("SELECT d.version FROM DocumentEntity d WHERE d.id = :id")
+    Optional<Long> findVersionById(@Param("id") int id);
+
+    /**
+     * All references as pairs of document ID and referenced document ID, read from the join table only.
+     */
+    @Query(value = "SELECT document_id, reference_id FROM document_reference", nativeQuery = true)
+    List<Object[]> findAllReferenceIds();
+
+    @Query("SELECT new de.krieger.management.repository.DocumentAuthorRow(d.id, a.id, a.firstName, a.lastName, a.version) " +
+            "FROM DocumentEntity d JOIN d.authors a")
+    List<DocumentAuthorRow> findAllAuthorRows();
+
+    @Query("SELECT new de.krieger.management.repository.DocumentAuthorRow(d.id, a.id, a.firstName, a.lastName, a.version) " +
+            "FROM DocumentEntity d JOIN d.authors a WHERE d.id IN :documentIds")
+    List<DocumentAuthorRow> findAuthorRows(@Param("documentIds") Collection<Integer> documentIds);
+
+    @Query("SELECT new de.krieger.management.repository.DocumentReferenceRow(d.id, r.id, r.title, r.version) " +
+            "FROM DocumentEntity d JOIN d.references r")
+    List<DocumentReferenceRow> findAllReferenceRows();
+
+    @Query("SELECT new de.krieger.management.repository.DocumentReferenceRow(d.id, r.id, r.title, r.version) " +
+            "FROM DocumentEntity d JOIN d.references r WHERE d.id IN :documentIds")
+    List<DocumentReferenceRow> findReferenceRows(@Param("documentIds") Collection<Integer> documentIds);
 }
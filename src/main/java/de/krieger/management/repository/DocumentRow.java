@@ -0,0 +1,18 @@
+package de.krieger.management.repository;
+
+import de.krieger.management.model.CompressedText;
+
+/**
+ * Read-only projection of the columns of a document, without its relations.
+ * The body stays compressed and is null in the summary view.
+ */
+public record DocumentRow(int id, String title, CompressedText body, long version) {
+
+    public DocumentRow(int id, String title, long version) {
+        this(id, title, null, version);
+    }
+
+    public DocumentRow(int id, String title) {
+        this(id, title, null, 0);
+    }
+}
@@ -0,0 +1,293 @@
+package de.krieger.management.search;
+
+import de.krieger.management.model.Document;
+import de.krieger.management.model.SearchHit;
+import de.krieger.management.model.SearchPage;
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Full-text index over the titles and bodies of the documents, an embedded Lucene index.
+ * Queries use the Lucene query syntax, e.g. {@code management}, {@code "document management"} (phrase),
+ * {@code manag*} (prefix) or {@code title:report AND body:draft}, and are ranked with BM25.
+ * Matches in the title weigh twice as much as matches in the body.
+ * <p>
+ * The index is stored memory-mapped in search.index.path and survives restarts, without a path it is kept in memory.
+ * Like the caches, it is updated after the commit of a write. Searches see the updates at once,
+ * they are committed to disk every search.index.commit-interval ms and on shutdown.
+ * A rebuild and the updates are serialized, updates of documents written during a rebuild are applied after it.
+ */
+@Component
+public class DocumentSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentSearchIndex.class);
+
+    static final String ID = "id";
+    static final String TITLE = "title";
+    static final String BODY = "body";
+    static final String VERSION = "version";
+
+    /**
+     * Maximum offset + limit of a search, deeper pages cost more than they are worth.
+     */
+    public static final int MAX_WINDOW = 10_000;
+
+    private static final Map<String, Float> BOOSTS = Map.of(TITLE, 2f, BODY, 1f);
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+
+    @Autowired
+    public DocumentSearchIndex(@Value("${search.index.path:}") String path) throws IOException {
+        this.directory = path.isBlank() ? new ByteBuffersDirectory() : new MMapDirectory(Files.createDirectories(Path.of(path)));
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(writer, null);
+        log.info("Opened search index {} with {} documents", path.isBlank() ? "in memory" : path, size());
+    }
+
+    /**
+     * Searches the documents.
+     *
+     * @param queryText the query in Lucene query syntax
+     * @param offset    the number of hits to skip
+     * @param limit     the maximum number of hits
+     * @return the page of hits, ordered by relevance
+     * @throws IllegalArgumentException if the query is invalid or the page is beyond {@value #MAX_WINDOW} hits
+     */
+    public SearchPage search(String queryText, int offset, int limit) {
+        if (offset < 0 || limit < 1 || offset + limit > MAX_WINDOW) {
+            throw new IllegalArgumentException("The search window (offset + limit) has to be between 1 and " + MAX_WINDOW);
+        }
+        Query query = parse(queryText);
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, offset + limit);
+                // beyond 1000 hits Lucene only counts a lower bound, while skipping non-competitive hits
+                long total = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                        ? topDocs.totalHits.value : searcher.count(query);
+                StoredFields storedFields = searcher.storedFields();
+                List<SearchHit> hits = new ArrayList<>();
+                for (int index = offset; index < topDocs.scoreDocs.length; index++) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[index];
+                    org.apache.lucene.document.Document stored = storedFields.document(scoreDoc.doc);
+                    hits.add(new SearchHit(Integer.parseInt(stored.get(ID)), stored.get(TITLE), scoreDoc.score));
+                }
+                return new SearchPage(hits, total, offset, limit);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Indexes documents after they have been created or updated, after the commit when a transaction is active.
+     *
+     * @param documents the saved documents
+     */
+    public void documentsSaved(Collection<Document> documents) {
+        List<org.apache.lucene.document.Document> indexDocuments = documents.stream().map(DocumentSearchIndex::toIndexDocument).toList();
+        afterCommit(() -> update(() -> {
+            for (org.apache.lucene.document.Document indexDocument : indexDocuments) {
+                writer.updateDocument(new Term(ID, indexDocument.get(ID)), indexDocument);
+            }
+        }));
+    }
+
+    /**
+     * Removes documents after they have been deleted, after the commit when a transaction is active.
+     *
+     * @param ids the IDs of the deleted documents
+     */
+    public void documentsDeleted(Collection<Integer> ids) {
+        Term[] terms = ids.stream().map(id -> new Term(ID, String.valueOf(id))).toArray(Term[]::new);
+        afterCommit(() -> update(() -> writer.deleteDocuments(terms)));
+    }
+
+    /**
+     * Replaces the whole index with the given documents and commits it. The documents are indexed by
+     * their ID like the incremental updates, so a document emitted twice is indexed once.
+     *
+     * @param documents emits all documents to the consumer
+     */
+    public void rebuild(Consumer<Consumer<Document>> documents) {
+        update(() -> {
+            writer.deleteAll();
+            documents.accept(document -> {
+                try {
+                    org.apache.lucene.document.Document indexDocument = toIndexDocument(document);
+                    writer.updateDocument(new Term(ID, indexDocument.get(ID)), indexDocument);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.commit();
+        });
+    }
+
+    /**
+     * Reads the version of every indexed document, to compare the index with the database.
+     *
+     * @return the versions by document ID, -1 for documents indexed without version
+     */
+    public Map<Integer, Long> versions() {
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                Map<Integer, Long> versions = new HashMap<>();
+                Set<String> fields = Set.of(ID, VERSION);
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    LeafReader reader = leaf.reader();
+                    Bits liveDocs = reader.getLiveDocs();
+                    StoredFields storedFields = reader.storedFields();
+                    for (int doc = 0; doc < reader.maxDoc(); doc++) {
+                        if (liveDocs == null || liveDocs.get(doc)) {
+                            org.apache.lucene.document.Document stored = storedFields.document(doc, fields);
+                            IndexableField version = stored.getField(VERSION);
+                            versions.put(Integer.parseInt(stored.get(ID)), version == null ? -1 : version.numericValue().longValue());
+                        }
+                    }
+                }
+                return versions;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the number of indexed documents
+     */
+    public int size() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * Commits the pending updates to disk.
+     */
+    @Scheduled(fixedDelayString = "${search.index.commit-interval:5000}")
+    public void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Committing the search index failed", e);
+        }
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        searcherManager.close();
+        writer.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    private Query parse(String queryText) {
+        if (queryText == null || queryText.isBlank()) {
+            throw new IllegalArgumentException("The search query must not be empty");
+        }
+        // the parser is not thread-safe
+        QueryParser parser = new MultiFieldQueryParser(new String[]{TITLE, BODY}, analyzer, BOOSTS);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        try {
+            return parser.parse(queryText);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Invalid search query: " + queryText, e);
+        }
+    }
+
+    // synchronized like the updates of the ReferenceGraphIndex, a rebuild holds the lock until it is committed
+    private synchronized void update(IndexUpdate update) {
+        try {
+            update.run();
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException | RuntimeException e) {
+            log.error("Updating the search index failed", e);
+        }
+    }
+
+    private static org.apache.lucene.document.Document toIndexDocument(Document document) {
+        org.apache.lucene.document.Document indexDocument = new org.apache.lucene.document.Document();
+        indexDocument.add(new StringField(ID, String.valueOf(document.getId()), Field.Store.YES));
+        indexDocument.add(new StoredField(VERSION, document.getVersion()));
+        if (document.getTitle() != null) {
+            indexDocument.add(new TextField(TITLE, document.getTitle(), Field.Store.YES));
+        }
+        String body = document.getBody();
+        if (body != null) {
+            indexDocument.add(new TextField(BODY, body, Field.Store.NO));
+        }
+        return indexDocument;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IndexUpdate {
+        void run() throws IOException;
+    }
+}
@@ -0,0 +1,53 @@
+package de.krieger.management.search;
+
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.repository.DocumentRepository;
+import de.krieger.management.service.DocumentService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rebuilds the search index on startup when it does not match the database, e.g. on the first start,
+ * when the in-memory database has been reset or when writes were not committed to the index before a crash.
+ * The index matches when it has the same documents in the same versions as the database. Runs before the other runners, e.g. the DatasetSeeder,
+ * whose documents are indexed incrementally.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class SearchIndexInitializer implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexInitializer.class);
+
+    private final DocumentSearchIndex searchIndex;
+    private final DocumentService documentService;
+    private final DocumentRepository documentRepository;
+
+    public SearchIndexInitializer(DocumentSearchIndex searchIndex, DocumentService documentService,
+                                  DocumentRepository documentRepository) {
+        this.searchIndex = searchIndex;
+        this.documentService = documentService;
+        this.documentRepository = documentRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Map<Integer, Long> versions = new HashMap<>();
+        for (Object[] row : documentRepository.findAllVersions()) {
+            versions.put(((Number) row[0]).intValue(), ((Number) row[1]).longValue());
+        }
+        Map<Integer, Long> indexedVersions = searchIndex.versions();
+        if (indexedVersions.equals(versions)) {
+            return;
+        }
+        log.info("Rebuilding the search index, {} indexed documents, {} documents in the database", indexedVersions.size(), versions.size());
+        searchIndex.rebuild(consumer -> documentService.streamAll(DocumentView.FULL, consumer));
+    }
+}
@@ -38,17 +38,38 @@ public class SecurityConfig {
         http.authorizeHttpRequests(configure ->
                 configure
                         .requestMatchers(HttpMethod.POST, "/api/author").hasRole(Role.ADMIN.getRole()) // insert
+                        .requestMatchers(HttpMethod.POST, "/api/authors/batch").hasRole(Role.ADMIN.getRole()) // insert batch
+                        .requestMatchers(HttpMethod.PUT, "/api/authors/batch").hasRole(Role.AUTHOR.getRole()) // update batch
+                        .requestMatchers(HttpMethod.DELETE, "/api/authors/batch").hasRole(Role.ADMIN.getRole()) // delete batch
                         .requestMatchers(HttpMethod.GET, "/api/authors").hasRole(Role.AUTHOR.getRole()) // get All
+                        .requestMatchers(HttpMethod.GET, "/api/authors/**").hasRole(Role.AUTHOR.getRole()) // get page, stream
                         .requestMatchers(HttpMethod.PUT, "/api/author/**").hasRole(Role.AUTHOR.getRole()) // update
                         .requestMatchers(HttpMethod.DELETE, "/api/author/**").hasRole(Role.ADMIN.getRole()) // delete
                         .requestMatchers(HttpMethod.DELETE, "/api/author/queue/**").hasRole(Role.ADMIN.getRole()) // delete queue
                         .requestMatchers(HttpMethod.GET, "/api/author/**").hasRole(Role.AUTHOR.getRole()) // get
 
                         .requestMatchers(HttpMethod.POST, "/api/document").hasRole(Role.AUTHOR.getRole()) // create
+                        .requestMatchers(HttpMethod.POST, "/api/documents/batch").hasRole(Role.AUTHOR.getRole()) // create batch
+                        .requestMatchers(HttpMethod.PUT, "/api/documents/batch").hasRole(Role.AUTHOR.getRole()) // update batch
+                        .requestMatchers(HttpMethod.DELETE, "/api/documents/batch").hasRole(Role.ADMIN.getRole()) // delete batch
                         .requestMatchers(HttpMethod.GET, "/api/documents").hasRole(Role.AUTHOR.getRole()) // get All
+                        .requestMatchers(HttpMethod.GET, "/api/documents/**").hasRole(Role.AUTHOR.getRole()) // get page, stream
                         .requestMatchers(HttpMethod.PUT, "/api/document/**").hasRole(Role.AUTHOR.getRole()) // update
                         .requestMatchers(HttpMethod.DELETE, "/api/document/**").hasRole(Role.ADMIN.getRole()) // delete
                         .requestMatchers(HttpMethod.GET, "/api/document/**").hasRole(Role.AUTHOR.getRole()) // get
+
+                        .requestMatchers(HttpMethod.GET, "/api/reactive/**").hasRole(Role.AUTHOR.getRole()) // reactive get, get All
+
+                        .requestMatchers(HttpMethod.POST, "/api/commands/author").hasRole(Role.ADMIN.getRole()) // queue insert author
+                        .requestMatchers(HttpMethod.PUT, "/api/commands/author/**").hasRole(Role.AUTHOR.getRole()) // queue update author
+                        .requestMatchers(HttpMethod.DELETE, "/api/commands/author/**").hasRole(Role.ADMIN.getRole()) // queue delete author
+                        .requestMatchers(HttpMethod.POST, "/api/commands/document").hasRole(Role.AUTHOR.getRole()) // queue create document
+                        .requestMatchers(HttpMethod.PUT, "/api/commands/document/**").hasRole(Role.AUTHOR.getRole()) // queue update document
+                        .requestMatchers(HttpMethod.DELETE, "/api/commands/document/**").hasRole(Role.ADMIN.getRole()) // queue delete document
+                        .requestMatchers(HttpMethod.GET, "/api/commands/**").hasRole(Role.AUTHOR.getRole()) // command status
+
+                        .requestMatchers(HttpMethod.GET, "/actuator/health").permitAll() // health check
+                        .requestMatchers("/actuator/**").hasRole(Role.ADMIN.getRole()) // metrics
                         .anyRequest().permitAll() // for swagger
         );
 
@@ -1,7 +1,11 @@
 package de.krieger.management.service;
 import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 /**
  * Service interface for managing authors.
  */
@@ -23,6 +27,16 @@ public interface AuthorService {
      */
     Author update(Author author);
 
+    /**
+     * Updates an existing author if it still has the expected version (optimistic locking).
+     *
+     * @param author           the author object to be updated
+     * @param expectedVersions the versions the client accepts, e.g. the one it has read, null to update any version
+     * @return the updated author with its new version
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the author has another version
+     */
+    Author update(Author author, Set<Long> expectedVersions);
+
     /**
      * Deletes an author by its ID.
      *
@@ -44,4 +58,45 @@ public interface AuthorService {
      * @return a list of all authors
      */
     List<Author> findAll();
+
+    /**
+     * Retrieves a page of authors ordered by ID, starting after the given cursor.
+     *
+     * @param afterId the cursor, i.e. the last ID of the previous page (0 for the first page)
+     * @param limit   the maximum number of authors in the page
+     * @return the page with the cursor for the next page
+     */
+    CursorPage<Author> findPage(int afterId, int limit);
+
+    /**
+     * Passes all authors ordered by ID to the consumer, one by one,
+     * without loading the whole table into memory.
+     *
+     * @param consumer the consumer of the authors
+     */
+    void streamAll(Consumer<Author> consumer);
+
+    /**
+     * Creates a batch of authors.
+     *
+     * @param authors the authors to be created
+     * @return one result per author, in the order of the request
+     */
+    List<BatchItemResult> createAll(List<Author> authors);
+
+    /**
+     * Updates a batch of existing authors.
+     *
+     * @param authors the authors to be updated
+     * @return one result per author, in the order of the request
+     */
+    List<BatchItemResult> updateAll(List<Author> authors);
+
+    /**
+     * Deletes a batch of authors by their IDs.
+     *
+     * @param ids the IDs of the authors to delete
+     * @return one result per ID, in the order of the request
+     */
+    List<BatchItemResult> deleteAll(List<Integer> ids);
 }
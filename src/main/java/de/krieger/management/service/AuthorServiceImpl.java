@@ -1,29 +1,49 @@
 package de.krieger.management.service;
 
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.cache.CacheSynchronizer;
 import de.krieger.management.repository.AuthorRepository;
 import de.krieger.management.entity.AuthorEntity;
 import de.krieger.management.exception.AuthorNotFoundException;
 import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Implementation of the AuthorService interface, providing CRUD operations for authors.
  */
 @Service
+@Timed(value = "service.time", description = "Time spent in the service methods, tagged with class and method")
 public class AuthorServiceImpl implements AuthorService {
 
     AuthorRepository authorRepository;
+    CacheSynchronizer cacheSynchronizer;
+    EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:" + Batches.DEFAULT_CHUNK_SIZE + "}")
+    int chunkSize = Batches.DEFAULT_CHUNK_SIZE;
+
     @Autowired
-    AuthorServiceImpl(AuthorRepository authorRepository) {
+    AuthorServiceImpl(AuthorRepository authorRepository, CacheSynchronizer cacheSynchronizer, EntityManager entityManager) {
         this.authorRepository = authorRepository;
+        this.cacheSynchronizer = cacheSynchronizer;
+        this.entityManager = entityManager;
     }
 
     /**
@@ -35,15 +55,17 @@ public class AuthorServiceImpl implements AuthorService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "authors", allEntries = true)
     public Author create(Author author) {
         author.setId(0);
-        return toAuthor(authorRepository.save(toAuthorEntity(author)));
+        Author createdAuthor = toAuthor(authorRepository.save(toAuthorEntity(author)));
+        cacheSynchronizer.authorSaved(createdAuthor);
+        return createdAuthor;
     }
 
     /**
      * Updates the details of an existing author in the repository.
      * If the author does not exist, an AuthorNotFoundException will be thrown.
+     * The cached author is refreshed and cached documents embedding the author are evicted.
      *
      * @param author the author object containing the updated details
      * @return the updated author
@@ -51,25 +73,50 @@ public class AuthorServiceImpl implements AuthorService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "authors", allEntries = true)
     public Author update(Author author) {
-        checkIfAuthorExistElseThrowException(author.getId());
-        return toAuthor(authorRepository.save(toAuthorEntity(author)));
+        return update(author, null);
+    }
+
+    /**
+     * Updates an existing author if it still has the expected version. The current version is read
+     * instead of checking the existence and is set on the merged entity, which is flushed, so the
+     * returned and cached author has the incremented version.
+     *
+     * @param author           the author object containing the updated details
+     * @param expectedVersions the versions the client accepts, e.g. the one it has read, null to update any version
+     * @return the updated author
+     * @throws AuthorNotFoundException           if the author with the given ID does not exist
+     * @throws OptimisticLockingFailureException if the author has another version
+     */
+    @Override
+    @Transactional
+    public Author update(Author author, Set<Long> expectedVersions) {
+        long version = authorRepository.findVersionById(author.getId())
+                .orElseThrow(() -> new AuthorNotFoundException("Author id not found - Id: " + author.getId()));
+        if (expectedVersions != null && !expectedVersions.contains(version)) {
+            throw new OptimisticLockingFailureException("Author was modified - Id: " + author.getId() + ", version: " + version);
+        }
+        AuthorEntity authorEntity = toAuthorEntity(author);
+        authorEntity.setVersion(version);
+        Author updatedAuthor = toAuthor(authorRepository.saveAndFlush(authorEntity));
+        cacheSynchronizer.authorSaved(updatedAuthor);
+        return updatedAuthor;
     }
     /**
      * Deletes the author with the specified ID from the repository.
      * If the author does not exist, an AuthorNotFoundException will be thrown.
+     * Only the cached author and the cached documents embedding the author are evicted.
      *
      * @param id the ID of the author to be deleted
      * @throws AuthorNotFoundException if the author with the given ID does not exist
      */
     @Override
     @Transactional
-    @CacheEvict(value = {"authors","documents"}, allEntries = true)
     public void delete(int id) {
         checkIfAuthorExistElseThrowException(id);
         authorRepository.deleteAuthorIdFromDocument(id);
         authorRepository.deleteById(id);
+        cacheSynchronizer.authorDeleted(id);
     }
     /**
      * Retrieves an author by their ID. If the author is not found, an AuthorNotFoundException is thrown.
@@ -79,7 +126,7 @@ public class AuthorServiceImpl implements AuthorService {
      * @throws AuthorNotFoundException if no author with the given ID is found
      */
     @Override
-    @Cacheable(value = "authors", key = "#id")
+    @Cacheable(value = CacheNames.AUTHORS, key = "#id")
     public Author findById(int id) throws AuthorNotFoundException {
         checkIfAuthorExistElseThrowException(id);
         return toAuthor(authorRepository.findById(id).orElseThrow());
@@ -90,13 +137,154 @@ public class AuthorServiceImpl implements AuthorService {
      * @return A List of Author objects.
      */
     @Override
-    @Cacheable(value = "authors")
+    @Cacheable(value = CacheNames.AUTHORS_ALL)
     public List<Author> findAll() {
         List<AuthorEntity> authorEntities = authorRepository.findAll();
         return authorEntities.stream().
                 map(this::toAuthor).
                 collect(Collectors.toList());
     }
+    /**
+     * Retrieves a page of authors with an ID greater than the cursor, ordered by ID.
+     *
+     * @param afterId the last ID of the previous page
+     * @param limit   the maximum number of authors in the page
+     * @return the page and the cursor for the next page
+     */
+    @Override
+    public CursorPage<Author> findPage(int afterId, int limit) {
+        List<Author> authors = authorRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(limit))
+                .stream()
+                .map(this::toAuthor)
+                .collect(Collectors.toList());
+        Integer nextCursor = authors.size() < limit ? null : authors.get(authors.size() - 1).getId();
+        return new CursorPage<>(authors, nextCursor);
+    }
+
+    /**
+     * Streams all authors from the database to the consumer. Every entity is detached
+     * after it is passed on, so the persistence context does not grow with the table.
+     *
+     * @param consumer the consumer of the authors
+     */
+    @Override
+    @Transactional
+    public void streamAll(Consumer<Author> consumer) {
+        try (Stream<AuthorEntity> authorEntities = authorRepository.streamAll()) {
+            authorEntities.forEach(authorEntity -> {
+                consumer.accept(toAuthor(authorEntity));
+                entityManager.detach(authorEntity);
+            });
+        }
+    }
+
+    /**
+     * Creates a batch of authors. The authors are inserted in chunks; after every chunk the
+     * persistence context is flushed as one JDBC batch and cleared. The caches are refreshed once.
+     *
+     * @param authors the authors to be created
+     * @return one CREATED result per author
+     */
+    @Override
+    @Transactional
+    public List<BatchItemResult> createAll(List<Author> authors) {
+        List<BatchItemResult> results = new ArrayList<>();
+        List<Author> createdAuthors = new ArrayList<>();
+        for (List<Author> chunk : Batches.chunks(authors, chunkSize)) {
+            List<AuthorEntity> authorEntities = chunk.stream()
+                    .peek(author -> author.setId(0))
+                    .map(this::toAuthorEntity)
+                    .collect(Collectors.toList());
+            authorRepository.saveAll(authorEntities);
+            flushAndClear();
+            authorEntities.forEach(authorEntity -> {
+                results.add(BatchItemResult.success(results.size(), authorEntity.getId(), BatchItemResult.Status.CREATED));
+                createdAuthors.add(toAuthor(authorEntity));
+            });
+        }
+        cacheSynchronizer.authorsSaved(createdAuthors);
+        return results;
+    }
+
+    /**
+     * Updates a batch of authors. All IDs are checked with one query up front; authors which do
+     * not exist are reported as FAILED. The others are loaded and updated chunk by chunk.
+     *
+     * @param authors the authors to be updated
+     * @return one UPDATED or FAILED result per author
+     */
+    @Override
+    @Transactional
+    public List<BatchItemResult> updateAll(List<Author> authors) {
+        Set<Integer> existingIds = findExistingIds(authors.stream().map(Author::getId).toList());
+        BatchItemResult[] results = new BatchItemResult[authors.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int index = 0; index < authors.size(); index++) {
+            int id = authors.get(index).getId();
+            if (existingIds.contains(id)) {
+                validIndexes.add(index);
+            } else {
+                results[index] = BatchItemResult.failed(index, id, "Author id not found - Id: " + id);
+            }
+        }
+        List<Author> updatedAuthors = new ArrayList<>();
+        for (List<Integer> chunk : Batches.chunks(validIndexes, chunkSize)) {
+            Map<Integer, AuthorEntity> authorEntities = authorRepository
+                    .findAllById(chunk.stream().map(index -> authors.get(index).getId()).toList())
+                    .stream()
+                    .collect(Collectors.toMap(AuthorEntity::getId, Function.identity()));
+            for (Integer index : chunk) {
+                Author author = authors.get(index);
+                AuthorEntity authorEntity = authorEntities.get(author.getId());
+                authorEntity.setFirstName(author.getFirstName());
+                authorEntity.setLastName(author.getLastName());
+                results[index] = BatchItemResult.success(index, author.getId(), BatchItemResult.Status.UPDATED);
+            }
+            flushAndClear();
+            authorEntities.values().forEach(authorEntity -> updatedAuthors.add(toAuthor(authorEntity)));
+        }
+        cacheSynchronizer.authorsSaved(updatedAuthors);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Deletes a batch of authors. The authors are detached from their documents and deleted with
+     * one statement per table and chunk. IDs which do not exist are reported as FAILED.
+     *
+     * @param ids the IDs of the authors to be deleted
+     * @return one DELETED or FAILED result per ID
+     */
+    @Override
+    @Transactional
+    public List<BatchItemResult> deleteAll(List<Integer> ids) {
+        Set<Integer> existingIds = findExistingIds(ids);
+        for (List<Integer> chunk : Batches.chunks(new ArrayList<>(existingIds), chunkSize)) {
+            authorRepository.deleteAuthorIdsFromDocuments(chunk);
+            authorRepository.deleteAllByIdInBatch(chunk);
+        }
+        cacheSynchronizer.authorsDeleted(existingIds);
+        List<BatchItemResult> results = new ArrayList<>();
+        for (Integer id : ids) {
+            results.add(existingIds.contains(id)
+                    ? BatchItemResult.success(results.size(), id, BatchItemResult.Status.DELETED)
+                    : BatchItemResult.failed(results.size(), id, "Author id not found - Id: " + id));
+        }
+        return results;
+    }
+
+    private Set<Integer> findExistingIds(Collection<Integer> ids) {
+        Set<Integer> existingIds = new HashSet<>();
+        for (List<Integer> chunk : Batches.chunks(new ArrayList<>(new HashSet<>(ids)), chunkSize)) {
+            existingIds.addAll(authorRepository.findExistingIds(chunk));
+        }
+        return existingIds;
+    }
+
+    private void flushAndClear() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
     /**
      * Converts an AuthorEntity to an Author model.
      *
@@ -109,6 +297,7 @@ public class AuthorServiceImpl implements AuthorService {
             author.setId(authorEntity.getId());
             author.setFirstName(authorEntity.getFirstName());
             author.setLastName(authorEntity.getLastName());
+            author.setVersion(authorEntity.getVersion());
             return author;
         }
         return null;
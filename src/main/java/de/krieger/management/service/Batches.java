@@ -0,0 +1,33 @@
+package de.krieger.management.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for batch operations.
+ */
+final class Batches {
+
+    /**
+     * Default number of entities written per flush. Matches hibernate.jdbc.batch_size.
+     */
+    static final int DEFAULT_CHUNK_SIZE = 50;
+
+    private Batches() {
+    }
+
+    /**
+     * Splits a list into consecutive chunks of the given size. The last chunk may be smaller.
+     *
+     * @param elements  the list to split
+     * @param chunkSize the maximum size of a chunk
+     * @return the chunks, views of the given list
+     */
+    static <T> List<List<T>> chunks(List<T> elements, int chunkSize) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int from = 0; from < elements.size(); from += chunkSize) {
+            chunks.add(elements.subList(from, Math.min(from + chunkSize, elements.size())));
+        }
+        return chunks;
+    }
+}
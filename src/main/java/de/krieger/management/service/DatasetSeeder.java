@@ -0,0 +1,128 @@
+package de.krieger.management.service;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Seeds the database with generated authors and documents on startup, for benchmarks and load tests.
+ * Active when seed.documents is set, e.g. --seed.documents=10000 --seed.authors=1000 --seed.references-per-document=2.5
+ * <p>
+ * The documents are created through the batch methods of the services in chunks. A document references
+ * documents of earlier chunks only, on average seed.references-per-document. The data only depends on
+ * the settings, so runs against different versions are comparable.
+ */
+@Component
+@ConditionalOnProperty("seed.documents")
+public class DatasetSeeder implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DatasetSeeder.class);
+    private static final int CHUNK_SIZE = 1000;
+    private static final String[] WORDS = ("document management author reference title body lorem ipsum dolor sit amet "
+            + "consectetur adipiscing elit sed do eiusmod tempor incididunt ut labore et dolore magna aliqua").split(" ");
+
+    private final AuthorService authorService;
+    private final DocumentService documentService;
+    private final List<Integer> authorIds = new ArrayList<>();
+    private final List<Integer> documentIds = new ArrayList<>();
+
+    @Value("${seed.documents}")
+    private int documents;
+
+    // 0 for one author per ten documents, at least 10
+    @Value("${seed.authors:0}")
+    private int authors;
+
+    @Value("${seed.authors-per-document:2}")
+    private int authorsPerDocument;
+
+    @Value("${seed.references-per-document:2}")
+    private double referencesPerDocument;
+
+    @Value("${seed.body-size:2000}")
+    private int bodySize;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    public DatasetSeeder(AuthorService authorService, DocumentService documentService) {
+        this.authorService = authorService;
+        this.documentService = documentService;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        Random random = new Random(randomSeed);
+        int authorCount = authors > 0 ? authors : Math.max(10, documents / 10);
+        for (int created = 0; created < authorCount; created += CHUNK_SIZE) {
+            List<Author> chunk = IntStream.range(created, Math.min(created + CHUNK_SIZE, authorCount))
+                    .mapToObj(index -> new Author(0, "First" + index, "Last" + index))
+                    .toList();
+            authorService.createAll(chunk).stream().map(BatchItemResult::getId).forEach(authorIds::add);
+        }
+        for (int created = 0; created < documents; created += CHUNK_SIZE) {
+            List<Document> chunk = new ArrayList<>();
+            for (int index = created; index < Math.min(created + CHUNK_SIZE, documents); index++) {
+                chunk.add(new Document(0, "Document " + index, body(random),
+                        pick(authorIds, authorsPerDocument, random, id -> new Author(id, null, null)),
+                        pick(documentIds, referenceCount(random), random, id -> new Document(id, null, null, null, null))));
+            }
+            documentService.createAll(chunk).stream().map(BatchItemResult::getId).forEach(documentIds::add);
+        }
+        log.info("Seeded {} authors and {} documents in {} ms", authorIds.size(), documentIds.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * @return the IDs of the seeded authors, in creation order
+     */
+    public List<Integer> getAuthorIds() {
+        return authorIds;
+    }
+
+    /**
+     * @return the IDs of the seeded documents, in creation order
+     */
+    public List<Integer> getDocumentIds() {
+        return documentIds;
+    }
+
+    private int referenceCount(Random random) {
+        int count = (int) referencesPerDocument;
+        return random.nextDouble() < referencesPerDocument - count ? count + 1 : count;
+    }
+
+    private String body(Random random) {
+        StringBuilder body = new StringBuilder(bodySize + 16);
+        while (body.length() < bodySize) {
+            body.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return body.toString();
+    }
+
+    private static <T> Set<T> pick(List<Integer> ids, int count, Random random, IntFunction<T> element) {
+        Set<Integer> picked = new HashSet<>();
+        while (picked.size() < Math.min(count, ids.size())) {
+            picked.add(ids.get(random.nextInt(ids.size())));
+        }
+        Set<T> elements = new HashSet<>();
+        picked.forEach(id -> elements.add(element.apply(id)));
+        return elements;
+    }
+}
@@ -1,7 +1,18 @@
 package de.krieger.management.service;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
 import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentExpansion;
+import de.krieger.management.model.DocumentFilter;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
+import de.krieger.management.model.SearchPage;
 
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Service interface for managing documents.
@@ -24,6 +35,16 @@ public interface DocumentService {
      */
     Document update(Document document);
 
+    /**
+     * Updates an existing document if it still has the expected version (optimistic locking).
+     *
+     * @param document         the document object to be updated
+     * @param expectedVersions the versions the client accepts, e.g. the one it has read, null to update any version
+     * @return the updated document with its new version
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the document has another version
+     */
+    Document update(Document document, Set<Long> expectedVersions);
+
     /**
      * Deletes a document by its ID.
      *
@@ -39,10 +60,105 @@ public interface DocumentService {
      */
     Document findById(int id);
 
+    /**
+     * Embeds the references of a document to the requested depth, e.g. of a document returned by {@link #findById(int)}.
+     *
+     * @param document  the document, it is not modified
+     * @param expansion the depth of the references and whether the embedded documents contain their authors
+     * @return a copy of the document with the expanded references, or the document itself if nothing is expanded
+     */
+    Document expand(Document document, DocumentExpansion expansion);
+
     /**
      * Retrieves all documents.
      *
+     * @param view FULL, or SUMMARY to omit the bodies
      * @return a list of all documents
      */
-    List<Document> getAll();
+    List<Document> getAll(DocumentView view);
+
+    /**
+     * Retrieves the documents matching a filter, in the order of the filter.
+     *
+     * @param filter the conditions and the order
+     * @param view   FULL, or SUMMARY to omit the bodies
+     * @return the matching documents
+     */
+    List<Document> find(DocumentFilter filter, DocumentView view);
+
+    /**
+     * Retrieves a page of documents ordered by ID, starting after the given cursor.
+     *
+     * @param afterId the cursor, i.e. the last ID of the previous page (0 for the first page)
+     * @param limit   the maximum number of documents in the page
+     * @param view    FULL, or SUMMARY to omit the bodies
+     * @return the page with the cursor for the next page
+     */
+    CursorPage<Document> getPage(int afterId, int limit, DocumentView view);
+
+    /**
+     * Passes all documents ordered by ID to the consumer, one by one,
+     * without loading the whole table into memory.
+     *
+     * @param view     FULL, or SUMMARY to omit the bodies
+     * @param consumer the consumer of the documents
+     */
+    void streamAll(DocumentView view, Consumer<Document> consumer);
+
+    /**
+     * Creates a batch of documents.
+     *
+     * @param documents the documents to be created
+     * @return one result per document, in the order of the request
+     */
+    List<BatchItemResult> createAll(List<Document> documents);
+
+    /**
+     * Updates a batch of existing documents.
+     *
+     * @param documents the documents to be updated
+     * @return one result per document, in the order of the request
+     */
+    List<BatchItemResult> updateAll(List<Document> documents);
+
+    /**
+     * Deletes a batch of documents by their IDs.
+     *
+     * @param ids the IDs of the documents to delete
+     * @return one result per ID, in the order of the request
+     */
+    List<BatchItemResult> deleteAll(List<Integer> ids);
+
+    /**
+     * Searches the titles and bodies of the documents.
+     *
+     * @param query  the query in Lucene query syntax, e.g. words, "a phrase" or a prefix*
+     * @param offset the number of hits to skip
+     * @param limit  the maximum number of hits
+     * @return the page of hits, ordered by relevance
+     */
+    SearchPage search(String query, int offset, int limit);
+
+    /**
+     * Retrieves the documents reachable from a document over its references, breadth-first.
+     *
+     * @param id        the ID of the start document
+     * @param direction REFERENCES, REFERENCED_BY or BOTH
+     * @param depth     the maximum number of references between the start document and a reached document
+     * @param fanOut    the maximum number of documents reached from one document
+     * @param limit     the maximum number of documents in the result
+     * @return the reached documents with their depth and the document they were reached from
+     */
+    ReferenceGraph getReferenceGraph(int id, ReferenceDirection direction, int depth, int fanOut, int limit);
+
+    /**
+     * Finds a shortest path of references between two documents.
+     *
+     * @param fromId    the ID of the start document
+     * @param toId      the ID of the end document
+     * @param direction REFERENCES, REFERENCED_BY or BOTH
+     * @param maxLength the maximum number of references on the path
+     * @return the documents on the path from start to end, empty if there is no such path
+     */
+    List<ReferenceGraphNode> findReferencePath(int fromId, int toId, ReferenceDirection direction, int maxLength);
 }
@@ -1,43 +1,97 @@
 package de.krieger.management.service;
 
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.cache.CacheSynchronizer;
+import de.krieger.management.graph.ReferenceGraphIndex;
 import de.krieger.management.exception.AuthorNotFoundException;
 import de.krieger.management.repository.AuthorRepository;
+import de.krieger.management.repository.DocumentAuthorRow;
+import de.krieger.management.repository.DocumentReferenceRow;
 import de.krieger.management.repository.DocumentRepository;
+import de.krieger.management.repository.DocumentRow;
 import de.krieger.management.entity.AuthorEntity;
 import de.krieger.management.entity.DocumentEntity;
 import de.krieger.management.exception.DocumentNotFoundException;
 import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
 import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentExpansion;
+import de.krieger.management.model.DocumentFilter;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
+import de.krieger.management.model.SearchPage;
+import de.krieger.management.search.DocumentSearchIndex;
+import jakarta.persistence.EntityManager;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.proxy.HibernateProxy;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 /**
  * Implementation of the DocumentService interface, providing CRUD operations for documents.
  */
 @Service
+@Timed(value = "service.time", description = "Time spent in the service methods, tagged with class and method")
 public class DocumentServiceImpl implements DocumentService {
 
     DocumentRepository documentRepository;
     AuthorRepository authorRepository;
+    CacheSynchronizer cacheSynchronizer;
+    CacheManager cacheManager;
+    EntityManager entityManager;
+    DocumentSearchIndex searchIndex;
+    ReferenceGraphIndex graphIndex;
+
+    private static final int STREAM_PAGE_SIZE = 500;
+    // maximum number of IDs in an IN condition
+    private static final int IN_CHUNK_SIZE = 1000;
+    // maximum number of documents embedded by expand, further references are embedded by id
+    static final int MAX_EXPANDED_DOCUMENTS = 1000;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:" + Batches.DEFAULT_CHUNK_SIZE + "}")
+    int chunkSize = Batches.DEFAULT_CHUNK_SIZE;
 
     /**
      * Constructs a new DocumentServiceImpl with necessary repositories.
      *
      * @param documentRepository the repository for document data access
      * @param authorRepository   the repository for author data access
+     * @param cacheSynchronizer  keeps the caches in line with the written documents
+     * @param cacheManager       the cache manager, used to look up cached authors
+     * @param entityManager      the entity manager, used to detach streamed entities
+     * @param searchIndex        the full-text index, updated with the written documents
+     * @param graphIndex         the reference graph, updated with the written documents
      */
     @Autowired
-    DocumentServiceImpl(DocumentRepository documentRepository, AuthorRepository authorRepository) {
+    DocumentServiceImpl(DocumentRepository documentRepository, AuthorRepository authorRepository,
+                        CacheSynchronizer cacheSynchronizer, CacheManager cacheManager, EntityManager entityManager,
+                        DocumentSearchIndex searchIndex, ReferenceGraphIndex graphIndex) {
         this.documentRepository = documentRepository;
         this.authorRepository = authorRepository;
+        this.cacheSynchronizer = cacheSynchronizer;
+        this.cacheManager = cacheManager;
+        this.entityManager = entityManager;
+        this.searchIndex = searchIndex;
+        this.graphIndex = graphIndex;
     }
 
     /**
@@ -50,19 +104,23 @@ public class DocumentServiceImpl implements DocumentService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "documents", allEntries = true)
     public Document create(Document document) {
         document.setId(0);
         if (document.getAuthors() == null || document.getAuthors().isEmpty() )
         {
             throw new AuthorNotFoundException("No author is attached to the document. Please add at least one author to create the document.");
         }
-        return getDocument(documentRepository.save(getDocumentEntity(document)));
+        Document createdDocument = getDocument(saveAndFlush(getDocumentEntity(document)));
+        cacheSynchronizer.documentSaved(createdDocument);
+        searchIndex.documentsSaved(List.of(createdDocument));
+        graphIndex.documentsSaved(List.of(createdDocument));
+        return createdDocument;
     }
 
     /**
      * Updates an existing document in the repository. If the document does not exist,
      * a DocumentNotFoundException is thrown.
+     * The cached document is refreshed and cached documents referencing it are evicted.
      *
      * @param document the document object to be updated
      * @return the updated document
@@ -70,10 +128,33 @@ public class DocumentServiceImpl implements DocumentService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "documents", allEntries = true)
     public Document update(Document document) {
-        checkIfDocumentExistElseThrowException(document.getId());
-        return getDocument(documentRepository.save(getDocumentEntity(document)));
+        return update(document, null);
+    }
+
+    /**
+     * Updates an existing document if it still has the expected version. The current version is read
+     * instead of checking the existence and is set on the merged entity, so Hibernate also rejects an update
+     * committed in between. The entity is flushed before it is mapped, so the returned and cached document
+     * has the incremented version.
+     *
+     * @param document         the document object to be updated
+     * @param expectedVersions the versions the client accepts, e.g. the one it has read, null to update any version
+     * @return the updated document
+     * @throws DocumentNotFoundException        if the document does not exist
+     * @throws OptimisticLockingFailureException if the document has another version
+     */
+    @Override
+    @Transactional
+    public Document update(Document document, Set<Long> expectedVersions) {
+        long version = checkVersion(document.getId(), expectedVersions);
+        DocumentEntity documentEntity = getDocumentEntity(document);
+        documentEntity.setVersion(version);
+        Document updatedDocument = getDocument(saveAndFlush(documentEntity));
+        cacheSynchronizer.documentSaved(updatedDocument);
+        searchIndex.documentsSaved(List.of(updatedDocument));
+        graphIndex.documentsSaved(List.of(updatedDocument));
+        return updatedDocument;
     }
 
     /**
@@ -85,48 +166,529 @@ public class DocumentServiceImpl implements DocumentService {
      */
     @Override
     @Transactional
-    @CacheEvict(value = "documents", allEntries = true)
     public void delete(int id) {
         checkIfDocumentExistElseThrowException(id);
         documentRepository.deleteByReferenceId(id);
         documentRepository.deleteById(id);
+        cacheSynchronizer.documentDeleted(id);
+        searchIndex.documentsDeleted(List.of(id));
+        graphIndex.documentsDeleted(List.of(id));
     }
 
     /**
      * Finds a document by its ID. If the document does not exist,
      * a DocumentNotFoundException is thrown.
+     * <p>
+     * The document is loaded inside the atomic compute of the cache (sync), so a write which commits
+     * during the load puts or evicts its entry after the loaded document, instead of being overwritten by it.
      *
      * @param id the ID of the document to find
      * @return the found document, or null if no document is found
      * @throws DocumentNotFoundException if the document does not exist
      */
     @Override
-    @Cacheable(value = "documents", key = "#id")
+    @Cacheable(value = CacheNames.DOCUMENTS, key = "#id", sync = true)
     public Document findById(int id) {
         checkIfDocumentExistElseThrowException(id);
-        return getDocument(documentRepository.findById(id).orElse(null));
+        Document document = getDocument(documentRepository.findById(id).orElse(null));
+        cacheSynchronizer.documentLoaded(document);
+        return document;
+    }
+
+    /**
+     * Embeds the references of a document breadth-first, level by level. The reference rows of a level
+     * are read with one query per {@value #IN_CHUNK_SIZE} documents, the authors of all embedded documents
+     * with one more query, so the number of queries only depends on the depth.
+     * <p>
+     * Every document is embedded once, where it is reached first. Documents which are already embedded,
+     * e.g. because of a cycle back to the document, and references beyond {@value #MAX_EXPANDED_DOCUMENTS}
+     * embedded documents only have their id. Documents on the last level have no references. Authors without
+     * references are added to the references of the document, like references with depth 1.
+     *
+     * @param document  the document, e.g. from the cache, it is not modified
+     * @param expansion the depth of the references and whether the embedded documents contain their authors
+     * @return a copy of the document with the expanded references, or the document itself if nothing is expanded
+     */
+    @Override
+    public Document expand(Document document, DocumentExpansion expansion) {
+        if (document.getReferences() == null || expansion.referenceDepth() == 0 && !expansion.authors()) {
+            return document;
+        }
+        // authors without references are added to the references of the document
+        int referenceDepth = Math.max(expansion.referenceDepth(), 1);
+        Map<Integer, String> titles = new HashMap<>();
+        Map<Integer, Long> versions = new HashMap<>();
+        // the reference IDs of the documents whose references are embedded
+        Map<Integer, List<Integer>> referenceIds = new HashMap<>();
+        // embedded document -> the document which embeds it
+        Map<Integer, Integer> embeddedBy = new HashMap<>();
+        List<Integer> rootReferenceIds = new ArrayList<>();
+        for (Document reference : document.getReferences()) {
+            rootReferenceIds.add(reference.getId());
+            titles.put(reference.getId(), reference.getTitle());
+            versions.put(reference.getId(), reference.getVersion());
+        }
+        referenceIds.put(document.getId(), rootReferenceIds);
+
+        List<Integer> level = List.of(document.getId());
+        for (int depth = 1; depth <= referenceDepth; depth++) {
+            List<Integer> nextLevel = new ArrayList<>();
+            for (Integer parentId : level) {
+                for (Integer referenceId : referenceIds.get(parentId)) {
+                    if (referenceId != document.getId() && !embeddedBy.containsKey(referenceId)
+                            && embeddedBy.size() < MAX_EXPANDED_DOCUMENTS) {
+                        embeddedBy.put(referenceId, parentId);
+                        nextLevel.add(referenceId);
+                    }
+                }
+            }
+            if (depth == referenceDepth || nextLevel.isEmpty()) {
+                break;
+            }
+            nextLevel.forEach(id -> referenceIds.put(id, new ArrayList<>()));
+            for (List<Integer> chunk : Batches.chunks(nextLevel, IN_CHUNK_SIZE)) {
+                for (DocumentReferenceRow row : documentRepository.findReferenceRows(chunk)) {
+                    referenceIds.get(row.documentId()).add(row.referenceId());
+                    titles.putIfAbsent(row.referenceId(), row.title());
+                    versions.putIfAbsent(row.referenceId(), row.version());
+                }
+            }
+            level = nextLevel;
+        }
+
+        Map<Integer, Set<Author>> authors = null;
+        if (expansion.authors()) {
+            authors = new HashMap<>();
+            Map<Integer, Author> authorsById = new HashMap<>();
+            for (List<Integer> chunk : Batches.chunks(new ArrayList<>(embeddedBy.keySet()), IN_CHUNK_SIZE)) {
+                for (DocumentAuthorRow row : documentRepository.findAuthorRows(chunk)) {
+                    authors.computeIfAbsent(row.documentId(), id -> new HashSet<>()).add(authorsById.computeIfAbsent(row.authorId(),
+                            id -> new Author(id, row.firstName(), row.lastName(), row.version())));
+                }
+            }
+        }
+        Document expanded = new Document(document.getId(), document.getTitle(), null, document.getAuthors(),
+                embedReferences(document.getId(), referenceIds, embeddedBy, titles, versions, authors)).withVersionOf(document);
+        expanded.setCompressedBody(document.getCompressedBody());
+        return expanded;
+    }
+
+    /**
+     * Builds the embedded references of a document bottom-up, so no document is modified after it has been added to a set.
+     */
+    private static Set<Document> embedReferences(int documentId, Map<Integer, List<Integer>> referenceIds, Map<Integer, Integer> embeddedBy,
+                                                 Map<Integer, String> titles, Map<Integer, Long> versions,
+                                                 Map<Integer, Set<Author>> authors) {
+        List<Integer> ids = referenceIds.get(documentId);
+        if (ids == null) {
+            return null;
+        }
+        Set<Document> references = new HashSet<>();
+        for (Integer id : ids) {
+            if (Integer.valueOf(documentId).equals(embeddedBy.get(id))) {
+                Document reference = new Document(id, titles.get(id), null,
+                        authors == null ? null : authors.getOrDefault(id, new HashSet<>()),
+                        embedReferences(id, referenceIds, embeddedBy, titles, versions, authors));
+                reference.setVersion(versions.get(id));
+                references.add(reference);
+            } else {
+                references.add(new Document(id, null, null, null, null));
+            }
+        }
+        return references;
+    }
+
+    /**
+     * Retrieves all documents from the repository. The documents are read with three projection
+     * queries (documents, author rows, reference rows) instead of loading managed entities.
+     * The summary view does not read the bodies. Each view is cached separately.
+     *
+     * @param view FULL, or SUMMARY to omit the bodies
+     * @return a list of all documents, ordered by ID
+     */
+    @Override
+    @Cacheable(value = CacheNames.DOCUMENTS_ALL, key = "#view")
+    public List<Document> getAll(DocumentView view) {
+        return toDocuments(view == DocumentView.SUMMARY ? documentRepository.findAllSummaryRows() : documentRepository.findAllRows(),
+                documentRepository.findAllAuthorRows(),
+                documentRepository.findAllReferenceRows());
+    }
+
+    /**
+     * Retrieves the documents matching a filter. Like {@link #getAll(DocumentView)}, the documents
+     * are read with projection queries: the filtered documents, then their author and reference rows
+     * by ID, one query per {@value #IN_CHUNK_SIZE} documents. Filtered lists are not cached.
+     *
+     * @param filter the conditions and the order
+     * @param view   FULL, or SUMMARY to omit the bodies
+     * @return the matching documents
+     * @throws IllegalArgumentException if the filter sorts by another property than id or title
+     */
+    @Override
+    public List<Document> find(DocumentFilter filter, DocumentView view) {
+        filter.validateSort();
+        List<DocumentRow> documentRows = documentRepository.findRows(filter, view == DocumentView.FULL);
+        List<DocumentAuthorRow> authorRows = new ArrayList<>();
+        List<DocumentReferenceRow> referenceRows = new ArrayList<>();
+        for (List<Integer> chunk : Batches.chunks(documentRows.stream().map(DocumentRow::id).toList(), IN_CHUNK_SIZE)) {
+            authorRows.addAll(documentRepository.findAuthorRows(chunk));
+            referenceRows.addAll(documentRepository.findReferenceRows(chunk));
+        }
+        return toDocuments(documentRows, authorRows, referenceRows);
     }
 
     /**
-     * Retrieves all documents from the repository.
+     * Retrieves a page of documents with an ID greater than the cursor, ordered by ID.
+     * Like {@link #getAll(DocumentView)}, the page is read with three projection queries.
      *
-     * @return a list of all documents
+     * @param afterId the last ID of the previous page
+     * @param limit   the maximum number of documents in the page
+     * @param view    FULL, or SUMMARY to omit the bodies
+     * @return the page and the cursor for the next page
      */
     @Override
-    @Cacheable("documents")
-    public List<Document> getAll() {
-        return documentRepository.
-                findAllDocumentWithAuthorsAndReferences().stream()
-                .map(this::getDocument)
-                .collect(Collectors.toList());
+    public CursorPage<Document> getPage(int afterId, int limit, DocumentView view) {
+        List<DocumentRow> documentRows = view == DocumentView.SUMMARY
+                ? documentRepository.findSummaryRowsAfter(afterId, Limit.of(limit))
+                : documentRepository.findRowsAfter(afterId, Limit.of(limit));
+        if (documentRows.isEmpty()) {
+            return new CursorPage<>(new ArrayList<>(), null);
+        }
+        List<Integer> documentIds = documentRows.stream().map(DocumentRow::id).toList();
+        List<Document> documents = toDocuments(documentRows,
+                documentRepository.findAuthorRows(documentIds),
+                documentRepository.findReferenceRows(documentIds));
+        Integer nextCursor = documents.size() < limit ? null : documents.get(documents.size() - 1).getId();
+        return new CursorPage<>(documents, nextCursor);
     }
 
-    private Document getDocument(DocumentEntity documentEntity) {
+    /**
+     * Streams all documents to the consumer. The documents are read page by page with
+     * {@link #getPage(int, int, DocumentView)}, so neither the table nor a persistence context
+     * is held in memory and the bodies are read with the page instead of one by one.
+     *
+     * @param view     FULL, or SUMMARY to omit the bodies
+     * @param consumer the consumer of the documents
+     */
+    @Override
+    public void streamAll(DocumentView view, Consumer<Document> consumer) {
+        Integer afterId = 0;
+        while (afterId != null) {
+            CursorPage<Document> page = getPage(afterId, STREAM_PAGE_SIZE, view);
+            page.getItems().forEach(consumer);
+            afterId = page.getNextCursor();
+        }
+    }
+
+    /**
+     * Searches the titles and bodies of the documents in the full-text index, ranked with BM25.
+     * The index is updated after every committed write, so no database query is needed.
+     *
+     * @param query  the query in Lucene query syntax, e.g. words, "a phrase" or a prefix*
+     * @param offset the number of hits to skip
+     * @param limit  the maximum number of hits
+     * @return the page of hits, ordered by relevance
+     */
+    @Override
+    public SearchPage search(String query, int offset, int limit) {
+        return searchIndex.search(query, offset, limit);
+    }
+
+    /**
+     * Traverses the references in the in-memory reference graph, which is updated after every committed write.
+     * Only the titles of the reached documents are read from the database, one query per
+     * {@value #IN_CHUNK_SIZE} documents.
+     *
+     * @param id        the ID of the start document
+     * @param direction REFERENCES, REFERENCED_BY or BOTH
+     * @param depth     the maximum number of references between the start document and a reached document
+     * @param fanOut    the maximum number of documents reached from one document
+     * @param limit     the maximum number of documents in the result
+     * @return the reached documents in breadth-first order
+     * @throws DocumentNotFoundException if the start document does not exist
+     */
+    @Override
+    public ReferenceGraph getReferenceGraph(int id, ReferenceDirection direction, int depth, int fanOut, int limit) {
+        ReferenceGraph graph = graphIndex.traverse(id, direction, depth, fanOut, limit);
+        if (graph == null) {
+            throw new DocumentNotFoundException("document id not found - Id: " + id);
+        }
+        addTitles(graph.getNodes());
+        return graph;
+    }
+
+    /**
+     * Finds a shortest path with a bidirectional breadth-first search in the in-memory reference graph.
+     * Like {@link #getReferenceGraph}, only the titles are read from the database.
+     *
+     * @param fromId    the ID of the start document
+     * @param toId      the ID of the end document
+     * @param direction REFERENCES, REFERENCED_BY or BOTH
+     * @param maxLength the maximum number of references on the path
+     * @return the documents on the path from start to end, empty if there is no such path
+     * @throws DocumentNotFoundException if one of the documents does not exist
+     */
+    @Override
+    public List<ReferenceGraphNode> findReferencePath(int fromId, int toId, ReferenceDirection direction, int maxLength) {
+        for (int id : new int[]{fromId, toId}) {
+            if (!graphIndex.contains(id)) {
+                throw new DocumentNotFoundException("document id not found - Id: " + id);
+            }
+        }
+        List<ReferenceGraphNode> path = graphIndex.shortestPath(fromId, toId, direction, maxLength);
+        addTitles(path);
+        return path;
+    }
+
+    /**
+     * Creates a batch of documents. All documents are validated up front: the authors and
+     * references of the whole batch are checked with one query per table, invalid documents are
+     * reported as FAILED. The valid documents are inserted in chunks, every chunk is flushed as
+     * one JDBC batch and the persistence context is cleared. The caches are refreshed once.
+     *
+     * @param documents the documents to be created
+     * @return one CREATED or FAILED result per document
+     */
+    @Override
+    @Transactional
+    public List<BatchItemResult> createAll(List<Document> documents) {
+        documents.forEach(document -> document.setId(0));
+        BatchItemResult[] results = validate(documents, false);
+        List<Document> createdDocuments = new ArrayList<>();
+        for (List<Integer> chunk : Batches.chunks(validIndexes(results), chunkSize)) {
+            Dependencies dependencies = loadDependencies(chunk.stream().map(documents::get).toList());
+            List<DocumentEntity> documentEntities = new ArrayList<>();
+            for (Integer index : chunk) {
+                DocumentEntity documentEntity = new DocumentEntity();
+                dependencies.apply(documents.get(index), documentEntity);
+                documentEntities.add(documentEntity);
+            }
+            documentRepository.saveAll(documentEntities);
+            entityManager.flush();
+            for (int position = 0; position < chunk.size(); position++) {
+                DocumentEntity documentEntity = documentEntities.get(position);
+                results[chunk.get(position)] = BatchItemResult.success(chunk.get(position), documentEntity.getId(), BatchItemResult.Status.CREATED);
+                createdDocuments.add(getDocument(documentEntity));
+            }
+            entityManager.clear();
+        }
+        cacheSynchronizer.documentsSaved(createdDocuments);
+        searchIndex.documentsSaved(createdDocuments);
+        graphIndex.documentsSaved(createdDocuments);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Updates a batch of documents. Validation works like {@link #createAll(List)}, documents
+     * which do not exist are reported as FAILED. The valid documents are loaded and updated chunk by chunk.
+     *
+     * @param documents the documents to be updated
+     * @return one UPDATED or FAILED result per document
+     */
+    @Override
+    @Transactional
+    public List<BatchItemResult> updateAll(List<Document> documents) {
+        BatchItemResult[] results = validate(documents, true);
+        List<Document> updatedDocuments = new ArrayList<>();
+        for (List<Integer> chunk : Batches.chunks(validIndexes(results), chunkSize)) {
+            List<Document> chunkDocuments = chunk.stream().map(documents::get).toList();
+            Dependencies dependencies = loadDependencies(chunkDocuments);
+            Map<Integer, DocumentEntity> documentEntities = documentRepository
+                    .findAllById(idsOf(chunkDocuments, Document::getId))
+                    .stream()
+                    .collect(Collectors.toMap(DocumentEntity::getId, Function.identity()));
+            for (Integer index : chunk) {
+                Document document = documents.get(index);
+                dependencies.apply(document, documentEntities.get(document.getId()));
+                results[index] = BatchItemResult.success(index, document.getId(), BatchItemResult.Status.UPDATED);
+            }
+            entityManager.flush();
+            documentEntities.values().forEach(documentEntity -> updatedDocuments.add(getDocument(documentEntity)));
+            entityManager.clear();
+        }
+        cacheSynchronizer.documentsSaved(updatedDocuments);
+        searchIndex.documentsSaved(updatedDocuments);
+        graphIndex.documentsSaved(updatedDocuments);
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Deletes a batch of documents. The join rows and the documents are deleted with one
+     * statement per table and chunk. IDs which do not exist are reported as FAILED.
+     *
+     * @param ids the IDs of the documents to be deleted
+     * @return one DELETED or FAILED result per ID
+     */
+    @Override
+    @Transactional
+    public List<BatchItemResult> deleteAll(List<Integer> ids) {
+        Set<Integer> existingIds = findExistingIds(ids, documentRepository::findExistingIds);
+        for (List<Integer> chunk : Batches.chunks(new ArrayList<>(existingIds), chunkSize)) {
+            documentRepository.deleteReferencesOfDocuments(chunk);
+            documentRepository.deleteAuthorsOfDocuments(chunk);
+            documentRepository.deleteAllByIdInBatch(chunk);
+        }
+        cacheSynchronizer.documentsDeleted(existingIds);
+        searchIndex.documentsDeleted(existingIds);
+        graphIndex.documentsDeleted(existingIds);
+        List<BatchItemResult> results = new ArrayList<>();
+        for (Integer id : ids) {
+            results.add(existingIds.contains(id)
+                    ? BatchItemResult.success(results.size(), id, BatchItemResult.Status.DELETED)
+                    : BatchItemResult.failed(results.size(), id, "document id not found - Id: " + id));
+        }
+        return results;
+    }
+
+    /**
+     * Validates a batch of documents with one existence query per table for the whole batch.
+     *
+     * @param documents        the documents to validate
+     * @param requireExisting  whether the documents themselves have to exist (update)
+     * @return the results, FAILED for invalid documents and null for valid ones
+     */
+    private BatchItemResult[] validate(List<Document> documents, boolean requireExisting) {
+        Set<Integer> authorIds = new HashSet<>();
+        Set<Integer> documentIds = new HashSet<>();
+        for (Document document : documents) {
+            if (document.getAuthors() != null) {
+                authorIds.addAll(idsOf(document.getAuthors(), Author::getId));
+            }
+            if (document.getReferences() != null) {
+                documentIds.addAll(idsOf(document.getReferences(), Document::getId));
+            }
+            if (requireExisting) {
+                documentIds.add(document.getId());
+            }
+        }
+        Set<Integer> existingAuthorIds = findExistingIds(authorIds, authorRepository::findExistingIds);
+        Set<Integer> existingDocumentIds = findExistingIds(documentIds, documentRepository::findExistingIds);
+
+        BatchItemResult[] results = new BatchItemResult[documents.size()];
+        for (int index = 0; index < documents.size(); index++) {
+            Document document = documents.get(index);
+            String failure = null;
+            if (requireExisting && !existingDocumentIds.contains(document.getId())) {
+                failure = "document id not found - Id: " + document.getId();
+            } else if (!requireExisting && (document.getAuthors() == null || document.getAuthors().isEmpty())) {
+                failure = "No author is attached to the document. Please add at least one author to create the document.";
+            } else if (document.getAuthors() != null && !existingAuthorIds.containsAll(idsOf(document.getAuthors(), Author::getId))) {
+                failure = "Author id not found - Ids: " + missingIds(idsOf(document.getAuthors(), Author::getId), existingAuthorIds, Integer::intValue);
+            } else if (document.getReferences() != null && !existingDocumentIds.containsAll(idsOf(document.getReferences(), Document::getId))) {
+                failure = "Document id not found - Ids: " + missingIds(idsOf(document.getReferences(), Document::getId), existingDocumentIds, Integer::intValue);
+            }
+            if (failure != null) {
+                results[index] = BatchItemResult.failed(index, document.getId(), failure);
+            }
+        }
+        return results;
+    }
+
+    private void addTitles(List<ReferenceGraphNode> nodes) {
+        Map<Integer, String> titles = new HashMap<>();
+        for (List<Integer> chunk : Batches.chunks(nodes.stream().map(ReferenceGraphNode::getId).toList(), IN_CHUNK_SIZE)) {
+            documentRepository.findSummaryRows(chunk).forEach(row -> titles.put(row.id(), row.title()));
+        }
+        nodes.forEach(node -> node.setTitle(titles.get(node.getId())));
+    }
+
+    private static List<Integer> validIndexes(BatchItemResult[] results) {
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int index = 0; index < results.length; index++) {
+            if (results[index] == null) {
+                validIndexes.add(index);
+            }
+        }
+        return validIndexes;
+    }
+
+    private Set<Integer> findExistingIds(Collection<Integer> ids, Function<Collection<Integer>, Set<Integer>> query) {
+        Set<Integer> existingIds = new HashSet<>();
+        for (List<Integer> chunk : Batches.chunks(new ArrayList<>(new HashSet<>(ids)), chunkSize)) {
+            existingIds.addAll(query.apply(chunk));
+        }
+        return existingIds;
+    }
+
+    /**
+     * Loads the authors and references of a chunk of validated documents with one query each.
+     */
+    private Dependencies loadDependencies(List<Document> documents) {
+        Set<Integer> authorIds = new HashSet<>();
+        Set<Integer> referenceIds = new HashSet<>();
+        for (Document document : documents) {
+            if (document.getAuthors() != null) {
+                authorIds.addAll(idsOf(document.getAuthors(), Author::getId));
+            }
+            if (document.getReferences() != null) {
+                referenceIds.addAll(idsOf(document.getReferences(), Document::getId));
+            }
+        }
+        return new Dependencies(
+                authorRepository.findAllById(authorIds).stream()
+                        .collect(Collectors.toMap(AuthorEntity::getId, Function.identity())),
+                documentRepository.findAllById(referenceIds).stream()
+                        .collect(Collectors.toMap(DocumentEntity::getId, Function.identity())));
+    }
+
+    private record Dependencies(Map<Integer, AuthorEntity> authors, Map<Integer, DocumentEntity> references) {
+
+        void apply(Document document, DocumentEntity documentEntity) {
+            documentEntity.setTitle(document.getTitle());
+            documentEntity.setBody(document.getCompressedBody());
+            documentEntity.setAuthors(lookup(document.getAuthors(), Author::getId, authors));
+            documentEntity.setReferences(lookup(document.getReferences(), Document::getId, references));
+        }
+
+        private static <T, E> Set<E> lookup(Collection<T> elements, ToIntFunction<T> id, Map<Integer, E> entities) {
+            Set<E> found = new HashSet<>();
+            if (elements != null) {
+                elements.forEach(element -> found.add(entities.get(id.applyAsInt(element))));
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Assembles document models from projection rows. Authors are shared between documents,
+     * referenced documents are embedded with their title only, like {@link #getLazyDocument}.
+     */
+    private static List<Document> toDocuments(List<DocumentRow> documentRows, List<DocumentAuthorRow> authorRows,
+                                              List<DocumentReferenceRow> referenceRows) {
+        Map<Integer, Document> documents = new LinkedHashMap<>();
+        for (DocumentRow row : documentRows) {
+            Document document = new Document(row.id(), row.title(), null, new HashSet<>(), new HashSet<>());
+            document.setCompressedBody(row.body());
+            document.setVersion(row.version());
+            documents.put(row.id(), document);
+        }
+        Map<Integer, Author> authors = new HashMap<>();
+        for (DocumentAuthorRow row : authorRows) {
+            Document document = documents.get(row.documentId());
+            if (document != null) {
+                document.getAuthors().add(authors.computeIfAbsent(row.authorId(),
+                        id -> new Author(id, row.firstName(), row.lastName(), row.version())));
+            }
+        }
+        for (DocumentReferenceRow row : referenceRows) {
+            Document document = documents.get(row.documentId());
+            if (document != null) {
+                Document reference = new Document(row.referenceId(), row.title(), null, new HashSet<>(), new HashSet<>());
+                reference.setVersion(row.version());
+                document.getReferences().add(reference);
+            }
+        }
+        return new ArrayList<>(documents.values());
+    }
+
+    // package-private for the benchmarks of the mapping
+    Document getDocument(DocumentEntity documentEntity) {
         if (documentEntity != null) {
             Document document = new Document();
             document.setId(documentEntity.getId());
             document.setTitle(documentEntity.getTitle());
-            document.setBody(documentEntity.getBody());
+            document.setCompressedBody(documentEntity.getBody());
+            document.setVersion(documentEntity.getVersion());
 
             populateAuthors(documentEntity, document);
             populateReferences(documentEntity, document);
@@ -154,12 +716,15 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
+    /**
+     * Maps a referenced document. References are embedded without body, so their lazy body is never loaded.
+     */
     private Document getLazyDocument(DocumentEntity documentEntity) {
         if (documentEntity != null) {
             Document document = new Document();
             document.setId(documentEntity.getId());
             document.setTitle(documentEntity.getTitle());
-            document.setBody(documentEntity.getBody());
+            document.setVersion(documentEntity.getVersion());
             document.setAuthors(new HashSet<>());
             document.setReferences(new HashSet<>());
             return document;
@@ -168,21 +733,29 @@ public class DocumentServiceImpl implements DocumentService {
     }
 
     private Author getAuthor(AuthorEntity authorEntity) {
+        if (authorEntity instanceof HibernateProxy proxy && !Hibernate.isInitialized(proxy)) {
+            // attached from the author cache by resolveAuthors, avoid loading it
+            Author cachedAuthor = getCachedAuthor((Integer) proxy.getHibernateLazyInitializer().getIdentifier());
+            if (cachedAuthor != null) {
+                return cachedAuthor;
+            }
+        }
         if (authorEntity != null) {
             Author author = new Author();
             author.setId(authorEntity.getId());
             author.setFirstName(authorEntity.getFirstName());
             author.setLastName(authorEntity.getLastName());
+            author.setVersion(authorEntity.getVersion());
             return author;
         }
         return null;
     }
 
-    private DocumentEntity getDocumentEntity(Document document) {
+    DocumentEntity getDocumentEntity(Document document) {
         DocumentEntity documentEntity = new DocumentEntity();
         documentEntity.setId(document.getId());
         documentEntity.setTitle(document.getTitle());
-        documentEntity.setBody(document.getBody());
+        documentEntity.setBody(document.getCompressedBody());
 
         populateAuthors(document, documentEntity);
         populateReferences(document, documentEntity);
@@ -192,25 +765,114 @@ public class DocumentServiceImpl implements DocumentService {
 
     private void populateReferences(Document document, DocumentEntity documentEntity) {
         if (document.getReferences() != null) {
-            Set<DocumentEntity> referenceDocumentEntities = new HashSet<>();
-            for (Document referenceDocument : document.getReferences()) {
-                DocumentEntity referenceDocumentEntity = documentRepository.findById(referenceDocument.getId())
-                        .orElseThrow(() -> new AuthorNotFoundException("Document id not found - Id: " + referenceDocument.getId()));
-                referenceDocumentEntities.add(referenceDocumentEntity);
-            }
-            documentEntity.setReferences(referenceDocumentEntities);
+            documentEntity.setReferences(resolveReferences(idsOf(document.getReferences(), Document::getId)));
         }
     }
+
     private void populateAuthors(Document document, DocumentEntity documentEntity) {
         if (document.getAuthors() != null) {
-            Set<AuthorEntity> authorEntities = new HashSet<>();
-            for (Author author : document.getAuthors()) {
-                AuthorEntity authorEntity = authorRepository.findById(author.getId())
-                        .orElseThrow(() -> new AuthorNotFoundException("Author id not found - Id: " + author.getId()));
-                authorEntities.add(authorEntity);
+            documentEntity.setAuthors(resolveAuthors(idsOf(document.getAuthors(), Author::getId)));
+        }
+    }
+
+    /**
+     * Resolves the referenced documents with a single query.
+     *
+     * @param ids the IDs of the referenced documents
+     * @return the document entities
+     * @throws DocumentNotFoundException naming all IDs which do not exist
+     */
+    private Set<DocumentEntity> resolveReferences(Set<Integer> ids) {
+        if (ids.isEmpty()) {
+            return new HashSet<>();
+        }
+        List<DocumentEntity> documentEntities = documentRepository.findAllById(ids);
+        Set<Integer> missingIds = missingIds(ids, documentEntities, DocumentEntity::getId);
+        if (!missingIds.isEmpty()) {
+            throw new DocumentNotFoundException("Document id not found - Ids: " + missingIds);
+        }
+        return new HashSet<>(documentEntities);
+    }
+
+    /**
+     * Resolves the authors of a document. Authors found in the author cache are known to exist
+     * and are attached as references without a query. The other authors are loaded with a single query.
+     * <p>
+     * The author cache is evicted after the commit of a delete, so a concurrently deleted author may still
+     * be attached from the cache. The insert into document_author then violates its foreign key, which
+     * {@link #saveAndFlush(DocumentEntity)} reports as AuthorNotFoundException.
+     *
+     * @param ids the IDs of the authors
+     * @return the author entities
+     * @throws AuthorNotFoundException naming all IDs which do not exist
+     */
+    private Set<AuthorEntity> resolveAuthors(Set<Integer> ids) {
+        Set<AuthorEntity> authorEntities = new HashSet<>();
+        Set<Integer> uncachedIds = new TreeSet<>();
+        for (Integer id : ids) {
+            if (getCachedAuthor(id) != null) {
+                authorEntities.add(authorRepository.getReferenceById(id));
+            } else {
+                uncachedIds.add(id);
+            }
+        }
+        if (!uncachedIds.isEmpty()) {
+            List<AuthorEntity> loadedAuthorEntities = authorRepository.findAllById(uncachedIds);
+            Set<Integer> missingIds = missingIds(uncachedIds, loadedAuthorEntities, AuthorEntity::getId);
+            if (!missingIds.isEmpty()) {
+                throw new AuthorNotFoundException("Author id not found - Ids: " + missingIds);
             }
-            documentEntity.setAuthors(authorEntities);
+            authorEntities.addAll(loadedAuthorEntities);
+        }
+        return authorEntities;
+    }
+
+    /**
+     * Saves and flushes a single document, so a deleted author attached from the author cache is reported here
+     * and not at the commit.
+     *
+     * @param documentEntity the document entity to be saved
+     * @return the saved document entity
+     * @throws AuthorNotFoundException if an author of the document has been deleted concurrently
+     */
+    private DocumentEntity saveAndFlush(DocumentEntity documentEntity) {
+        try {
+            return documentRepository.saveAndFlush(documentEntity);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getCause() instanceof ConstraintViolationException violation
+                    && DocumentEntity.AUTHOR_FOREIGN_KEY.equalsIgnoreCase(violation.getConstraintName())) {
+                throw new AuthorNotFoundException("Author was deleted - one of the Ids: "
+                        + idsOf(documentEntity.getAuthors(), AuthorEntity::getId));
+            }
+            throw e;
+        }
+    }
+
+    private Author getCachedAuthor(int id) {
+        Cache authorCache = cacheManager.getCache(CacheNames.AUTHORS);
+        return authorCache != null ? authorCache.get(id, Author.class) : null;
+    }
+
+    private static <T> Set<Integer> idsOf(Collection<T> elements, ToIntFunction<T> id) {
+        return elements.stream()
+                .mapToInt(id)
+                .boxed()
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    private static <T> Set<Integer> missingIds(Set<Integer> ids, Collection<T> found, ToIntFunction<T> id) {
+        Set<Integer> missingIds = new TreeSet<>(ids);
+        found.forEach(element -> missingIds.remove(id.applyAsInt(element)));
+        return missingIds;
+    }
+
+    private long checkVersion(int id, Set<Long> expectedVersions) {
+        long version = documentRepository.findVersionById(id)
+                .orElseThrow(() -> new DocumentNotFoundException("document id not found - Id: " + id));
+        if (expectedVersions != null && !expectedVersions.contains(version)) {
+            throw new OptimisticLockingFailureException("Document was modified - Id: " + id + ", version: " + version);
         }
+        return version;
     }
 
     private void checkIfDocumentExistElseThrowException(int id) {
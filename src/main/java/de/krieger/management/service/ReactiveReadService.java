@@ -0,0 +1,46 @@
+package de.krieger.management.service;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Read-only, non-blocking access to documents and authors, for the reactive read API.
+ * Results in the caches are emitted on the subscribing thread, everything else is loaded
+ * through the blocking services on a bounded elastic scheduler.
+ */
+public interface ReactiveReadService {
+
+    /**
+     * Finds a document by its ID.
+     *
+     * @param id the ID of the document
+     * @return the document, or an error with DocumentNotFoundException if it does not exist
+     */
+    Mono<Document> findDocument(int id);
+
+    /**
+     * Emits all documents ordered by ID, as requested by the subscriber.
+     *
+     * @param view FULL, or SUMMARY to omit the bodies
+     * @return the documents
+     */
+    Flux<Document> findAllDocuments(DocumentView view);
+
+    /**
+     * Finds an author by its ID.
+     *
+     * @param id the ID of the author
+     * @return the author, or an error with AuthorNotFoundException if it does not exist
+     */
+    Mono<Author> findAuthor(int id);
+
+    /**
+     * Emits all authors, as requested by the subscriber.
+     *
+     * @return the authors
+     */
+    Flux<Author> findAllAuthors();
+}
@@ -0,0 +1,114 @@
+package de.krieger.management.service;
+
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Implementation of {@link ReactiveReadService} on top of the caches and the blocking services.
+ * A cache hit is emitted without a thread switch. A miss calls the service on the bounded elastic
+ * scheduler, which caches the result like for the blocking API, so no request thread waits for JDBC.
+ * The open session in view does not reach that thread, so the service is called in a read-only transaction,
+ * which loads the lazy body of a document.
+ * The lists are emitted element by element on demand, so a slow subscriber holds no thread.
+ */
+@Service
+public class ReactiveReadServiceImpl implements ReactiveReadService {
+
+    private final DocumentService documentService;
+    private final AuthorService authorService;
+    private final CacheManager cacheManager;
+    private final Scheduler scheduler;
+    private final TransactionOperations transactions;
+
+    /**
+     * Constructs a new ReactiveReadServiceImpl.
+     *
+     * @param documentService    the service loading documents on a cache miss
+     * @param authorService      the service loading authors on a cache miss
+     * @param cacheManager       the cache manager of the services
+     * @param transactionManager the transaction manager for the read-only transactions of the services
+     */
+    @Autowired
+    public ReactiveReadServiceImpl(DocumentService documentService, AuthorService authorService, CacheManager cacheManager,
+                                   PlatformTransactionManager transactionManager) {
+        this(documentService, authorService, cacheManager, Schedulers.boundedElastic(), readOnly(transactionManager));
+    }
+
+    ReactiveReadServiceImpl(DocumentService documentService, AuthorService authorService, CacheManager cacheManager,
+                            Scheduler scheduler, TransactionOperations transactions) {
+        this.documentService = documentService;
+        this.authorService = authorService;
+        this.cacheManager = cacheManager;
+        this.scheduler = scheduler;
+        this.transactions = transactions;
+    }
+
+    @Override
+    public Mono<Document> findDocument(int id) {
+        return cachedOrLoad(CacheNames.DOCUMENTS, id, Document.class, () -> documentService.findById(id));
+    }
+
+    @Override
+    public Flux<Document> findAllDocuments(DocumentView view) {
+        return cachedListOrLoad(CacheNames.DOCUMENTS_ALL, view, Document.class, () -> documentService.getAll(view));
+    }
+
+    @Override
+    public Mono<Author> findAuthor(int id) {
+        return cachedOrLoad(CacheNames.AUTHORS, id, Author.class, () -> authorService.findById(id));
+    }
+
+    @Override
+    public Flux<Author> findAllAuthors() {
+        // key of the cached findAll result, which has no parameters
+        return cachedListOrLoad(CacheNames.AUTHORS_ALL, SimpleKey.EMPTY, Author.class, authorService::findAll);
+    }
+
+    private <T> Mono<T> cachedOrLoad(String cacheName, Object key, Class<T> type, Supplier<T> loader) {
+        return Mono.defer(() -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            T cached = cache == null ? null : cache.get(key, type);
+            return cached != null ? Mono.just(cached) : load(loader);
+        });
+    }
+
+    /**
+     * Like {@link #cachedOrLoad}, for the cached lists, which are emitted element by element.
+     */
+    private <T> Flux<T> cachedListOrLoad(String cacheName, Object key, Class<T> elementType, Supplier<List<T>> loader) {
+        return Mono.defer(() -> {
+                    Cache cache = cacheManager.getCache(cacheName);
+                    List<?> cached = cache == null ? null : cache.get(key, List.class);
+                    return cached != null ? Mono.<List<?>>just(cached) : this.<List<?>>load(loader::get);
+                })
+                .flatMapIterable(elements -> elements)
+                .cast(elementType);
+    }
+
+    private <T> Mono<T> load(Supplier<T> loader) {
+        return Mono.fromCallable(() -> transactions.execute(status -> loader.get())).subscribeOn(scheduler);
+    }
+
+    private static TransactionOperations readOnly(PlatformTransactionManager transactionManager) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+}
@@ -3,7 +3,8 @@ package de.krieger.management;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// the search index in memory, the contexts of the tests are open at the same time
+@SpringBootTest(properties = "search.index.path=")
 class DocumentManegementApplicationTests {
 
 	@Test
@@ -0,0 +1,55 @@
+package de.krieger.management.cache;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheEntryWeigherTest {
+
+    private final CacheEntryWeigher weigher = new CacheEntryWeigher();
+
+    @Test
+    void shouldWeighLargerBodiesHeavier() {
+        Document small = document("a short body");
+        Document large = document("a much longer body ".repeat(100));
+
+        // check, if the body length is part of the weight
+        assertTrue(weigher.weigh(1, large) > weigher.weigh(1, small), "A larger body should weigh more.");
+    }
+
+    @Test
+    void shouldWeighListAsSumOfElements() {
+        Document document = document("body");
+        int single = weigher.weigh(1, document);
+        int list = weigher.weigh(1, List.of(document, document));
+
+        // check, if a list weighs at least as much as its elements
+        assertTrue(list >= 2 * single, "A list should weigh at least the sum of its elements.");
+    }
+
+    @Test
+    void shouldNeverReturnZeroWeight() {
+        // check, if unknown values get a positive weight
+        assertTrue(weigher.weigh(1, new Object()) > 0, "The weight should be positive.");
+    }
+
+    private Document document(String body) {
+        Author author = new Author();
+        author.setId(1);
+        author.setFirstName("Olivia");
+        author.setLastName("Johnson");
+
+        Document document = new Document();
+        document.setId(1);
+        document.setTitle("Test Document");
+        document.setBody(body);
+        document.setAuthors(Collections.singleton(author));
+        document.setReferences(Collections.emptySet());
+        return document;
+    }
+}
@@ -0,0 +1,169 @@
+package de.krieger.management.cache;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheSynchronizerTest {
+
+    private Cache authors;
+    private Cache authorList;
+    private Cache documents;
+    private Cache documentList;
+    private CacheSynchronizer cacheSynchronizer;
+
+    private Author author;
+    private Document document;
+    private Document referencingDocument;
+
+    @BeforeEach
+    void setUp() {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(
+                CacheNames.AUTHORS, CacheNames.AUTHORS_ALL, CacheNames.DOCUMENTS, CacheNames.DOCUMENTS_ALL);
+        authors = cacheManager.getCache(CacheNames.AUTHORS);
+        authorList = cacheManager.getCache(CacheNames.AUTHORS_ALL);
+        documents = cacheManager.getCache(CacheNames.DOCUMENTS);
+        documentList = cacheManager.getCache(CacheNames.DOCUMENTS_ALL);
+        cacheSynchronizer = new CacheSynchronizer(cacheManager, new DocumentDependencyIndex());
+
+        author = author(1, "Olivia");
+        document = new Document(1, "Referenced Document", "body", Set.of(author), new HashSet<>());
+        referencingDocument = new Document(2, "Test Document", "body", new HashSet<>(),
+                Set.of(new Document(1, "Referenced Document", "body", new HashSet<>(), new HashSet<>())));
+        Document unrelatedDocument = new Document(3, "Unrelated Document", "body", new HashSet<>(), new HashSet<>());
+
+        // fill the caches like findById and findAll/getAll do
+        authors.put(author.getId(), author);
+        authorList.put(CacheSynchronizer.ALL_KEY, List.of(author));
+        for (Document cached : List.of(document, referencingDocument, unrelatedDocument)) {
+            documents.put(cached.getId(), cached);
+            cacheSynchronizer.documentLoaded(cached);
+        }
+        documentList.put(DocumentView.FULL, List.of(document, referencingDocument, unrelatedDocument));
+        documentList.put(DocumentView.SUMMARY, List.of(DocumentView.SUMMARY.of(document),
+                DocumentView.SUMMARY.of(referencingDocument), DocumentView.SUMMARY.of(unrelatedDocument)));
+    }
+
+    @Test
+    void shouldRefreshAuthorAndEvictOnlyDependentDocumentsWhenAuthorSaved() {
+        Author renamedAuthor = author(1, "Mary");
+        // invoke authorSaved Method
+        cacheSynchronizer.authorSaved(renamedAuthor);
+
+        assertAll(
+                // check, if the author entry is refreshed instead of evicted
+                () -> assertEquals("Mary", authors.get(1, Author.class).getFirstName(), "Cached author should be refreshed."),
+                () -> assertEquals(List.of(renamedAuthor), authorList.get(CacheSynchronizer.ALL_KEY, List.class), "Cached author list should be patched."),
+                // check, if only the document embedding the author is evicted
+                () -> assertNull(documents.get(1), "Document embedding the author should be evicted."),
+                () -> assertNotNull(documents.get(2), "Document without the author should stay cached."),
+                () -> assertNotNull(documents.get(3), "Unrelated document should stay cached."),
+                // check, if the document list is patched
+                () -> assertEquals(Set.of(renamedAuthor), cachedList().get(0).getAuthors(), "Document list should contain the renamed author.")
+        );
+    }
+
+    @Test
+    void shouldRemoveAuthorFromListsWhenAuthorDeleted() {
+        // invoke authorDeleted Method
+        cacheSynchronizer.authorDeleted(author.getId());
+
+        assertAll(
+                () -> assertNull(authors.get(1), "Deleted author should be evicted."),
+                () -> assertTrue(authorList.get(CacheSynchronizer.ALL_KEY, List.class).isEmpty(), "Author list should not contain the deleted author."),
+                () -> assertNull(documents.get(1), "Document embedding the author should be evicted."),
+                () -> assertTrue(cachedList().get(0).getAuthors().isEmpty(), "Document list should not contain the deleted author.")
+        );
+    }
+
+    @Test
+    void shouldEvictReferencingDocumentsWhenDocumentSaved() {
+        Document updatedDocument = new Document(1, "Updated Document", "body", Set.of(author), new HashSet<>());
+        // invoke documentSaved Method
+        cacheSynchronizer.documentSaved(updatedDocument);
+
+        assertAll(
+                () -> assertEquals(updatedDocument, documents.get(1, Document.class), "Cached document should be refreshed."),
+                () -> assertNull(documents.get(2), "Document referencing the updated document should be evicted."),
+                () -> assertNotNull(documents.get(3), "Unrelated document should stay cached."),
+                () -> assertEquals(3, cachedList().size(), "Document list size should not change."),
+                () -> assertEquals("Updated Document", cachedList().get(1).getReferences().iterator().next().getTitle(),
+                        "Embedded reference should be patched in the document list.")
+        );
+    }
+
+    @Test
+    void shouldAppendToListsWhenDocumentCreated() {
+        Document createdDocument = new Document(4, "Created Document", "body", Set.of(author), new HashSet<>());
+        // invoke documentSaved Method
+        cacheSynchronizer.documentSaved(createdDocument);
+
+        assertAll(
+                () -> assertEquals(4, cachedList().size(), "Created document should be appended to the document list."),
+                () -> assertNull(cachedList(DocumentView.SUMMARY).get(3).getBody(), "Summary list should contain the document without body."),
+                () -> assertNotNull(documents.get(1), "Other documents should stay cached."),
+                () -> assertNotNull(documents.get(2), "Other documents should stay cached.")
+        );
+    }
+
+    @Test
+    void shouldDetachDeletedDocumentFromListsWhenDocumentDeleted() {
+        // invoke documentDeleted Method
+        cacheSynchronizer.documentDeleted(document.getId());
+
+        assertAll(
+                () -> assertNull(documents.get(1), "Deleted document should be evicted."),
+                () -> assertNull(documents.get(2), "Document referencing the deleted document should be evicted."),
+                () -> assertEquals(2, cachedList().size(), "Deleted document should be removed from the document list."),
+                () -> assertTrue(cachedList().get(0).getReferences().isEmpty(), "Reference should be detached in the document list.")
+        );
+    }
+
+    @Test
+    void shouldKeepTheSavedDocumentWhenItIsSavedDuringASyncLoad() throws Exception {
+        // findById loads inside the compute of the Caffeine cache (sync), like @Cacheable(sync = true)
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(CacheNames.DOCUMENTS, CacheNames.DOCUMENTS_ALL);
+        CacheSynchronizer synchronizer = new CacheSynchronizer(cacheManager, new DocumentDependencyIndex());
+        Cache caffeineDocuments = cacheManager.getCache(CacheNames.DOCUMENTS);
+        Document saved = new Document(1, "Saved Document", "body", new HashSet<>(), new HashSet<>());
+        Thread writer = new Thread(() -> synchronizer.documentSaved(saved));
+
+        // invoke the load, a write commits after the document has been read
+        caffeineDocuments.get(1, () -> {
+            writer.start();
+            while (writer.getState() != Thread.State.BLOCKED && writer.isAlive()) {
+                Thread.onSpinWait();
+            }
+            return document;
+        });
+        writer.join();
+
+        assertSame(saved, caffeineDocuments.get(1, Document.class), "The stale loaded document should not overwrite the saved one.");
+    }
+
+    private List<Document> cachedList() {
+        return cachedList(DocumentView.FULL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Document> cachedList(DocumentView view) {
+        return documentList.get(view, List.class);
+    }
+
+    private Author author(int id, String firstName) {
+        Author author = new Author();
+        author.setId(id);
+        author.setFirstName(firstName);
+        author.setLastName("Johnson");
+        return author;
+    }
+}
@@ -0,0 +1,35 @@
+package de.krieger.management.config;
+
+import de.krieger.management.model.CompressedText;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldReadCompressionAndDecompressionFromTheStatistics() {
+        new CompressedTextMetrics().bindTo(registry);
+        double compressions = timer("compress").count();
+        double decompressions = timer("decompress").count();
+        double storedBytes = registry.get("document.body.stored").functionCounter().count();
+        // a large repetitive text is compressed once and decompressed once
+        CompressedText text = CompressedText.of("It always seems impossible until it's done. ".repeat(100));
+        text.text();
+
+        assertAll(
+                () -> assertEquals(compressions + 1, timer("compress").count()),
+                () -> assertEquals(decompressions + 1, timer("decompress").count()),
+                () -> assertEquals(storedBytes + text.size(), registry.get("document.body.stored").functionCounter().count()),
+                () -> assertTrue(registry.get("document.body.compression.ratio").gauge().value() > 1)
+        );
+    }
+
+    private FunctionTimer timer(String operation) {
+        return registry.get("document.body.compression.time").tag("operation", operation).functionTimer();
+    }
+}
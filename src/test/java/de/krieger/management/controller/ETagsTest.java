@@ -0,0 +1,58 @@
+package de.krieger.management.controller;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ETagsTest {
+
+    @Test
+    void shouldChangeWhenAnEmbeddedAuthorOrReferenceChanges() {
+        Document document = document(2, new Author(1, "Olivia", "Johnson", 0), reference(3, 0), reference(4, 0));
+
+        assertAll(
+                () -> assertTrue(ETags.of(document).startsWith("\"2-")),
+                () -> assertEquals(ETags.of(document), ETags.of(document(2, new Author(1, "Olivia", "Johnson", 0), reference(4, 0), reference(3, 0))),
+                        "The ETag does not depend on the order of the references."),
+                // the name of the author changed, the document did not
+                () -> assertNotEquals(ETags.of(document), ETags.of(document(2, new Author(1, "Olivia", "Smith", 1), reference(3, 0), reference(4, 0)))),
+                () -> assertNotEquals(ETags.of(document), ETags.of(document(2, new Author(1, "Olivia", "Johnson", 0), reference(3, 1), reference(4, 0)))),
+                () -> assertNotEquals(ETags.ofDocuments(List.of(document)), ETags.ofDocuments(List.of(document, reference(3, 0)))),
+                () -> assertEquals("\"4\"", ETags.of(new Author(1, "Olivia", "Johnson", 4))));
+    }
+
+    @Test
+    void shouldReadTheVersionsFromIfMatch() {
+        Document document = document(7, new Author(1, "Olivia", "Johnson", 0));
+
+        assertAll(
+                () -> assertEquals(Set.of(7L), ETags.versions(ETags.of(document))),
+                () -> assertEquals(Set.of(4L), ETags.versions("\"4\"")),
+                () -> assertEquals(Set.of(3L, 4L), ETags.versions("\"3-ab\", \"4-cd\"")),
+                // a weak ETag never matches an If-Match header
+                () -> assertEquals(Set.of(5L), ETags.versions("W/\"4\", \"5\"")),
+                () -> assertNull(ETags.versions(null)),
+                () -> assertNull(ETags.versions("*")),
+                () -> assertThrows(OptimisticLockingFailureException.class, () -> ETags.versions("W/\"4\"")),
+                () -> assertThrows(OptimisticLockingFailureException.class, () -> ETags.versions("\"abc\"")));
+    }
+
+    private static Document document(long version, Author author, Document... references) {
+        Document document = new Document(1, "Document", "Body", Set.of(author), new LinkedHashSet<>(List.of(references)));
+        document.setVersion(version);
+        return document;
+    }
+
+    private static Document reference(int id, long version) {
+        Document reference = new Document(id, "Reference " + id, null, Set.of(), Set.of());
+        reference.setVersion(version);
+        return reference;
+    }
+}
@@ -0,0 +1,64 @@
+package de.krieger.management.entity;
+
+import de.krieger.management.messaging.LocalMessagingConfig;
+import de.krieger.management.repository.AuthorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Persists several allocation blocks of authors with a small allocation size.
+ */
+// own database, the contexts of other tests keep theirs open
+@SpringBootTest(properties = {"spring.jpa.properties." + PooledSequenceGenerator.ALLOCATION_SIZE_SETTING + "=5",
+        "spring.datasource.url=jdbc:h2:mem:pooledsequence", "search.index.path="})
+@ActiveProfiles(LocalMessagingConfig.PROFILE)
+class PooledSequenceGeneratorTest {
+
+    private static final int ALLOCATION_SIZE = 5;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void shouldGenerateUniqueIncreasingIdsAcrossAllocationBlocks() {
+        // three blocks in one batch, then one transaction per author
+        List<Integer> ids = new ArrayList<>(authorRepository.saveAll(IntStream.range(0, 12).mapToObj(index -> author()).toList())
+                .stream().map(AuthorEntity::getId).toList());
+        IntStream.range(0, 4).forEach(index -> ids.add(authorRepository.save(author()).getId()));
+        // another instance reserves the next block of the sequence
+        long reserved = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR author_seq", Long.class);
+        List<Integer> laterIds = IntStream.range(0, 8).mapToObj(index -> authorRepository.save(author()).getId()).toList();
+        ids.addAll(laterIds);
+        long increment = jdbcTemplate.queryForObject(
+                "SELECT INCREMENT FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_NAME = 'AUTHOR_SEQ'", Long.class);
+
+        assertAll(
+                () -> assertEquals(ALLOCATION_SIZE, increment, "The sequence is created with the allocation size."),
+                () -> assertEquals(ids.size(), new HashSet<>(ids).size(), "The IDs are unique."),
+                () -> assertEquals(ids.stream().sorted().toList(), ids, "The IDs increase."),
+                () -> assertTrue(laterIds.stream().noneMatch(id -> id > reserved - ALLOCATION_SIZE && id <= reserved),
+                        "The block reserved by another instance is not used."),
+                () -> assertEquals(ids.size(), authorRepository.findAllById(ids).size(), "Every author is stored.")
+        );
+    }
+
+    private static AuthorEntity author() {
+        AuthorEntity author = new AuthorEntity();
+        author.setFirstName("Olivia");
+        author.setLastName("Johnson");
+        return author;
+    }
+}
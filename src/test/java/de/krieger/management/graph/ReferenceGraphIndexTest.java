@@ -0,0 +1,101 @@
+package de.krieger.management.graph;
+
+import de.krieger.management.model.Document;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReferenceGraphIndexTest {
+
+    private ReferenceGraphIndex graphIndex;
+
+    @BeforeEach
+    void setUp() {
+        // 1 -> 2 -> 4 -> 5 -> 1 (cycle), 1 -> 3 -> 4, 6 without references
+        graphIndex = new ReferenceGraphIndex();
+        graphIndex.load(() -> CsrGraph.of(
+                new int[]{6, 5, 4, 3, 2, 1},
+                new int[]{1, 1, 2, 3, 4, 5},
+                new int[]{2, 3, 4, 4, 5, 1}));
+    }
+
+    @Test
+    void shouldTraverseBreadthFirstInEveryDirection() {
+        ReferenceGraph references = graphIndex.traverse(1, ReferenceDirection.REFERENCES, 2, 100, 100);
+
+        assertAll(
+                () -> assertEquals(List.of(1, 2, 3, 4), ids(references.getNodes())),
+                () -> assertEquals(List.of(0, 1, 1, 2), references.getNodes().stream().map(ReferenceGraphNode::getDepth).toList()),
+                // document 4 is reached from document 2 first
+                () -> assertEquals(Arrays.asList(null, 1, 1, 2), references.getNodes().stream().map(ReferenceGraphNode::getParentId).toList()),
+                () -> assertFalse(references.isTruncated()),
+                // the cycle back to document 1 is not followed twice
+                () -> assertEquals(List.of(1, 2, 3, 4, 5), ids(graphIndex.traverse(1, ReferenceDirection.REFERENCES, 10, 100, 100).getNodes())),
+                () -> assertEquals(List.of(4, 2, 3), ids(graphIndex.traverse(4, ReferenceDirection.REFERENCED_BY, 1, 100, 100).getNodes())),
+                () -> assertEquals(List.of(4, 5, 2, 3), ids(graphIndex.traverse(4, ReferenceDirection.BOTH, 1, 100, 100).getNodes())),
+                () -> assertEquals(List.of(6), ids(graphIndex.traverse(6, ReferenceDirection.BOTH, 10, 100, 100).getNodes())),
+                () -> assertNull(graphIndex.traverse(7, ReferenceDirection.REFERENCES, 1, 100, 100)));
+    }
+
+    @Test
+    void shouldTruncateAtFanOutAndLimit() {
+        ReferenceGraph fanOut = graphIndex.traverse(1, ReferenceDirection.REFERENCES, 1, 1, 100);
+        ReferenceGraph limit = graphIndex.traverse(1, ReferenceDirection.REFERENCES, 10, 100, 3);
+
+        assertAll(
+                () -> assertEquals(List.of(1, 2), ids(fanOut.getNodes())),
+                () -> assertTrue(fanOut.isTruncated()),
+                () -> assertEquals(List.of(1, 2, 3), ids(limit.getNodes())),
+                () -> assertTrue(limit.isTruncated()),
+                () -> assertThrows(IllegalArgumentException.class, () -> graphIndex.traverse(1, ReferenceDirection.REFERENCES, ReferenceGraphIndex.MAX_DEPTH + 1, 1, 1)),
+                () -> assertThrows(IllegalArgumentException.class, () -> graphIndex.traverse(1, ReferenceDirection.REFERENCES, 1, 1, ReferenceGraphIndex.MAX_NODES + 1)));
+    }
+
+    @Test
+    void shouldFindShortestPaths() {
+        assertAll(
+                () -> assertEquals(List.of(1, 2, 4, 5), ids(graphIndex.shortestPath(1, 5, ReferenceDirection.REFERENCES, 10))),
+                () -> assertEquals(Arrays.asList(null, 1, 2, 4), graphIndex.shortestPath(1, 5, ReferenceDirection.REFERENCES, 10)
+                        .stream().map(ReferenceGraphNode::getParentId).toList()),
+                () -> assertEquals(List.of(5, 1), ids(graphIndex.shortestPath(5, 1, ReferenceDirection.REFERENCES, 10))),
+                () -> assertEquals(List.of(1, 5), ids(graphIndex.shortestPath(1, 5, ReferenceDirection.REFERENCED_BY, 10))),
+                () -> assertEquals(List.of(3, 4, 2), ids(graphIndex.shortestPath(3, 2, ReferenceDirection.BOTH, 10))),
+                () -> assertEquals(List.of(3), ids(graphIndex.shortestPath(3, 3, ReferenceDirection.REFERENCES, 0))),
+                // longer than the maximum length
+                () -> assertTrue(graphIndex.shortestPath(1, 5, ReferenceDirection.REFERENCES, 2).isEmpty()),
+                () -> assertTrue(graphIndex.shortestPath(1, 6, ReferenceDirection.BOTH, 10).isEmpty()));
+    }
+
+    @Test
+    void shouldApplySavedAndDeletedDocuments() {
+        // document 6 now references 1, the new document 7 references 5 and document 4 is deleted
+        graphIndex.documentsSaved(List.of(document(6, 1), document(7, 5)));
+        graphIndex.documentsDeleted(List.of(4));
+
+        assertAll(
+                () -> assertEquals(6, graphIndex.size()),
+                () -> assertEquals(5, graphIndex.referenceCount()),
+                () -> assertFalse(graphIndex.contains(4)),
+                () -> assertEquals(List.of(1, 5, 6), ids(graphIndex.traverse(1, ReferenceDirection.REFERENCED_BY, 1, 100, 100).getNodes())),
+                () -> assertEquals(List.of(1, 2, 3), ids(graphIndex.traverse(1, ReferenceDirection.REFERENCES, 10, 100, 100).getNodes())),
+                () -> assertEquals(List.of(7, 5, 1), ids(graphIndex.shortestPath(7, 1, ReferenceDirection.REFERENCES, 10))));
+    }
+
+    private static List<Integer> ids(List<ReferenceGraphNode> nodes) {
+        return nodes.stream().map(ReferenceGraphNode::getId).toList();
+    }
+
+    private static Document document(int id, int... referenceIds) {
+        Set<Document> references = new HashSet<>();
+        for (int referenceId : referenceIds) {
+            references.add(new Document(referenceId, null, null, Set.of(), Set.of()));
+        }
+        return new Document(id, "Document " + id, null, Set.of(), references);
+    }
+}
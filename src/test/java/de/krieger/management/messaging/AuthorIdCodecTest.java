@@ -0,0 +1,37 @@
+package de.krieger.management.messaging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorIdCodecTest {
+
+    @Test
+    void shouldDecodeEncodedIdsSortedAndDistinct() {
+        // encode unsorted IDs with a duplicate and extreme values
+        byte[] bytes = AuthorIdCodec.encode(List.of(300, 1, Integer.MAX_VALUE, 300, -5, 2));
+
+        // verify that the IDs are decoded sorted and without the duplicate
+        assertEquals(List.of(-5, 1, 2, 300, Integer.MAX_VALUE), AuthorIdCodec.decode(bytes));
+    }
+
+    @Test
+    void shouldEncodeDenseIdsWithOneBytePerId() {
+        // encode 1000 consecutive IDs
+        List<Integer> ids = java.util.stream.IntStream.rangeClosed(100_001, 101_000).boxed().toList();
+        byte[] bytes = AuthorIdCodec.encode(ids);
+
+        // verify the size, only the first ID needs more than one byte
+        assertAll(
+                () -> assertEquals(3 + 999, bytes.length, "Each following ID should take one byte."),
+                () -> assertEquals(ids, AuthorIdCodec.decode(bytes)));
+    }
+
+    @Test
+    void shouldRejectTruncatedVarint() {
+        // a continuation bit without a following byte
+        assertThrows(IllegalArgumentException.class, () -> AuthorIdCodec.decode(new byte[]{1, (byte) 0x80}));
+    }
+}
@@ -0,0 +1,163 @@
+package de.krieger.management.messaging;
+
+import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.repository.AuthorRepository;
+import de.krieger.management.service.AuthorService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pushes delete commands through RabbitMQSender -> in-memory broker -> RabbitMQReceiver -> AuthorService
+ * and reports the throughput and the end-to-end latency from sendCommand to the committed delete.
+ * Run with: mvn test -Pbenchmark -Dbenchmark.commands=1000000 -Dbenchmark.authors=100000
+ * <p>
+ * The first benchmark.authors commands delete seeded authors, the others delete IDs which do not exist,
+ * which costs the existence check only.
+ */
+@SpringBootTest(properties = "search.index.path=")
+@ActiveProfiles(LocalMessagingConfig.PROFILE)
+class DeleteAuthorThroughputBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger(DeleteAuthorThroughputBenchmark.class);
+    private static final String QUEUE_NAME = "benchmark_delete_author_queue";
+    private static final int SEED_CHUNK_SIZE = 10_000;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private MessagingMetrics metrics;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    @Value("${benchmark.commands:1000000}")
+    private int commands;
+
+    @Value("${benchmark.authors:100000}")
+    private int authors;
+
+    @Value("${rabbitmq.delete.author.publish.batch-size}")
+    private int publishBatchSize;
+
+    @Value("${rabbitmq.delete.author.publish.flush-interval}")
+    private long flushInterval;
+
+    @Value("${rabbitmq.delete.author.batch-size}")
+    private int consumerBatchSize;
+
+    @Value("${rabbitmq.delete.author.concurrency}")
+    private String concurrency;
+
+    @Test
+    void deleteAuthorsThroughQueue() throws Exception {
+        int[] ids = seedIds();
+        int maxId = Arrays.stream(ids).max().orElse(0);
+        long[] sentAt = new long[maxId + 1];
+        long[] latencies = new long[ids.length];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger brokerMessages = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(ids.length);
+
+        try (InMemoryBroker broker = new InMemoryBroker()) {
+            RabbitMQReceiver receiver = new RabbitMQReceiver(authorService, broker, metrics);
+            ReflectionTestUtils.setField(receiver, "queueName", QUEUE_NAME);
+            ReflectionTestUtils.setField(receiver, "retryQueueName", QUEUE_NAME + ".retry");
+            ReflectionTestUtils.setField(receiver, "deadLetterQueueName", QUEUE_NAME + ".dlq");
+            ReflectionTestUtils.setField(receiver, "maxAttempts", 1);
+            int consumers = Integer.parseInt(concurrency.substring(concurrency.indexOf('-') + 1));
+            broker.subscribe(QUEUE_NAME, consumers, consumerBatchSize, messages -> {
+                receiver.receiveMessages(messages);
+                long now = System.nanoTime();
+                brokerMessages.addAndGet(messages.size());
+                for (var message : messages) {
+                    for (int id : AuthorIdCodec.decode(message.getBody())) {
+                        latencies[completed.getAndIncrement()] = now - sentAt[id];
+                        done.countDown();
+                    }
+                }
+            });
+
+            RabbitMQSender sender = new RabbitMQSender(broker, metrics, taskScheduler);
+            ReflectionTestUtils.setField(sender, "queueName", QUEUE_NAME);
+            ReflectionTestUtils.setField(sender, "batchSize", publishBatchSize);
+            ReflectionTestUtils.setField(sender, "flushInterval", flushInterval);
+            sender.start();
+
+            long start = System.nanoTime();
+            for (int id : ids) {
+                sentAt[id] = System.nanoTime();
+                sender.sendCommand(id);
+            }
+            long sendNanos = System.nanoTime() - start;
+            assertTrue(done.await(30, TimeUnit.MINUTES), "All commands should be processed.");
+            long totalNanos = System.nanoTime() - start;
+            sender.stop();
+
+            report(ids.length, brokerMessages.get(), sendNanos, totalNanos, latencies);
+        }
+        assertEquals(0, authorRepository.count(), "All seeded authors should be deleted.");
+    }
+
+    /**
+     * Creates the authors and returns their IDs, followed by IDs which do not exist.
+     */
+    private int[] seedIds() {
+        List<Integer> ids = new ArrayList<>(commands);
+        for (int created = 0; created < authors; created += SEED_CHUNK_SIZE) {
+            List<Author> chunk = IntStream.range(created, Math.min(created + SEED_CHUNK_SIZE, authors))
+                    .mapToObj(index -> new Author(0, "First" + index, "Last" + index))
+                    .toList();
+            authorService.createAll(chunk).stream().map(BatchItemResult::getId).forEach(ids::add);
+        }
+        int nextId = ids.stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+        while (ids.size() < commands) {
+            ids.add(nextId++);
+        }
+        return ids.stream().mapToInt(Integer::intValue).limit(commands).toArray();
+    }
+
+    private static void report(int commands, int brokerMessages, long sendNanos, long totalNanos, long[] latencies) {
+        Arrays.sort(latencies);
+        log.info("""
+                        Delete author benchmark: {} commands in {} broker messages
+                          send:       {} commands/s
+                          end-to-end: {} commands/s, {} ms total
+                          latency ms: p50={} p90={} p99={} p99.9={} max={}""",
+                commands, brokerMessages,
+                perSecond(commands, sendNanos),
+                perSecond(commands, totalNanos), TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                millis(latencies, 0.5), millis(latencies, 0.9), millis(latencies, 0.99), millis(latencies, 0.999),
+                millis(latencies, 1.0));
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return nanos == 0 ? 0 : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+    }
+
+    private static String millis(long[] sortedLatencies, double percentile) {
+        int index = Math.min(sortedLatencies.length - 1, (int) Math.ceil(percentile * sortedLatencies.length) - 1);
+        return String.format("%.2f", sortedLatencies[Math.max(index, 0)] / 1_000_000.0);
+    }
+}
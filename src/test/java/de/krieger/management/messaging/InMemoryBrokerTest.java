@@ -0,0 +1,67 @@
+package de.krieger.management.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryBrokerTest {
+
+    private final InMemoryBroker broker = new InMemoryBroker();
+
+    @AfterEach
+    void tearDown() {
+        broker.close();
+    }
+
+    @Test
+    void shouldDeliverQueuedMessagesInBatches() throws InterruptedException {
+        // queue 5 messages before the consumer starts
+        for (int index = 0; index < 5; index++) {
+            assertTrue(broker.publish("queue", message(index)).join(), "The message should be confirmed.");
+        }
+        BlockingQueue<List<Message>> batches = new LinkedBlockingQueue<>();
+        broker.subscribe("queue", 1, 3, batches::add);
+
+        // verify the batches of at most 3 messages in order
+        List<Message> first = batches.poll(5, TimeUnit.SECONDS);
+        List<Message> second = batches.poll(5, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(List.of("0", "1", "2"), bodies(first)),
+                () -> assertEquals(List.of("3", "4"), bodies(second)),
+                () -> assertEquals("queue", first.get(0).getMessageProperties().getConsumerQueue()),
+                () -> assertEquals(0, broker.size("queue")));
+    }
+
+    @Test
+    void shouldMoveMessagesToTargetQueueAfterDelay() throws InterruptedException {
+        BlockingQueue<List<Message>> batches = new LinkedBlockingQueue<>();
+        broker.subscribe("queue", 1, 10, batches::add);
+        broker.delay("queue.retry", 50, "queue");
+        // publish to the delaying queue
+        long start = System.nanoTime();
+        broker.publish("queue.retry", message(1));
+
+        // verify that the message arrives in the target queue after the delay
+        List<Message> batch = batches.poll(5, TimeUnit.SECONDS);
+        assertAll(
+                () -> assertEquals(List.of("1"), bodies(batch)),
+                () -> assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "The message should be delayed."));
+    }
+
+    private static Message message(int index) {
+        return new Message(Integer.toString(index).getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+
+    private static List<String> bodies(List<Message> messages) {
+        return messages.stream().map(message -> new String(message.getBody(), StandardCharsets.UTF_8)).toList();
+    }
+}
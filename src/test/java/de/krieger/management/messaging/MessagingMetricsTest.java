@@ -0,0 +1,35 @@
+package de.krieger.management.messaging;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessagingMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final MessagingMetrics metrics = new MessagingMetrics(registry);
+
+    @Test
+    void shouldCountConsumedMessagesAndRecordLagOfStampedMessages() {
+        // a message published 2 seconds ago and one without timestamp
+        MessageProperties stamped = new MessageProperties();
+        stamped.setConsumerQueue("queue");
+        stamped.setTimestamp(new Date(System.currentTimeMillis() - 2000));
+        MessageProperties unstamped = new MessageProperties();
+        unstamped.setConsumerQueue("queue");
+        metrics.consumed(List.of(new Message(new byte[0], stamped), new Message(new byte[0], unstamped)));
+
+        // verify that both are counted, but only the stamped one has a lag
+        assertAll(
+                () -> assertEquals(2, registry.counter("messaging.consumed", "queue", "queue").count()),
+                () -> assertEquals(1, registry.timer("messaging.lag", "queue", "queue").count()),
+                () -> assertTrue(registry.timer("messaging.lag", "queue", "queue").totalTime(TimeUnit.MILLISECONDS) >= 2000));
+    }
+}
@@ -0,0 +1,110 @@
+package de.krieger.management.messaging;
+
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.service.AuthorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RabbitMQReceiverTest {
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private MessagePublisher messagePublisher;
+
+    @Mock
+    private MessagingMetrics metrics;
+
+    @InjectMocks
+    private RabbitMQReceiver rabbitMQReceiver;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rabbitMQReceiver, "queueName", "delete_author_queue");
+        ReflectionTestUtils.setField(rabbitMQReceiver, "retryQueueName", "delete_author_queue.retry");
+        ReflectionTestUtils.setField(rabbitMQReceiver, "deadLetterQueueName", "delete_author_queue.dlq");
+        ReflectionTestUtils.setField(rabbitMQReceiver, "maxAttempts", 3);
+    }
+
+    @Test
+    void shouldDeleteWholeBatchWithOneCallWhenReceiveMessages() {
+        // Configure Mocked Method, author 2 does not exist
+        when(authorService.deleteAll(List.of(1, 2, 3))).thenReturn(List.of(
+                BatchItemResult.success(0, 1, BatchItemResult.Status.DELETED),
+                BatchItemResult.failed(1, 2, "Author id not found - Id: 2"),
+                BatchItemResult.success(2, 3, BatchItemResult.Status.DELETED)));
+        // invoke receiveMessages Method, including an invalid message
+        rabbitMQReceiver.receiveMessages(List.of(message("1"), message("2"), message("x"), message("3")));
+
+        // verify that the valid IDs are deleted in one call and nothing is retried
+        verify(authorService).deleteAll(List.of(1, 2, 3));
+        verify(authorService, never()).delete(anyInt());
+        verifyNoInteractions(messagePublisher);
+    }
+
+    @Test
+    void shouldSendMessagesToRetryQueueWhenBatchFails() {
+        // Configure Mocked Method to fail
+        when(authorService.deleteAll(anyList())).thenThrow(new IllegalStateException("database not available"));
+        when(messagePublisher.publish(anyString(), any(Message.class))).thenReturn(CompletableFuture.completedFuture(true));
+        Message message = message("1");
+        // invoke receiveMessages Method
+        rabbitMQReceiver.receiveMessages(List.of(message));
+
+        // verify that the message is retried with the next attempt
+        verify(messagePublisher).publish("delete_author_queue.retry", message);
+        assertEquals(2, (Integer) message.getMessageProperties().getHeader(RabbitMQReceiver.ATTEMPTS_HEADER),
+                "The attempt should be counted.");
+    }
+
+    @Test
+    void shouldSendMessagesToDeadLetterQueueAfterLastAttempt() {
+        // Configure Mocked Method to fail
+        when(authorService.deleteAll(anyList())).thenThrow(new IllegalStateException("database not available"));
+        when(messagePublisher.publish(anyString(), any(Message.class))).thenReturn(CompletableFuture.completedFuture(true));
+        Message message = message("1");
+        message.getMessageProperties().setHeader(RabbitMQReceiver.ATTEMPTS_HEADER, 3);
+        // invoke receiveMessages Method
+        rabbitMQReceiver.receiveMessages(List.of(message));
+
+        // verify that the message is not retried again
+        verify(messagePublisher).publish("delete_author_queue.dlq", message);
+        verify(messagePublisher, never()).publish(eq("delete_author_queue.retry"), any(Message.class));
+    }
+
+    @Test
+    void shouldDeleteIdsOfVarintMessagesWithTextMessages() {
+        // Configure Mocked Method
+        when(authorService.deleteAll(List.of(4, 5, 9))).thenReturn(List.of());
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(AuthorIdCodec.CONTENT_TYPE);
+        // invoke receiveMessages Method with a multi ID message and a text message
+        rabbitMQReceiver.receiveMessages(List.of(new Message(AuthorIdCodec.encode(List.of(5, 4)), properties), message("9")));
+
+        // verify that all IDs are deleted in one call
+        verify(authorService).deleteAll(List.of(4, 5, 9));
+    }
+
+    private static Message message(String body) {
+        return new Message(body.getBytes(StandardCharsets.UTF_8), new MessageProperties());
+    }
+}
@@ -0,0 +1,107 @@
+package de.krieger.management.messaging;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.amqp.core.Message;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RabbitMQSenderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+    private InMemoryBroker broker;
+    private RabbitMQSender rabbitMQSender;
+
+    @BeforeEach
+    void setUp() {
+        taskScheduler.initialize();
+        broker = new InMemoryBroker();
+        rabbitMQSender = new RabbitMQSender(broker, new MessagingMetrics(registry), taskScheduler);
+        ReflectionTestUtils.setField(rabbitMQSender, "queueName", "delete_author_queue");
+        ReflectionTestUtils.setField(rabbitMQSender, "batchSize", 3);
+        ReflectionTestUtils.setField(rabbitMQSender, "flushInterval", 20L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        rabbitMQSender.stop();
+        taskScheduler.destroy();
+    }
+
+    @Test
+    void shouldPackPendingIdsIntoMessagesOfBatchSize() {
+        // queue 5 IDs, one of them twice, without a running flusher
+        List.of(1, 2, 2, 3, 4, 5).forEach(rabbitMQSender::sendCommand);
+        rabbitMQSender.flush();
+
+        // verify that the distinct IDs are sent in two messages
+        assertAll(
+                () -> assertEquals(2, broker.published.size()),
+                () -> assertEquals(List.of(1, 2, 3), broker.ids(0)),
+                () -> assertEquals(List.of(4, 5), broker.ids(1)),
+                () -> assertEquals(AuthorIdCodec.CONTENT_TYPE, broker.published.get(0).getMessageProperties().getContentType()),
+                () -> assertNotNull(broker.published.get(0).getMessageProperties().getTimestamp(), "The lag is measured from the timestamp."),
+                () -> assertEquals(2, registry.counter("messaging.published", "queue", "delete_author_queue", "result", "confirmed").count()));
+    }
+
+    @Test
+    void shouldSendIdsAgainWhenBrokerDoesNotConfirm() {
+        // the broker rejects the first message
+        broker.confirm = false;
+        rabbitMQSender.sendCommand(7);
+        rabbitMQSender.flush();
+        broker.confirm = true;
+        rabbitMQSender.flush();
+
+        // verify that the ID is sent again
+        assertAll(
+                () -> assertEquals(2, broker.published.size()),
+                () -> assertEquals(List.of(7), broker.ids(1)));
+    }
+
+    @Test
+    void shouldFlushAfterIntervalWithoutWaitingForBroker() throws InterruptedException {
+        // start the flusher and queue one ID
+        rabbitMQSender.start();
+        rabbitMQSender.sendCommand(42);
+
+        // verify that the ID is published by the flusher thread
+        Message message = broker.queue.poll(5, TimeUnit.SECONDS);
+        assertNotNull(message, "The pending ID should be flushed after the interval.");
+        assertEquals(List.of(42), AuthorIdCodec.decode(message.getBody()));
+    }
+
+    /**
+     * Stand-in for the broker, keeping the published messages in memory.
+     */
+    private static class InMemoryBroker implements MessagePublisher {
+        private final List<Message> published = new ArrayList<>();
+        private final BlockingQueue<Message> queue = new LinkedBlockingQueue<>();
+        private volatile boolean confirm = true;
+
+        @Override
+        public synchronized CompletableFuture<Boolean> publish(String queueName, Message message) {
+            published.add(message);
+            if (confirm) {
+                queue.add(message);
+            }
+            return CompletableFuture.completedFuture(confirm);
+        }
+
+        private List<Integer> ids(int index) {
+            return AuthorIdCodec.decode(published.get(index).getBody());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package de.krieger.management.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CommandStatus;
+import de.krieger.management.model.WriteCommand;
+import de.krieger.management.service.AuthorService;
+import de.krieger.management.service.DocumentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WriteCommandReceiverTest {
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private DocumentService documentService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CommandStatusStore statusStore;
+    private WriteCommandReceiver writeCommandReceiver;
+
+    @BeforeEach
+    void setUp() {
+        statusStore = new CommandStatusStore(new ConcurrentMapCacheManager(CacheNames.COMMANDS));
+        writeCommandReceiver = new WriteCommandReceiver(authorService, documentService, statusStore, objectMapper,
+                new MessagingMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void shouldApplyRunsOfSameOperationInOneCallAndInOrder() throws Exception {
+        // two creates followed by a delete of the first created author
+        WriteCommand create1 = command("c1", WriteCommand.author(WriteCommand.Operation.CREATE, 0, new Author(0, "Anna", "Lang")));
+        WriteCommand create2 = command("c2", WriteCommand.author(WriteCommand.Operation.CREATE, 0, new Author(0, "Otto", "Kurz")));
+        WriteCommand delete = command("d1", WriteCommand.author(WriteCommand.Operation.DELETE, 11, null));
+        // Configure Mocked Methods
+        when(authorService.createAll(anyList())).thenReturn(List.of(
+                BatchItemResult.success(0, 11, BatchItemResult.Status.CREATED),
+                BatchItemResult.success(1, 12, BatchItemResult.Status.CREATED)));
+        when(authorService.deleteAll(List.of(11))).thenReturn(List.of(BatchItemResult.success(0, 11, BatchItemResult.Status.DELETED)));
+        // invoke onMessageBatch Method
+        writeCommandReceiver.onMessageBatch(List.of(message(create1), message(create2), message(delete)));
+
+        // verify that the creates are applied in one call before the delete
+        InOrder inOrder = inOrder(authorService);
+        inOrder.verify(authorService).createAll(List.of(create1.getAuthor(), create2.getAuthor()));
+        inOrder.verify(authorService).deleteAll(List.of(11));
+        assertAll(
+                () -> assertEquals(CommandStatus.State.SUCCEEDED, statusStore.find("c2").getState()),
+                () -> assertEquals(12, statusStore.find("c2").getEntityId(), "The created ID should be part of the status."),
+                () -> assertEquals(CommandStatus.State.SUCCEEDED, statusStore.find("d1").getState()),
+                () -> assertNotNull(statusStore.find("d1").getCompleted()));
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void shouldMarkCommandsFailedWhenRunFails() throws Exception {
+        // Configure Mocked Method to fail
+        when(documentService.deleteAll(anyList())).thenThrow(new IllegalStateException("database not available"));
+        WriteCommand delete = command("d1", WriteCommand.document(WriteCommand.Operation.DELETE, 5, null));
+        // invoke onMessageBatch Method
+        writeCommandReceiver.onMessageBatch(List.of(message(delete)));
+
+        // verify the failed status
+        CommandStatus status = statusStore.find("d1");
+        assertAll(
+                () -> assertEquals(CommandStatus.State.FAILED, status.getState()),
+                () -> assertEquals("database not available", status.getMessage()));
+    }
+
+    @Test
+    void shouldMarkUnreadableCommandFailedAndKeepFinalStatus() throws Exception {
+        WriteCommand delete = command("d1", WriteCommand.document(WriteCommand.Operation.DELETE, 5, null));
+        MessageProperties properties = new MessageProperties();
+        properties.setMessageId(delete.getId());
+        // invoke onMessageBatch Method with a message which is no command
+        writeCommandReceiver.onMessageBatch(List.of(new Message("{".getBytes(), properties)));
+        // a late result does not replace the final status
+        statusStore.completed(delete.getId(), BatchItemResult.success(0, 5, BatchItemResult.Status.DELETED));
+
+        // verify the failed status
+        CommandStatus status = statusStore.find("d1");
+        assertAll(
+                () -> assertEquals(CommandStatus.State.FAILED, status.getState()),
+                () -> assertEquals("Command cannot be read", status.getMessage()));
+        verifyNoInteractions(documentService);
+    }
+
+    private WriteCommand command(String id, WriteCommand command) {
+        command.setId(id);
+        statusStore.submitted(command);
+        return command;
+    }
+
+    private Message message(WriteCommand command) throws Exception {
+        return new Message(objectMapper.writeValueAsBytes(command), new MessageProperties());
+    }
+}
@@ -0,0 +1,71 @@
+package de.krieger.management.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.CommandStatus;
+import de.krieger.management.model.WriteCommand;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteCommandSenderTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> queues = new ArrayList<>();
+    private final List<Message> messages = new ArrayList<>();
+    private boolean confirm = true;
+    private CommandStatusStore statusStore;
+    private WriteCommandSender writeCommandSender;
+
+    @BeforeEach
+    void setUp() {
+        statusStore = new CommandStatusStore(new ConcurrentMapCacheManager(CacheNames.COMMANDS));
+        // in-memory stand-in for the broker
+        MessagePublisher publisher = (queueName, message) -> {
+            queues.add(queueName);
+            messages.add(message);
+            return CompletableFuture.completedFuture(confirm);
+        };
+        writeCommandSender = new WriteCommandSender(publisher, statusStore, objectMapper,
+                new MessagingMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(writeCommandSender, "queueName", "write_command_queue");
+        ReflectionTestUtils.setField(writeCommandSender, "partitions", 4);
+    }
+
+    @Test
+    void shouldSendCommandsForSameEntityToSamePartition() throws Exception {
+        // submit an update and a delete of the same author
+        CommandStatus update = writeCommandSender.submit(WriteCommand.author(WriteCommand.Operation.UPDATE, 7, new Author(7, "Anna", "Lang")));
+        writeCommandSender.submit(WriteCommand.author(WriteCommand.Operation.DELETE, 7, null));
+
+        // verify the pending status and that both commands are in the same partition queue
+        WriteCommand sent = objectMapper.readValue(messages.get(0).getBody(), WriteCommand.class);
+        assertAll(
+                () -> assertEquals(CommandStatus.State.PENDING, statusStore.find(update.getId()).getState()),
+                () -> assertEquals(update.getId(), sent.getId()),
+                () -> assertEquals(update.getId(), messages.get(0).getMessageProperties().getMessageId()),
+                () -> assertEquals("Anna", sent.getAuthor().getFirstName()),
+                () -> assertTrue(queues.get(0).startsWith("write_command_queue.")),
+                () -> assertEquals(queues.get(0), queues.get(1)));
+    }
+
+    @Test
+    void shouldMarkCommandFailedWhenBrokerDoesNotConfirm() {
+        // the broker rejects the message
+        confirm = false;
+        CommandStatus status = writeCommandSender.submit(WriteCommand.author(WriteCommand.Operation.DELETE, 7, null));
+
+        // verify the failed status
+        assertEquals(CommandStatus.State.FAILED, statusStore.find(status.getId()).getState());
+    }
+}
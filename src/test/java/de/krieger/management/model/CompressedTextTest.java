@@ -0,0 +1,54 @@
+package de.krieger.management.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedTextTest {
+
+    @Test
+    void shouldStoreShortTextUncompressed() {
+        CompressedText text = CompressedText.of("a short body");
+
+        assertAll(
+                // check, if texts below the threshold are not compressed
+                () -> assertFalse(text.isCompressed(), "A short text should not be compressed."),
+                () -> assertEquals("a short body", text.text(), "The text should be restored.")
+        );
+    }
+
+    @Test
+    void shouldCompressLargeRepetitiveText() {
+        String body = "It always seems impossible until it's done. ".repeat(100);
+        CompressedText text = CompressedText.of(body);
+
+        assertAll(
+                // check, if large texts are compressed and restored
+                () -> assertTrue(text.isCompressed(), "A large repetitive text should be compressed."),
+                () -> assertTrue(text.size() < body.length() / 10, "The stored form should be much smaller."),
+                () -> assertEquals(body, text.text(), "The text should be restored."),
+                () -> assertEquals("CompressedText[deflate, " + text.size() + " bytes]", text.toString(), "toString should not decompress.")
+        );
+    }
+
+    @Test
+    void shouldRestoreTextFromStoredForm() {
+        String body = "Grüße aus München – ".repeat(50);
+        CompressedText text = CompressedText.fromBytes(CompressedText.of(body).toBytes());
+
+        assertAll(
+                // check, if the stored form round trips, including non ASCII characters
+                () -> assertEquals(body, text.text(), "The text should be restored from the stored form."),
+                () -> assertEquals(CompressedText.of(body), text, "Equal texts should be equal.")
+        );
+    }
+
+    @Test
+    void shouldKeepNull() {
+        // check, if null is passed through
+        assertAll(
+                () -> assertNull(CompressedText.of(null), "Null should stay null."),
+                () -> assertNull(CompressedText.fromBytes(null), "Null should stay null.")
+        );
+    }
+}
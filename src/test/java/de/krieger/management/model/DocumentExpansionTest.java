@@ -0,0 +1,26 @@
+package de.krieger.management.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentExpansionTest {
+
+    @Test
+    void shouldParseReferencesWithDepthAndAuthors() {
+        assertAll(
+                () -> assertEquals(DocumentExpansion.NONE, DocumentExpansion.parse(null)),
+                () -> assertEquals(DocumentExpansion.NONE, DocumentExpansion.parse(" ")),
+                () -> assertEquals(new DocumentExpansion(1, false), DocumentExpansion.parse("references")),
+                () -> assertEquals(new DocumentExpansion(3, true), DocumentExpansion.parse("references(depth=3), authors")),
+                () -> assertEquals(new DocumentExpansion(0, true), DocumentExpansion.parse("authors")));
+    }
+
+    @Test
+    void shouldRejectUnknownItemsAndDeepExpansions() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class, () -> DocumentExpansion.parse("body")),
+                () -> assertThrows(IllegalArgumentException.class, () -> DocumentExpansion.parse("references(depth=two)")),
+                () -> assertThrows(IllegalArgumentException.class, () -> DocumentExpansion.parse("references(depth=" + (DocumentExpansion.MAX_DEPTH + 1) + ")")));
+    }
+}
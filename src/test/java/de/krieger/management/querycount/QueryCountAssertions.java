@@ -0,0 +1,62 @@
+package de.krieger.management.querycount;
+
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Assertions on the number of SQL statements an action executes, to catch N+1 query regressions.
+ * Needs the query counting datasource proxy, i.e. a Spring context with query-count.enabled=true.
+ */
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    /**
+     * Runs an action on the current thread and counts its statements.
+     *
+     * @param action the action
+     * @return the statement count
+     */
+    public static QueryCount countQueries(Runnable action) {
+        QueryCount count = QueryCounter.start();
+        try {
+            action.run();
+        } finally {
+            QueryCounter.stop(count);
+        }
+        return count;
+    }
+
+    /**
+     * Fails if an action executes more than the given number of statements.
+     *
+     * @param max    the maximum number of statements
+     * @param action the action
+     * @return the result of the action
+     */
+    public static <T> T assertMaxQueries(int max, Supplier<T> action) {
+        Object[] result = new Object[1];
+        QueryCount count = countQueries(() -> result[0] = action.get());
+        if (count.getTotal() > max) {
+            fail("Expected at most " + max + " statements, but executed " + count + ":\n" + String.join("\n", count.getStatements()));
+        }
+        @SuppressWarnings("unchecked")
+        T typed = (T) result[0];
+        return typed;
+    }
+
+    /**
+     * Fails if an action executes more than the given number of statements.
+     *
+     * @param max    the maximum number of statements
+     * @param action the action
+     */
+    public static void assertMaxQueries(int max, Runnable action) {
+        assertMaxQueries(max, () -> {
+            action.run();
+            return null;
+        });
+    }
+}
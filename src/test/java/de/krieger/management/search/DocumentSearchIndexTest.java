@@ -0,0 +1,102 @@
+package de.krieger.management.search;
+
+import de.krieger.management.model.Document;
+import de.krieger.management.model.SearchHit;
+import de.krieger.management.model.SearchPage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentSearchIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private DocumentSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        searchIndex = new DocumentSearchIndex(directory.toString());
+        searchIndex.documentsSaved(List.of(
+                document(1, "Quarterly report", "The management approved the budget."),
+                document(2, "Meeting notes", "Document management was discussed in the quarterly meeting."),
+                document(3, "Management handbook", "How documents are managed and archived.")));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        searchIndex.close();
+    }
+
+    @Test
+    void shouldRankTitleMatchesFirst() {
+        // all documents contain management, document 3 in the title
+        SearchPage page = searchIndex.search("management", 0, 10);
+
+        assertAll(
+                () -> assertEquals(3, page.getTotal()),
+                () -> assertEquals(3, page.getHits().get(0).getId()),
+                () -> assertEquals("Management handbook", page.getHits().get(0).getTitle()));
+    }
+
+    @Test
+    void shouldSupportPhrasePrefixAndPaging() {
+        assertAll(
+                // the words in this order only in document 2
+                () -> assertEquals(List.of(2), ids(searchIndex.search("\"document management\"", 0, 10))),
+                // manage, managed, management
+                () -> assertEquals(3, searchIndex.search("manag*", 0, 10).getTotal()),
+                // second page of one hit
+                () -> assertEquals(1, searchIndex.search("management", 1, 1).getHits().size()),
+                () -> assertEquals(3, searchIndex.search("management", 1, 1).getTotal()),
+                () -> assertThrows(IllegalArgumentException.class, () -> searchIndex.search("\"unbalanced", 0, 10)),
+                () -> assertThrows(IllegalArgumentException.class, () -> searchIndex.search("management", DocumentSearchIndex.MAX_WINDOW, 1)));
+    }
+
+    @Test
+    void shouldUpdateIncrementallyAndKeepIndexAfterReopen() throws IOException {
+        // update document 1, delete document 2 and reopen the index
+        searchIndex.documentsSaved(List.of(document(1, "Annual report", "Nothing about it.")));
+        searchIndex.documentsDeleted(List.of(2));
+        searchIndex.close();
+        searchIndex = new DocumentSearchIndex(directory.toString());
+
+        assertAll(
+                () -> assertEquals(2, searchIndex.size()),
+                () -> assertEquals(List.of(1), ids(searchIndex.search("annual", 0, 10))),
+                () -> assertEquals(List.of(3), ids(searchIndex.search("management", 0, 10))));
+    }
+
+    @Test
+    void shouldReadTheIndexedVersionsAfterReopen() throws IOException {
+        // document 1 is updated to version 1, document 2 deleted
+        Document updated = document(1, "Quarterly report", "Updated");
+        updated.setVersion(1);
+        searchIndex.documentsSaved(List.of(updated));
+        searchIndex.documentsDeleted(List.of(2));
+        Map<Integer, Long> versions = searchIndex.versions();
+        searchIndex.close();
+        searchIndex = new DocumentSearchIndex(directory.toString());
+
+        assertAll(
+                () -> assertEquals(Map.of(1, 1L, 3, 0L), versions),
+                () -> assertEquals(versions, searchIndex.versions()));
+    }
+
+    private static List<Integer> ids(SearchPage page) {
+        return page.getHits().stream().map(SearchHit::getId).toList();
+    }
+
+    private static Document document(int id, String title, String body) {
+        return new Document(id, title, body, Set.of(), Set.of());
+    }
+}
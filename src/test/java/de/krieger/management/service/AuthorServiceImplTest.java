@@ -1,9 +1,13 @@
 package de.krieger.management.service;
 
 import de.krieger.management.repository.AuthorRepository;
+import de.krieger.management.cache.CacheSynchronizer;
 import de.krieger.management.entity.AuthorEntity;
 import de.krieger.management.exception.AuthorNotFoundException;
 import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CursorPage;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,9 +15,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
 import java.util.Optional;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -25,6 +32,12 @@ class AuthorServiceImplTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private CacheSynchronizer cacheSynchronizer;
+
+    @Mock
+    private EntityManager entityManager;
+
     @InjectMocks
     private AuthorServiceImpl authorService;
 
@@ -65,8 +78,8 @@ class AuthorServiceImplTest {
     @Test
     void shouldReturnUpdatedAuthorWhenCallUpdateAuthor() {
         // Configure Mocked Methods
-        when(authorRepository.existsById(author.getId())).thenReturn(true);
-        when(authorRepository.save(any(AuthorEntity.class))).thenReturn(authorEntity);
+        when(authorRepository.findVersionById(author.getId())).thenReturn(Optional.of(0L));
+        when(authorRepository.saveAndFlush(any(AuthorEntity.class))).thenReturn(authorEntity);
 
         // invoke update Method
         Author updatedAuthor = authorService.update(author);
@@ -79,8 +92,9 @@ class AuthorServiceImplTest {
                 () -> assertEquals(author.getLastName(), updatedAuthor.getLastName(), "Author last name should match after update.")
         );
         // check, if Methods are invoked
-        verify(authorRepository).existsById(author.getId());
-        verify(authorRepository).save(any(AuthorEntity.class));
+        verify(authorRepository).findVersionById(author.getId());
+        verify(authorRepository).saveAndFlush(any(AuthorEntity.class));
+        verify(cacheSynchronizer).authorSaved(updatedAuthor);
     }
 
     @Test
@@ -94,6 +108,7 @@ class AuthorServiceImplTest {
         verify(authorRepository).existsById(anyInt());
         verify(authorRepository).deleteById(anyInt());
         verify(authorRepository).deleteAuthorIdFromDocument(anyInt());
+        verify(cacheSynchronizer).authorDeleted(author.getId());
 
     }
 
@@ -130,9 +145,9 @@ class AuthorServiceImplTest {
     @Test
     void ShouldThrowExceptionWhenUpdateAuthorNotExists() {
         // Configure Mocked Methods
-        when(authorRepository.existsById(anyInt())).thenReturn(false);
+        when(authorRepository.findVersionById(anyInt())).thenReturn(Optional.empty());
 
-        // invoke findById Method and check Exception
+        // invoke update Method and check Exception
         assertThrows(AuthorNotFoundException.class,
                 () -> authorService.update(author),
                 "Expected AuthorNotFoundException to be thrown when attempting to update a non-existent author.");
@@ -161,6 +176,77 @@ class AuthorServiceImplTest {
         verify(authorRepository).findAll();
     }
 
+    @Test
+    void shouldReturnCursorOfLastAuthorWhenPageIsFull() {
+        // Configure Mocked Methods
+        when(authorRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(List.of(authorEntity));
+        // invoke findPage Method
+        CursorPage<Author> page = authorService.findPage(0, 1);
+
+        assertAll(
+                () -> assertEquals(1, page.getItems().size(), "The page should contain 1 author."),
+                () -> assertEquals(authorEntity.getId(), page.getNextCursor(), "The cursor should be the id of the last author.")
+        );
+    }
+
+    @Test
+    void shouldReturnNoCursorWhenLastPage() {
+        // Configure Mocked Methods
+        when(authorRepository.findByIdGreaterThanOrderByIdAsc(eq(0), any())).thenReturn(List.of(authorEntity));
+        // invoke findPage Method
+        CursorPage<Author> page = authorService.findPage(0, 10);
+
+        // check, if there is no next page
+        assertNull(page.getNextCursor(), "The cursor should be null on the last page.");
+    }
+
+    @Test
+    void shouldPassAndDetachEveryAuthorWhenStreamAll() {
+        // Configure Mocked Methods
+        when(authorRepository.streamAll()).thenReturn(Stream.of(authorEntity));
+        List<Author> authors = new ArrayList<>();
+        // invoke streamAll Method
+        authorService.streamAll(authors::add);
+
+        assertEquals(1, authors.size(), "The consumer should receive 1 author.");
+        verify(entityManager).detach(authorEntity);
+    }
+
+    @Test
+    void shouldFlushEveryChunkWhenCallCreateAll() {
+        authorService.chunkSize = 2;
+        List<Author> authors = List.of(new Author(), new Author(), new Author());
+        // invoke createAll Method
+        List<BatchItemResult> results = authorService.createAll(authors);
+
+        assertAll(
+                () -> assertEquals(3, results.size(), "There should be one result per author."),
+                () -> assertTrue(results.stream().allMatch(result -> result.getStatus() == BatchItemResult.Status.CREATED), "All authors should be created."),
+                () -> assertEquals(2, results.get(2).getIndex(), "Results should keep the request order.")
+        );
+        // verify that every chunk is saved and flushed, and the caches are refreshed once
+        verify(authorRepository, times(2)).saveAll(any());
+        verify(entityManager, times(2)).flush();
+        verify(cacheSynchronizer).authorsSaved(any());
+    }
+
+    @Test
+    void shouldReportMissingAuthorsWhenCallDeleteAll() {
+        // Configure Mocked Methods, only author 1 exists
+        when(authorRepository.findExistingIds(any())).thenReturn(Set.of(1));
+        // invoke deleteAll Method
+        List<BatchItemResult> results = authorService.deleteAll(List.of(1, 2));
+
+        assertAll(
+                () -> assertEquals(BatchItemResult.Status.DELETED, results.get(0).getStatus(), "Existing author should be deleted."),
+                () -> assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus(), "Missing author should be reported as failed.")
+        );
+        // verify that only existing authors are deleted with one statement per table
+        verify(authorRepository).deleteAuthorIdsFromDocuments(List.of(1));
+        verify(authorRepository).deleteAllByIdInBatch(List.of(1));
+        verify(cacheSynchronizer).authorsDeleted(Set.of(1));
+    }
+
     // Test cases for cache implementation
 
 
@@ -4,14 +4,31 @@ import static org.mockito.Mockito.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.junit.jupiter.api.Assertions.*;
 
+import de.krieger.management.cache.CacheSynchronizer;
 import de.krieger.management.entity.AuthorEntity;
 import de.krieger.management.entity.DocumentEntity;
 import de.krieger.management.exception.AuthorNotFoundException;
+import de.krieger.management.graph.ReferenceGraphIndex;
 import de.krieger.management.exception.DocumentNotFoundException;
 import de.krieger.management.model.Author;
+import de.krieger.management.model.BatchItemResult;
+import de.krieger.management.model.CompressedText;
+import de.krieger.management.model.CursorPage;
 import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentExpansion;
+import de.krieger.management.model.DocumentFilter;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
 import de.krieger.management.repository.AuthorRepository;
+import de.krieger.management.repository.DocumentAuthorRow;
+import de.krieger.management.repository.DocumentReferenceRow;
 import de.krieger.management.repository.DocumentRepository;
+import de.krieger.management.repository.DocumentRow;
+import de.krieger.management.search.DocumentSearchIndex;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -19,6 +36,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.domain.Sort;
 
 import java.util.*;
 
@@ -31,6 +51,21 @@ class DocumentServiceImplTest {
     @Mock
     private AuthorRepository authorRepository;
 
+    @Mock
+    private CacheSynchronizer cacheSynchronizer;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private DocumentSearchIndex searchIndex;
+
+    @Mock
+    private ReferenceGraphIndex graphIndex;
+
     @InjectMocks
     private DocumentServiceImpl documentService;
 
@@ -51,7 +86,9 @@ class DocumentServiceImplTest {
         document.setTitle("Test Document");
         document.setBody("This is a test document.");
         document.setAuthors(Collections.singleton(author));
-        document.setReferences(Collections.singleton(new Document()));
+        Document referencedDocument = new Document();
+        referencedDocument.setId(2);
+        document.setReferences(Collections.singleton(referencedDocument));
 
         authorEntity = new AuthorEntity();
         authorEntity.setId(1);
@@ -59,16 +96,16 @@ class DocumentServiceImplTest {
         authorEntity.setLastName("Johnson");
 
         DocumentEntity referencedDocumentEntity = new DocumentEntity();
-        referencedDocumentEntity.setId(document.getId());
+        referencedDocumentEntity.setId(referencedDocument.getId());
         referencedDocumentEntity.setTitle("Test referenced Document");
-        referencedDocumentEntity.setBody("This is a test referenced document.");
+        referencedDocumentEntity.setBody(CompressedText.of("This is a test referenced document."));
         referencedDocumentEntity.setAuthors(new HashSet<>());
         referencedDocumentEntity.setReferences(new HashSet<>());
 
         documentEntity = new DocumentEntity();
         documentEntity.setId(document.getId());
         documentEntity.setTitle("Test Document");
-        documentEntity.setBody("This is a test document.");
+        documentEntity.setBody(CompressedText.of("This is a test document."));
         documentEntity.setAuthors(Collections.singleton(authorEntity));
         documentEntity.setReferences(Collections.singleton(referencedDocumentEntity));
     }
@@ -76,9 +113,9 @@ class DocumentServiceImplTest {
     @Test
     void shouldReturnStoredDocumentWhenCallCreateDocument() {
         // Configure MockObjects DocumentRepository for save a Document
-        when(documentRepository.save(any(DocumentEntity.class))).thenReturn(documentEntity);
-        when(authorRepository.findById(anyInt())).thenReturn(Optional.of(authorEntity));
-        when(documentRepository.findById(anyInt())).thenReturn(Optional.of(documentEntity));
+        when(documentRepository.saveAndFlush(any(DocumentEntity.class))).thenReturn(documentEntity);
+        when(authorRepository.findAllById(any())).thenReturn(List.of(authorEntity));
+        when(documentRepository.findAllById(any())).thenReturn(new ArrayList<>(documentEntity.getReferences()));
         // invoke create Method
         Document createdDocument = documentService.create(document);
 
@@ -92,8 +129,12 @@ class DocumentServiceImplTest {
                 () -> assertEquals(1, createdDocument.getReferences().size(),"Document References size should be 1 after saving.")
         );
         // verify that all methods are called
-        verify(documentRepository).save(any(DocumentEntity.class));
-        verify(authorRepository, times(document.getAuthors().size())).findById(anyInt());
+        verify(documentRepository).saveAndFlush(any(DocumentEntity.class));
+        // verify that relations are resolved with one query each
+        verify(authorRepository).findAllById(Set.of(1));
+        verify(documentRepository).findAllById(Set.of(2));
+        verify(authorRepository, never()).findById(anyInt());
+        verify(documentRepository, never()).findById(anyInt());
     }
     @Test
     void shouldThrowExceptionWhenCallCreateDocumentWithoutAuthor() {
@@ -106,13 +147,46 @@ class DocumentServiceImplTest {
                 "Expected AuthorNotFoundException to be thrown when attempting add document without attached Author.");
     }
 
+    @Test
+    void shouldReportAllMissingAuthorsWhenCallCreateDocument() {
+        Author missingAuthor = new Author();
+        missingAuthor.setId(3);
+        document.setAuthors(Set.of(document.getAuthors().iterator().next(), missingAuthor));
+        // Configure MockObject, only author 1 exists
+        when(authorRepository.findAllById(any())).thenReturn(List.of(authorEntity));
+
+        // invoke create Method and check Exception
+        AuthorNotFoundException exception = assertThrows(AuthorNotFoundException.class,
+                () -> documentService.create(document),
+                "Expected AuthorNotFoundException to be thrown when attempting add document with a non-existent Author.");
+        assertTrue(exception.getMessage().contains("[3]"), "The message should name the missing author id.");
+        verify(documentRepository, never()).saveAndFlush(any(DocumentEntity.class));
+    }
+
+    @Test
+    void shouldAttachCachedAuthorsWithoutQueryWhenCallCreateDocument() {
+        // Configure the author cache with the attached author
+        ConcurrentMapCache authorCache = new ConcurrentMapCache("authors");
+        authorCache.put(1, document.getAuthors().iterator().next());
+        when(cacheManager.getCache("authors")).thenReturn(authorCache);
+        when(authorRepository.getReferenceById(1)).thenReturn(authorEntity);
+        when(documentRepository.findAllById(any())).thenReturn(new ArrayList<>(documentEntity.getReferences()));
+        when(documentRepository.saveAndFlush(any(DocumentEntity.class))).thenReturn(documentEntity);
+        // invoke create Method
+        documentService.create(document);
+
+        // verify that the cached author is not loaded
+        verify(authorRepository).getReferenceById(1);
+        verify(authorRepository, never()).findAllById(any());
+    }
+
     @Test
     void shouldReturnUpdatedDocumentWhenCallUpdateDocument() {
         // Configure MockObjects DocumentRepository for update a Document
-        when(documentRepository.existsById(anyInt())).thenReturn(true);
-        when(documentRepository.save(any(DocumentEntity.class))).thenReturn(documentEntity);
-        when(authorRepository.findById(anyInt())).thenReturn(Optional.of(authorEntity));
-        when(documentRepository.findById(anyInt())).thenReturn(Optional.of(documentEntity));
+        when(documentRepository.findVersionById(anyInt())).thenReturn(Optional.of(0L));
+        when(documentRepository.saveAndFlush(any(DocumentEntity.class))).thenReturn(documentEntity);
+        when(authorRepository.findAllById(any())).thenReturn(List.of(authorEntity));
+        when(documentRepository.findAllById(any())).thenReturn(new ArrayList<>(documentEntity.getReferences()));
         // invoke update Method
         Document updatedDocument = documentService.update(document);
 
@@ -123,10 +197,13 @@ class DocumentServiceImplTest {
                 () -> assertEquals(document.getBody(), updatedDocument.getBody(), "Document Body should match after saving.")
         );
         // verify that all methods are called
-        verify(documentRepository).existsById(document.getId());
-        verify(documentRepository).save(any(DocumentEntity.class));
-        verify(authorRepository, times(document.getAuthors().size())).findById(anyInt());
-        verify(documentRepository, times(document.getReferences().size())).findById(anyInt());
+        verify(documentRepository).findVersionById(document.getId());
+        verify(documentRepository).saveAndFlush(any(DocumentEntity.class));
+        verify(authorRepository).findAllById(any());
+        verify(documentRepository).findAllById(any());
+        verify(cacheSynchronizer).documentSaved(updatedDocument);
+        verify(searchIndex).documentsSaved(List.of(updatedDocument));
+        verify(graphIndex).documentsSaved(List.of(updatedDocument));
     }
 
     @Test
@@ -141,6 +218,9 @@ class DocumentServiceImplTest {
         verify(documentRepository).existsById(document.getId());
         verify(documentRepository).deleteById(document.getId());
         verify(documentRepository).deleteByReferenceId(document.getId());
+        verify(cacheSynchronizer).documentDeleted(document.getId());
+        verify(searchIndex).documentsDeleted(List.of(document.getId()));
+        verify(graphIndex).documentsDeleted(List.of(document.getId()));
     }
 
     @Test
@@ -176,14 +256,24 @@ class DocumentServiceImplTest {
 
     @Test
     void ShouldThrowExceptionWhenUpdateDocumentNotExists() {
-        // Configure Mocked Method for check existsById
-        when(documentRepository.existsById(anyInt())).thenReturn(false);
+        // Configure Mocked Method for the version of the document
+        when(documentRepository.findVersionById(anyInt())).thenReturn(Optional.empty());
         // invoke update Method and check Exception
         assertThrows(DocumentNotFoundException.class,
                 () -> documentService.update(document),
                 "Expected DocumentNotFoundException to be thrown when attempting to update a non-existent document.");
     }
 
+    @Test
+    void shouldRejectUpdateWhenDocumentHasAnotherVersion() {
+        // the document has been updated twice since version 1 was read
+        when(documentRepository.findVersionById(document.getId())).thenReturn(Optional.of(3L));
+
+        assertThrows(OptimisticLockingFailureException.class, () -> documentService.update(document, Set.of(1L)));
+        verify(documentRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(cacheSynchronizer);
+    }
+
     @Test
     void ShouldThrowExceptionWhenDeleteDocumentNotExists() {
         // Configure Mocked Method for check existsById
@@ -196,18 +286,211 @@ class DocumentServiceImplTest {
 
     @Test
     void ShouldFindAllDocumentsWhenDocumentsExisting() {
-        // Configure Mocked Method for check existsById
-        when(documentRepository.findAllDocumentWithAuthorsAndReferences()).thenReturn(Collections.singleton(documentEntity));
-        // invoke getAll Method and check Exception
-        List<Document> documents = documentService.getAll();
+        // Configure Mocked Methods for the projection queries
+        when(documentRepository.findAllRows()).thenReturn(List.of(
+                new DocumentRow(1, "Test Document", CompressedText.of("This is a test document."), 0),
+                new DocumentRow(2, "Test referenced Document", CompressedText.of("This is a test referenced document."), 0)));
+        when(documentRepository.findAllAuthorRows()).thenReturn(List.of(
+                new DocumentAuthorRow(1, 1, "Olivia", "Johnson", 0),
+                new DocumentAuthorRow(2, 1, "Olivia", "Johnson", 0)));
+        when(documentRepository.findAllReferenceRows()).thenReturn(List.of(
+                new DocumentReferenceRow(1, 2, "Test referenced Document", 0)));
+        // invoke getAll Method
+        List<Document> documents = documentService.getAll(DocumentView.FULL);
 
         assertAll(
                 // check, if List of Documents is returned
                 () -> assertNotNull(documents,"Documents should not be null."),
-                () -> assertFalse(documents.isEmpty(),"Documents should not be empty."),
-                () -> assertEquals(1, documents.size(),"Documents size should not be 1.")
+                () -> assertEquals(2, documents.size(),"Documents size should be 2."),
+                () -> assertEquals(1, documents.get(0).getId(), "Documents should be ordered by id."),
+                () -> assertEquals(1, documents.get(0).getAuthors().size(), "Document should contain its author."),
+                () -> assertEquals("Test referenced Document", documents.get(0).getReferences().iterator().next().getTitle(),
+                        "Document should contain its reference."),
+                () -> assertNull(documents.get(0).getReferences().iterator().next().getBody(), "Reference should not contain the body."),
+                () -> assertSame(documents.get(0).getAuthors().iterator().next(), documents.get(1).getAuthors().iterator().next(),
+                        "Documents should share the author model.")
+        );
+        // verify that no entities are loaded
+        verify(documentRepository, never()).findAll();
+        verify(documentRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void shouldReturnCursorOfLastDocumentWhenPageIsFull() {
+        // Configure Mocked Methods for keyset pagination
+        when(documentRepository.findRowsAfter(eq(0), any())).thenReturn(List.of(new DocumentRow(1, "Test Document", CompressedText.of("This is a test document."), 0)));
+        when(documentRepository.findAuthorRows(List.of(1))).thenReturn(List.of(new DocumentAuthorRow(1, 1, "Olivia", "Johnson", 0)));
+        when(documentRepository.findReferenceRows(List.of(1))).thenReturn(List.of());
+        // invoke getPage Method
+        CursorPage<Document> page = documentService.getPage(0, 1, DocumentView.FULL);
+
+        assertAll(
+                () -> assertEquals(1, page.getItems().size(), "The page should contain 1 document."),
+                () -> assertEquals(1, page.getNextCursor(), "The cursor should be the id of the last document.")
+        );
+    }
+
+    @Test
+    void shouldReadSummaryRowsWithoutBodyWhenSummaryViewRequested() {
+        // Configure Mocked Methods for the summary projection
+        when(documentRepository.findAllSummaryRows()).thenReturn(List.of(new DocumentRow(1, "Test Document")));
+        when(documentRepository.findAllAuthorRows()).thenReturn(List.of());
+        when(documentRepository.findAllReferenceRows()).thenReturn(List.of());
+        // invoke getAll Method
+        List<Document> documents = documentService.getAll(DocumentView.SUMMARY);
+
+        assertNull(documents.get(0).getBody(), "Summary should not contain the body.");
+        // verify that the bodies are not read
+        verify(documentRepository, never()).findAllRows();
+    }
+
+    @Test
+    void shouldKeepOrderOfFilteredRowsWhenFind() {
+        // Configure Mocked Methods, the filtered rows sorted by title descending
+        DocumentFilter filter = new DocumentFilter(1, null, null, null, Sort.by(Sort.Direction.DESC, "title"));
+        when(documentRepository.findRows(filter, false)).thenReturn(List.of(new DocumentRow(2, "B"), new DocumentRow(1, "A")));
+        when(documentRepository.findAuthorRows(List.of(2, 1))).thenReturn(List.of(new DocumentAuthorRow(1, 1, "Olivia", "Johnson", 0),
+                new DocumentAuthorRow(2, 1, "Olivia", "Johnson", 0)));
+        when(documentRepository.findReferenceRows(List.of(2, 1))).thenReturn(List.of());
+        // invoke find Method
+        List<Document> documents = documentService.find(filter, DocumentView.SUMMARY);
+
+        assertAll(
+                () -> assertEquals(List.of(2, 1), documents.stream().map(Document::getId).toList(), "The order of the query should be kept."),
+                () -> assertEquals(1, documents.get(0).getAuthors().size(), "Document should contain its author."),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> documentService.find(new DocumentFilter(null, null, null, null, Sort.by("body")), DocumentView.SUMMARY),
+                        "Documents can only be sorted by id and title.")
+        );
+    }
+
+    @Test
+    void shouldEmbedEveryDocumentOnceWhenExpand() {
+        // Configure Mocked Methods, 1 -> 2 -> 3 -> 2 and 2 -> 1 back to the root
+        Document root = new Document(1, "A", "Body", Set.of(), Set.of(new Document(2, "B", null, Set.of(), Set.of())));
+        when(documentRepository.findReferenceRows(List.of(2))).thenReturn(List.of(new DocumentReferenceRow(2, 1, "A", 0), new DocumentReferenceRow(2, 3, "C", 0)));
+        when(documentRepository.findReferenceRows(List.of(3))).thenReturn(List.of(new DocumentReferenceRow(3, 2, "B", 0)));
+        when(documentRepository.findAuthorRows(any())).thenReturn(List.of(new DocumentAuthorRow(3, 1, "Olivia", "Johnson", 0)));
+        // invoke expand Method
+        Document expanded = documentService.expand(root, new DocumentExpansion(DocumentExpansion.MAX_DEPTH, true));
+
+        Document second = expanded.getReferences().iterator().next();
+        Map<Integer, Document> secondReferences = new HashMap<>();
+        second.getReferences().forEach(reference -> secondReferences.put(reference.getId(), reference));
+        Document third = secondReferences.get(3);
+        assertAll(
+                () -> assertEquals("Body", expanded.getBody(), "The root document keeps its body."),
+                () -> assertEquals("B", second.getTitle()),
+                () -> assertNull(secondReferences.get(1).getTitle(), "The root document is embedded by id."),
+                () -> assertEquals("C", third.getTitle()),
+                () -> assertEquals(1, third.getAuthors().size(), "Embedded documents contain their authors."),
+                () -> assertEquals(Set.of(new Document(2, null, null, null, null)), third.getReferences(), "Document 2 is embedded once."),
+                () -> assertSame(root, documentService.expand(root, DocumentExpansion.NONE))
+        );
+        // one query per level and one for the authors
+        verify(documentRepository, times(2)).findReferenceRows(any());
+        verify(documentRepository, times(1)).findAuthorRows(any());
+    }
+
+    @Test
+    void shouldAddTheAuthorsToTheReferencesWhenExpandAuthorsOnly() {
+        // Configure Mocked Methods, 1 -> 2
+        Document root = new Document(1, "A", "Body", Set.of(), Set.of(new Document(2, "B", null, Set.of(), Set.of())));
+        when(documentRepository.findAuthorRows(List.of(2))).thenReturn(List.of(new DocumentAuthorRow(2, 1, "Olivia", "Johnson", 0)));
+        // invoke expand Method
+        Document expanded = documentService.expand(root, new DocumentExpansion(0, true));
+
+        Document reference = expanded.getReferences().iterator().next();
+        assertAll(
+                () -> assertEquals("B", reference.getTitle()),
+                () -> assertEquals(Set.of(new Author(1, "Olivia", "Johnson")), reference.getAuthors(), "The reference contains its author."),
+                () -> assertNull(reference.getReferences(), "The references of the reference are not embedded.")
+        );
+        verify(documentRepository, never()).findReferenceRows(any());
+    }
+
+    @Test
+    void shouldAddTitlesWithOneQueryWhenGetReferenceGraph() {
+        // Configure Mocked Methods, document 1 references document 2
+        when(graphIndex.traverse(1, ReferenceDirection.REFERENCES, 2, 10, 100)).thenReturn(new ReferenceGraph(1, ReferenceDirection.REFERENCES, 2,
+                List.of(new ReferenceGraphNode(1, null, 0, null), new ReferenceGraphNode(2, null, 1, 1)), false));
+        when(graphIndex.traverse(3, ReferenceDirection.REFERENCES, 2, 10, 100)).thenReturn(null);
+        when(documentRepository.findSummaryRows(List.of(1, 2))).thenReturn(List.of(new DocumentRow(1, "Test Document"), new DocumentRow(2, "Referenced")));
+        // invoke getReferenceGraph Method
+        ReferenceGraph graph = documentService.getReferenceGraph(1, ReferenceDirection.REFERENCES, 2, 10, 100);
+
+        assertAll(
+                () -> assertEquals(List.of("Test Document", "Referenced"), graph.getNodes().stream().map(ReferenceGraphNode::getTitle).toList()),
+                () -> assertThrows(DocumentNotFoundException.class,
+                        () -> documentService.getReferenceGraph(3, ReferenceDirection.REFERENCES, 2, 10, 100),
+                        "A document which is not in the graph does not exist."),
+                () -> assertThrows(DocumentNotFoundException.class,
+                        () -> documentService.findReferencePath(1, 3, ReferenceDirection.BOTH, 6),
+                        "A document which is not in the graph does not exist.")
+        );
+        verify(documentRepository, times(1)).findSummaryRows(any());
+    }
+
+    @Test
+    void shouldPassEveryDocumentPageByPageWhenStreamAll() {
+        // Configure Mocked Methods, a single page
+        when(documentRepository.findSummaryRowsAfter(eq(0), any())).thenReturn(List.of(new DocumentRow(1, "Test Document")));
+        when(documentRepository.findAuthorRows(List.of(1))).thenReturn(List.of());
+        when(documentRepository.findReferenceRows(List.of(1))).thenReturn(List.of());
+        List<Document> documents = new ArrayList<>();
+        // invoke streamAll Method
+        documentService.streamAll(DocumentView.SUMMARY, documents::add);
+
+        assertEquals(1, documents.size(), "The consumer should receive 1 document.");
+        // verify that no entities are loaded
+        verify(documentRepository, never()).findAll();
+    }
+
+    @Test
+    void shouldReportInvalidDocumentsAndCreateValidOnesWhenCallCreateAll() {
+        Document documentWithoutAuthor = new Document();
+        documentWithoutAuthor.setTitle("No Author");
+        Document documentWithMissingReference = new Document();
+        documentWithMissingReference.setAuthors(document.getAuthors());
+        Document missingReference = new Document();
+        missingReference.setId(5);
+        documentWithMissingReference.setReferences(Set.of(missingReference));
+        // Configure Mocked Methods, author 1 and document 2 exist
+        when(authorRepository.findExistingIds(any())).thenReturn(Set.of(1));
+        when(documentRepository.findExistingIds(any())).thenReturn(Set.of(2));
+        when(authorRepository.findAllById(any())).thenReturn(List.of(authorEntity));
+        when(documentRepository.findAllById(any())).thenReturn(new ArrayList<>(documentEntity.getReferences()));
+        // invoke createAll Method
+        List<BatchItemResult> results = documentService.createAll(List.of(document, documentWithoutAuthor, documentWithMissingReference));
+
+        assertAll(
+                () -> assertEquals(BatchItemResult.Status.CREATED, results.get(0).getStatus(), "Valid document should be created."),
+                () -> assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus(), "Document without author should fail."),
+                () -> assertEquals(BatchItemResult.Status.FAILED, results.get(2).getStatus(), "Document with missing reference should fail."),
+                () -> assertTrue(results.get(2).getMessage().contains("[5]"), "The message should name the missing reference id.")
+        );
+        // verify that relations are checked and loaded with one query each, and only the valid document is saved
+        verify(authorRepository).findExistingIds(any());
+        verify(documentRepository).findExistingIds(any());
+        verify(documentRepository).saveAll(argThat(entities -> ((Collection<?>) entities).size() == 1));
+        verify(cacheSynchronizer).documentsSaved(argThat(documents -> documents.size() == 1));
+    }
+
+    @Test
+    void shouldDeleteJoinRowsAndDocumentsInBatchWhenCallDeleteAll() {
+        // Configure Mocked Method, only document 1 exists
+        when(documentRepository.findExistingIds(any())).thenReturn(Set.of(1));
+        // invoke deleteAll Method
+        List<BatchItemResult> results = documentService.deleteAll(List.of(1, 3));
+
+        assertAll(
+                () -> assertEquals(BatchItemResult.Status.DELETED, results.get(0).getStatus(), "Existing document should be deleted."),
+                () -> assertEquals(BatchItemResult.Status.FAILED, results.get(1).getStatus(), "Missing document should be reported as failed.")
         );
-        // verify that findAll methods is called
-        verify(documentRepository).findAllDocumentWithAuthorsAndReferences();
+        // verify that every table is cleaned with one statement
+        verify(documentRepository).deleteReferencesOfDocuments(List.of(1));
+        verify(documentRepository).deleteAuthorsOfDocuments(List.of(1));
+        verify(documentRepository).deleteAllByIdInBatch(List.of(1));
+        verify(cacheSynchronizer).documentsDeleted(Set.of(1));
     }
-}
\ No newline at end of file
+}
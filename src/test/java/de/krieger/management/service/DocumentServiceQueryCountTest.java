@@ -0,0 +1,240 @@
+package de.krieger.management.service;
+
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.exception.AuthorNotFoundException;
+import de.krieger.management.graph.ReferenceGraphIndex;
+import de.krieger.management.messaging.LocalMessagingConfig;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentExpansion;
+import de.krieger.management.model.DocumentFilter;
+import de.krieger.management.model.DocumentView;
+import de.krieger.management.model.ReferenceDirection;
+import de.krieger.management.model.ReferenceGraph;
+import de.krieger.management.model.ReferenceGraphNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static de.krieger.management.querycount.QueryCountAssertions.assertMaxQueries;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of SQL statements of the document service against N+1 regressions.
+ * The limits do not depend on the number of documents, authors and references.
+ */
+// own database and search index, the contexts of other tests keep theirs open
+@SpringBootTest(properties = {"query-count.enabled=true", "seed.documents=200", "seed.references-per-document=3",
+        "spring.datasource.url=jdbc:h2:mem:querycount", "search.index.path="})
+@ActiveProfiles(LocalMessagingConfig.PROFILE)
+class DocumentServiceQueryCountTest {
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DatasetSeeder seeder;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ReactiveReadService reactiveReadService;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void getAllReadsThreeQueriesPerView() {
+        // documents, author rows, reference rows
+        List<Document> full = assertMaxQueries(3, () -> documentService.getAll(DocumentView.FULL));
+        List<Document> summary = assertMaxQueries(3, () -> documentService.getAll(DocumentView.SUMMARY));
+        // cached
+        assertMaxQueries(0, () -> documentService.getAll(DocumentView.FULL));
+
+        assertAll(
+                () -> assertTrue(full.size() >= 200),
+                () -> assertEquals(full.size(), summary.size())
+        );
+    }
+
+    @Test
+    void findByIdLoadsAuthorsAndReferencesInBatches() {
+        int id = seeder.getDocumentIds().get(seeder.getDocumentIds().size() - 1);
+
+        // like a request with open session in view, the collections are loaded when mapped
+        Document document = assertMaxQueries(5, () -> transactionTemplate.execute(status -> documentService.findById(id)));
+        // cached
+        assertMaxQueries(0, () -> documentService.findById(id));
+
+        assertAll(
+                () -> assertEquals(id, document.getId()),
+                () -> assertFalse(document.getAuthors().isEmpty())
+        );
+    }
+
+    @Test
+    void reactiveFindDocumentLoadsTheBodyOnAColdCache() {
+        int id = seeder.getDocumentIds().get(0);
+
+        // without open session in view, the service is called on the bounded elastic scheduler
+        Document document = reactiveReadService.findDocument(id).block();
+
+        assertAll(
+                () -> assertEquals(id, document.getId()),
+                () -> assertFalse(document.getBody().isEmpty(), "The lazy body should be loaded."),
+                () -> assertSame(document, reactiveReadService.findDocument(id).block(), "The document should be cached.")
+        );
+    }
+
+    @Test
+    void createAndUpdateDoNotLoadReferencesOneByOne() {
+        Document document = new Document(0, "Query count", "Body", authors(5), references(10));
+
+        // authors and references in one query each, the inserts batched, and possibly a sequence call
+        Document created = assertMaxQueries(6, () -> documentService.create(document));
+        int createdReferences = created.getReferences().size();
+        Document changed = new Document(created.getId(), "Query count updated", "Body", authors(3), references(15));
+        // additionally the existence check and the current associations
+        Document updated = assertMaxQueries(8, () -> documentService.update(changed));
+
+        assertAll(
+                () -> assertEquals(10, createdReferences),
+                () -> assertEquals("Query count updated", updated.getTitle()),
+                () -> assertEquals(15, updated.getReferences().size())
+        );
+    }
+
+    @Test
+    void updateIncrementsTheVersionAndRejectsStaleVersions() {
+        Document created = documentService.create(new Document(0, "Versioned", "Body", authors(1), references(1)));
+        // only the references change, the document owns the join table
+        Document updated = assertMaxQueries(8, () -> documentService.update(
+                new Document(created.getId(), "Versioned", "Body", authors(1), references(2)), Set.of(created.getVersion())));
+
+        assertAll(
+                () -> assertEquals(created.getVersion() + 1, updated.getVersion()),
+                () -> assertEquals(updated.getVersion(), documentService.findById(created.getId()).getVersion()),
+                () -> assertThrows(OptimisticLockingFailureException.class, () -> documentService.update(
+                        new Document(created.getId(), "Versioned again", "Body", authors(1), references(1)), Set.of(created.getVersion()))),
+                () -> assertEquals("Versioned", documentService.findById(created.getId()).getTitle())
+        );
+    }
+
+    @Test
+    void findReadsThreeQueriesForAnyFilter() {
+        List<Document> all = documentService.getAll(DocumentView.FULL);
+        Document referencing = all.stream().filter(document -> document.getReferences().size() > 1).findFirst().orElseThrow();
+        int referenceId = referencing.getReferences().iterator().next().getId();
+        int authorId = referencing.getAuthors().iterator().next().getId();
+
+        List<Document> byAuthor = assertMaxQueries(3, () -> documentService.find(filter(authorId, null, null, null, Sort.unsorted()), DocumentView.SUMMARY));
+        List<Document> byReference = assertMaxQueries(3, () -> documentService.find(filter(null, null, referenceId, null, Sort.unsorted()), DocumentView.FULL));
+        List<Document> referencedBy = assertMaxQueries(3, () -> documentService.find(filter(null, null, null, referencing.getId(), Sort.by(Sort.Direction.DESC, "title")), DocumentView.SUMMARY));
+        List<Document> byTitle = assertMaxQueries(3, () -> documentService.find(filter(null, "Document 1", null, null, Sort.by("title")), DocumentView.SUMMARY));
+
+        assertAll(
+                () -> assertEquals(all.stream().filter(document -> document.getAuthors().stream().anyMatch(author -> author.getId() == authorId)).map(Document::getId).toList(),
+                        byAuthor.stream().map(Document::getId).toList()),
+                () -> assertEquals(all.stream().filter(document -> document.getReferences().stream().anyMatch(reference -> reference.getId() == referenceId)).map(Document::getId).toList(),
+                        byReference.stream().map(Document::getId).toList()),
+                () -> assertNotNull(byReference.get(0).getBody(), "The FULL view contains the bodies."),
+                () -> assertEquals(referencing.getReferences().stream().map(Document::getTitle).sorted(Comparator.reverseOrder()).toList(),
+                        referencedBy.stream().map(Document::getTitle).toList()),
+                () -> assertTrue(byTitle.stream().allMatch(document -> document.getTitle().startsWith("Document 1"))),
+                () -> assertEquals(all.stream().filter(document -> document.getTitle().startsWith("Document 1")).count(), byTitle.size()),
+                () -> assertThrows(IllegalArgumentException.class, () -> documentService.find(filter(null, null, null, null, Sort.by("body")), DocumentView.SUMMARY))
+        );
+    }
+
+    @Test
+    void referenceGraphReadsOnlyTheTitles() {
+        // seeded documents <- first <- second <- third, the graph is updated after each commit
+        int seededId = seeder.getDocumentIds().get(0);
+        Document first = documentService.create(new Document(0, "Graph 1", "Body", authors(1), references(2)));
+        Document second = documentService.create(new Document(0, "Graph 2", "Body", authors(1), Set.of(new Document(first.getId(), null, null, Set.of(), Set.of()))));
+        Document third = documentService.create(new Document(0, "Graph 3", "Body", authors(1), Set.of(new Document(second.getId(), null, null, Set.of(), Set.of()))));
+
+        ReferenceGraph graph = assertMaxQueries(1, () -> documentService.getReferenceGraph(third.getId(), ReferenceDirection.REFERENCES,
+                ReferenceGraphIndex.MAX_DEPTH, 100, 1000));
+        List<ReferenceGraphNode> path = assertMaxQueries(1, () -> documentService.findReferencePath(seededId, third.getId(),
+                ReferenceDirection.REFERENCED_BY, 6));
+
+        assertAll(
+                () -> assertEquals(List.of(third.getId(), second.getId(), first.getId()), graph.getNodes().stream().limit(3).map(ReferenceGraphNode::getId).toList()),
+                () -> assertEquals(5, graph.getNodes().size()),
+                () -> assertEquals(List.of("Graph 3", "Graph 2", "Graph 1"), graph.getNodes().stream().limit(3).map(ReferenceGraphNode::getTitle).toList()),
+                () -> assertEquals(List.of(seededId, first.getId(), second.getId(), third.getId()), path.stream().map(ReferenceGraphNode::getId).toList())
+        );
+    }
+
+    @Test
+    void expandReadsOneQueryPerLevel() {
+        // third -> second -> first -> third (cycle) and two seeded documents
+        Document first = documentService.create(new Document(0, "Expand 1", "Body", authors(1), references(2)));
+        Document second = documentService.create(new Document(0, "Expand 2", "Body", authors(1), Set.of(new Document(first.getId(), null, null, Set.of(), Set.of()))));
+        Document third = documentService.create(new Document(0, "Expand 3", "Body", authors(1), Set.of(new Document(second.getId(), null, null, Set.of(), Set.of()))));
+        Set<Document> firstReferences = new HashSet<>(references(2));
+        firstReferences.add(new Document(third.getId(), null, null, Set.of(), Set.of()));
+        documentService.update(new Document(first.getId(), "Expand 1", "Body", authors(1), firstReferences));
+        Document cached = documentService.findById(third.getId());
+
+        // the levels of second, first and the seeded documents, then the authors
+        Document expanded = assertMaxQueries(4, () -> documentService.expand(cached, new DocumentExpansion(DocumentExpansion.MAX_DEPTH, true)));
+
+        Document expandedSecond = expanded.getReferences().iterator().next();
+        Document expandedFirst = expandedSecond.getReferences().iterator().next();
+        assertAll(
+                () -> assertEquals("Expand 2", expandedSecond.getTitle()),
+                () -> assertEquals(1, expandedSecond.getAuthors().size()),
+                () -> assertEquals(3, expandedFirst.getReferences().size()),
+                () -> assertTrue(expandedFirst.getReferences().contains(new Document(third.getId(), null, null, null, null)),
+                        "The cycle back to the document ends with its id.")
+        );
+    }
+
+    @Test
+    void createReportsAStaleCachedAuthorAsNotFound() {
+        // an author deleted before the eviction of its cache entry is attached without a query
+        Author deletedAuthor = new Author(Integer.MAX_VALUE, "Deleted", "Author");
+        cacheManager.getCache(CacheNames.AUTHORS).put(deletedAuthor.getId(), deletedAuthor);
+
+        assertThrows(AuthorNotFoundException.class,
+                () -> documentService.create(new Document(0, "Stale author", "Body", Set.of(deletedAuthor), references(1))));
+    }
+
+    private static DocumentFilter filter(Integer authorId, String titlePrefix, Integer references, Integer referencedBy, Sort sort) {
+        return new DocumentFilter(authorId, titlePrefix, references, referencedBy, sort);
+    }
+
+    private Set<Author> authors(int count) {
+        return seeder.getAuthorIds().stream().limit(count).map(id -> {
+            Author author = new Author();
+            author.setId(id);
+            return author;
+        }).collect(Collectors.toSet());
+    }
+
+    private Set<Document> references(int count) {
+        return seeder.getDocumentIds().stream().limit(count)
+                .map(id -> new Document(id, null, null, Set.of(), Set.of()))
+                .collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,101 @@
+package de.krieger.management.service;
+
+import de.krieger.management.cache.CacheNames;
+import de.krieger.management.exception.DocumentNotFoundException;
+import de.krieger.management.model.Author;
+import de.krieger.management.model.Document;
+import de.krieger.management.model.DocumentView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.reactivestreams.Subscription;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionOperations;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveReadServiceImplTest {
+
+    @Mock
+    private DocumentService documentService;
+
+    @Mock
+    private AuthorService authorService;
+
+    private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+    private ReactiveReadServiceImpl readService;
+
+    @BeforeEach
+    void setUp() {
+        readService = new ReactiveReadServiceImpl(documentService, authorService, cacheManager, Schedulers.immediate(),
+                TransactionOperations.withoutTransaction());
+    }
+
+    @Test
+    void shouldServeCachedDocumentWithoutService() {
+        // the document is cached
+        Document document = new Document(1, "Cached", null, Set.of(), Set.of());
+        cacheManager.getCache(CacheNames.DOCUMENTS).put(1, document);
+
+        // verify that the cached document is emitted
+        assertSame(document, readService.findDocument(1).block());
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    void shouldLoadMissingAuthorThroughService() {
+        // the author is not cached
+        Author author = new Author(2, "Mary", "Muller");
+        when(authorService.findById(2)).thenReturn(author);
+
+        // verify that the author is loaded by the service, when subscribed
+        var mono = readService.findAuthor(2);
+        verifyNoInteractions(authorService);
+        assertSame(author, mono.block());
+    }
+
+    @Test
+    void shouldPropagateNotFoundAsError() {
+        when(documentService.findById(3)).thenThrow(new DocumentNotFoundException("Document not found"));
+
+        // verify that the exception is emitted as error
+        assertThrows(DocumentNotFoundException.class, () -> readService.findDocument(3).block());
+    }
+
+    @Test
+    void shouldEmitListElementsOnDemand() {
+        // three documents, the subscriber requests one
+        List<Document> documents = List.of(new Document(1, "A", null, Set.of(), Set.of()),
+                new Document(2, "B", null, Set.of(), Set.of()), new Document(3, "C", null, Set.of(), Set.of()));
+        cacheManager.getCache(CacheNames.DOCUMENTS_ALL).put(DocumentView.SUMMARY, documents);
+        List<Document> received = new ArrayList<>();
+        readService.findAllDocuments(DocumentView.SUMMARY).subscribe(new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(Document document) {
+                received.add(document);
+            }
+        });
+
+        // verify that only the requested document is emitted
+        assertAll(
+                () -> assertEquals(List.of(documents.get(0)), received),
+                () -> assertEquals(3, readService.findAllDocuments(DocumentView.SUMMARY).collectList().block().size()));
+        verifyNoInteractions(documentService);
+    }
+}